@@ -0,0 +1,331 @@
+package ch.cyberduck.core.azure;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.BytecountStreamListener;
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.DirectoryDelimiterPathContainerService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.concurrency.Interruptibles;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.io.ThrottledInputStream;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.SegmentRetryCallable;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bouncycastle.util.encoders.Base64;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.RetryNoRetry;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+
+/**
+ * Upload block blob with blocks staged concurrently and committed when all blocks are uploaded. Uncommitted blocks
+ * from a previous attempt are reused when resuming.
+ */
+public class AzureBlockUploadService implements Upload<Void> {
+    private static final Logger log = LogManager.getLogger(AzureBlockUploadService.class);
+
+    /**
+     * Maximum number of blocks in a block blob
+     */
+    public static final int MAXIMUM_UPLOAD_BLOCKS = 50000;
+
+    private final AzureSession session;
+    private final OperationContext context;
+    private final AzureWriteFeature writer;
+    private final PathContainerService containerService
+            = new DirectoryDelimiterPathContainerService();
+
+    private final Long blocksize;
+    private final Integer concurrency;
+
+    public AzureBlockUploadService(final AzureSession session, final OperationContext context, final AzureWriteFeature writer) {
+        this(session, context, writer, new HostPreferences(session.getHost()).getLong("azure.upload.block.size"),
+                new HostPreferences(session.getHost()).getInteger("azure.upload.block.concurrency"));
+    }
+
+    public AzureBlockUploadService(final AzureSession session, final OperationContext context, final AzureWriteFeature writer,
+                                   final Long blocksize, final Integer concurrency) {
+        this.session = session;
+        this.context = context;
+        this.writer = writer;
+        this.blocksize = blocksize;
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public Write.Append append(final Path file, final TransferStatus status) throws BackgroundException {
+        final List<BlockEntry> uncommitted = this.uncommitted(file);
+        if(!uncommitted.isEmpty()) {
+            long size = 0L;
+            for(BlockEntry block : uncommitted) {
+                size += block.getSize();
+            }
+            return new Write.Append(true).withStatus(status).withSize(size);
+        }
+        return Write.override;
+    }
+
+    @Override
+    public Void upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                       final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        final ThreadPool pool = ThreadPoolFactory.get("block", concurrency);
+        try {
+            final CloudBlockBlob blob = this.reference(file);
+            // Full size of file
+            final long size = status.getOffset() + status.getLength();
+            final List<BlockEntry> blocks = new ArrayList<>();
+            final List<Future<Void>> staged = new ArrayList<>();
+            for(Block block : this.blocks(status.isAppend() ? this.uncommitted(file) : Collections.emptyList(), size)) {
+                blocks.add(new BlockEntry(block.id));
+                if(block.uncommitted) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Skip uncommitted block number %d", block.number));
+                    }
+                    continue;
+                }
+                // Submit to queue
+                staged.add(this.submit(pool, blob, file, local, throttle, listener, status, block.number, block.id, block.offset, block.length));
+            }
+            Interruptibles.awaitAll(staged);
+            if(status.isExists()) {
+                if(new HostPreferences(session.getHost()).getBoolean("azure.upload.snapshot")) {
+                    session.getClient().getContainerReference(containerService.getContainer(file).getName())
+                            .getBlobReferenceFromServer(containerService.getKey(file)).createSnapshot();
+                }
+            }
+            writer.setProperties(blob, status);
+            blob.commitBlockList(blocks, AccessCondition.generateEmptyCondition(), new BlobRequestOptions(), context);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Committed %d blocks for %s", blocks.size(), file));
+            }
+            final PathAttributes attributes = new AzureAttributesFinderFeature(session, context).toAttributes(blob);
+            attributes.setSize(size);
+            // Mark parent status as complete
+            status.withResponse(attributes).setComplete();
+            return null;
+        }
+        catch(StorageException e) {
+            throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        catch(URISyntaxException e) {
+            throw new NotfoundException(e.getMessage(), e);
+        }
+        finally {
+            // Cancel future tasks
+            pool.shutdown(false);
+        }
+    }
+
+    private Future<Void> submit(final ThreadPool pool, final CloudBlockBlob blob, final Path file, final Local local,
+                                final BandwidthThrottle throttle, final StreamListener listener, final TransferStatus overall,
+                                final int blockNumber, final String id, final long offset, final long length) {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Submit block %d of %s to queue with offset %d and length %d", blockNumber, file, offset, length));
+        }
+        final BytecountStreamListener counter = new BytecountStreamListener(listener);
+        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<Void>() {
+            @Override
+            public Void call() throws BackgroundException {
+                overall.validate();
+                // Read block to allow mark and reset of stream by client
+                final byte[] payload = AzureBlockUploadService.this.read(local, offset, length);
+                final BlobRequestOptions options = new BlobRequestOptions();
+                // Retry handled for segment
+                options.setRetryPolicyFactory(new RetryNoRetry());
+                options.setUseTransactionalContentMD5(new HostPreferences(session.getHost()).getBoolean("azure.upload.md5"));
+                try {
+                    blob.uploadBlock(id, new ThrottledInputStream(new ByteArrayInputStream(payload), throttle), length,
+                            AccessCondition.generateEmptyCondition(), options, context);
+                }
+                catch(StorageException e) {
+                    throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+                }
+                catch(IOException e) {
+                    throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+                }
+                counter.sent(length);
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Uploaded block number %d of %s", blockNumber, file));
+                }
+                return null;
+            }
+        }, overall, counter));
+    }
+
+    /**
+     * @param uncommitted Uncommitted blocks from previous attempt
+     * @param size        Full size of file
+     * @return All blocks of file in order to commit with uncommitted blocks to reuse
+     */
+    List<Block> blocks(final List<BlockEntry> uncommitted, final long size) {
+        final Map<String, BlockEntry> previous = new HashMap<>();
+        for(BlockEntry block : uncommitted) {
+            previous.put(block.getId(), block);
+        }
+        final List<Block> blocks = new ArrayList<>();
+        long offset = 0;
+        for(int blockNumber = 1; offset < size; blockNumber++) {
+            final String id = this.id(blockNumber);
+            final BlockEntry block = previous.get(id);
+            if(null != block) {
+                blocks.add(new Block(blockNumber, id, offset, block.getSize(), true));
+                offset += block.getSize();
+                continue;
+            }
+            // Last block can be smaller. Adjust block size to not exceed maximum number of blocks.
+            final long length = Math.min(Math.max((size / (MAXIMUM_UPLOAD_BLOCKS - 1)), blocksize), size - offset);
+            blocks.add(new Block(blockNumber, id, offset, length, false));
+            offset += length;
+        }
+        return blocks;
+    }
+
+    static final class Block {
+        final int number;
+        final String id;
+        final long offset;
+        final long length;
+        /**
+         * Uploaded in previous attempt
+         */
+        final boolean uncommitted;
+
+        Block(final int number, final String id, final long offset, final long length, final boolean uncommitted) {
+            this.number = number;
+            this.id = id;
+            this.offset = offset;
+            this.length = length;
+            this.uncommitted = uncommitted;
+        }
+    }
+
+    /**
+     * @return Contents of block in file
+     */
+    private byte[] read(final Local local, final long offset, final long length) throws BackgroundException {
+        final byte[] payload = new byte[(int) length];
+        final InputStream in = local.getInputStream();
+        try {
+            IOUtils.readFully(StreamCopier.skip(in, offset), payload);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e);
+        }
+        finally {
+            IOUtils.closeQuietly(in);
+        }
+        return payload;
+    }
+
+    /**
+     * @return Base64 encoded block ID of same length for all blocks
+     */
+    String id(final int blockNumber) {
+        return Base64.toBase64String(String.format("%08d", blockNumber).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return Uncommitted blocks with block ID matching block number
+     */
+    private List<BlockEntry> uncommitted(final Path file) throws BackgroundException {
+        try {
+            final List<BlockEntry> blocks = new ArrayList<>();
+            for(BlockEntry block : this.reference(file).downloadBlockList(BlockListingFilter.UNCOMMITTED,
+                    AccessCondition.generateEmptyCondition(), new BlobRequestOptions(), context)) {
+                final String decoded = new String(Base64.decode(block.getId()), StandardCharsets.UTF_8);
+                if(8 == decoded.length() && StringUtils.isNumeric(decoded)) {
+                    blocks.add(block);
+                }
+                else {
+                    log.warn(String.format("Ignore uncommitted block %s", block.getId()));
+                }
+            }
+            return blocks;
+        }
+        catch(StorageException e) {
+            switch(e.getHttpStatusCode()) {
+                case HttpStatus.SC_NOT_FOUND:
+                    return Collections.emptyList();
+                case HttpStatus.SC_CONFLICT:
+                    // Invalid blob type for existing append blob
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("No uncommitted blocks for %s. %s", file, e.getMessage()));
+                    }
+                    return Collections.emptyList();
+            }
+            throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        catch(URISyntaxException e) {
+            throw new NotfoundException(e.getMessage(), e);
+        }
+    }
+
+    private CloudBlockBlob reference(final Path file) throws URISyntaxException, StorageException {
+        return session.getClient().getContainerReference(containerService.getContainer(file).getName())
+                .getBlockBlobReference(containerService.getKey(file));
+    }
+
+    @Override
+    public Upload<Void> withWriter(final Write<Void> writer) {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AzureBlockUploadService{");
+        sb.append("blocksize=").append(blocksize);
+        sb.append(", concurrency=").append(concurrency);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package ch.cyberduck.core.azure;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.shared.DefaultUploadFeature;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.blob.BlobType;
+
+public class AzureThresholdUploadService implements Upload<Void> {
+    private static final Logger log = LogManager.getLogger(AzureThresholdUploadService.class);
+
+    private final AzureSession session;
+    private final OperationContext context;
+    private final Long threshold;
+
+    private Write<Void> writer;
+
+    public AzureThresholdUploadService(final AzureSession session, final OperationContext context) {
+        this(session, context, new HostPreferences(session.getHost()).getLong("azure.upload.block.threshold"));
+    }
+
+    public AzureThresholdUploadService(final AzureSession session, final OperationContext context, final Long threshold) {
+        this.session = session;
+        this.context = context;
+        this.threshold = threshold;
+        this.writer = new AzureWriteFeature(session, context);
+    }
+
+    @Override
+    public Write.Append append(final Path file, final TransferStatus status) throws BackgroundException {
+        final Write.Append append = writer.append(file, status);
+        if(append.append) {
+            // Existing append blob
+            return append;
+        }
+        if(writer instanceof AzureWriteFeature) {
+            // Uncommitted blocks can only be listed for block blob
+            if(this.isBlockBlob(file, status)) {
+                return new AzureBlockUploadService(session, context, (AzureWriteFeature) writer).append(file, status);
+            }
+        }
+        return append;
+    }
+
+    @Override
+    public Void upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                       final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        // Upload with single stream for decorated writer such as with client side encryption
+        if(writer instanceof AzureWriteFeature) {
+            if(status.isAppend() || status.getLength() >= threshold) {
+                if(this.isBlockBlob(file, status)) {
+                    return new AzureBlockUploadService(session, context, (AzureWriteFeature) writer).upload(file, local, throttle, listener, status, callback);
+                }
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Skip block upload for %s", file));
+                }
+            }
+        }
+        return new DefaultUploadFeature<>(writer).upload(file, local, throttle, listener, status, callback);
+    }
+
+    /**
+     * @return False when uploading to append blob
+     */
+    private boolean isBlockBlob(final Path file, final TransferStatus status) throws BackgroundException {
+        if(status.isExists()) {
+            // Keep blob type of existing file
+            final PathAttributes attr = new AzureAttributesFinderFeature(session, context).find(file);
+            return BlobType.BLOCK_BLOB == BlobType.valueOf(attr.getCustom().get(AzureAttributesFinderFeature.KEY_BLOB_TYPE));
+        }
+        if(status.isAppend()) {
+            // Resume with uncommitted blocks only
+            return true;
+        }
+        return BlobType.BLOCK_BLOB == BlobType.valueOf(new HostPreferences(session.getHost()).getProperty("azure.upload.blobtype"));
+    }
+
+    @Override
+    public Upload<Void> withWriter(final Write<Void> writer) {
+        this.writer = writer;
+        return this;
+    }
+}
@@ -0,0 +1,97 @@
+package ch.cyberduck.core.azure;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.blob.BlockEntry;
+
+import static org.junit.Assert.*;
+
+public class AzureBlockUploadServiceBlocksTest {
+
+    private final AzureSession session = new AzureSession(new Host(new AzureProtocol()));
+
+    @Test
+    public void testBlocks() {
+        final AzureBlockUploadService service = new AzureBlockUploadService(session, new OperationContext(),
+                new AzureWriteFeature(session, null), 100L, 1);
+        final List<AzureBlockUploadService.Block> blocks = service.blocks(Collections.emptyList(), 450L);
+        assertEquals(5, blocks.size());
+        for(int i = 0; i < 5; i++) {
+            assertEquals(i + 1, blocks.get(i).number);
+            assertEquals(service.id(i + 1), blocks.get(i).id);
+            assertEquals(i * 100L, blocks.get(i).offset);
+            assertFalse(blocks.get(i).uncommitted);
+        }
+        assertEquals(50L, blocks.get(4).length);
+        assertTrue(service.blocks(Collections.emptyList(), 0L).isEmpty());
+    }
+
+    @Test
+    public void testResumeTrailingUncommitted() {
+        final AzureBlockUploadService service = new AzureBlockUploadService(session, new OperationContext(),
+                new AzureWriteFeature(session, null), 100L, 1);
+        // Listing of uncommitted blocks with block 3 missing and short last block uploaded
+        final List<BlockEntry> uncommitted = new ArrayList<>();
+        uncommitted.add(this.block(service.id(1), 100L));
+        uncommitted.add(this.block(service.id(2), 100L));
+        uncommitted.add(this.block(service.id(4), 100L));
+        uncommitted.add(this.block(service.id(5), 50L));
+        final List<AzureBlockUploadService.Block> blocks = service.blocks(uncommitted, 450L);
+        assertEquals(5, blocks.size());
+        for(int i = 0; i < 5; i++) {
+            assertEquals(service.id(i + 1), blocks.get(i).id);
+            assertEquals(i * 100L, blocks.get(i).offset);
+        }
+        assertTrue(blocks.get(0).uncommitted);
+        assertTrue(blocks.get(1).uncommitted);
+        assertFalse(blocks.get(2).uncommitted);
+        assertEquals(100L, blocks.get(2).length);
+        assertTrue(blocks.get(3).uncommitted);
+        assertTrue(blocks.get(4).uncommitted);
+        assertEquals(50L, blocks.get(4).length);
+    }
+
+    @Test
+    public void testResumeAllUncommitted() {
+        final AzureBlockUploadService service = new AzureBlockUploadService(session, new OperationContext(),
+                new AzureWriteFeature(session, null), 100L, 1);
+        final List<BlockEntry> uncommitted = new ArrayList<>();
+        uncommitted.add(this.block(service.id(1), 100L));
+        uncommitted.add(this.block(service.id(2), 100L));
+        uncommitted.add(this.block(service.id(3), 50L));
+        final List<AzureBlockUploadService.Block> blocks = service.blocks(uncommitted, 250L);
+        assertEquals(3, blocks.size());
+        for(AzureBlockUploadService.Block block : blocks) {
+            assertTrue(block.uncommitted);
+        }
+        assertEquals(service.id(3), blocks.get(2).id);
+    }
+
+    private BlockEntry block(final String id, final long size) {
+        final BlockEntry block = new BlockEntry(id);
+        block.setSize(size);
+        return block;
+    }
+}
@@ -0,0 +1,64 @@
+package ch.cyberduck.core.azure;
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.BytecountStreamListener;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.blob.BlobType;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class AzureBlockUploadServiceTest extends AbstractAzureTest {
+
+    @Test
+    public void testUploadMultipleBlocks() throws Exception {
+        final OperationContext context = new OperationContext();
+        final AzureBlockUploadService service = new AzureBlockUploadService(session, context,
+                new AzureWriteFeature(session, BlobType.BLOCK_BLOB, context), 1024L * 1024L, 2);
+        final Path container = new Path("cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final String name = new AlphanumericRandomStringService().random();
+        final Path test = new Path(container, name, EnumSet.of(Path.Type.file));
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), name);
+        final byte[] random = RandomUtils.nextBytes(2 * 1024 * 1024 + 1);
+        IOUtils.write(random, local.getOutputStream(false));
+        final TransferStatus status = new TransferStatus();
+        status.setLength(random.length);
+        status.setMime("text/plain");
+        final BytecountStreamListener count = new BytecountStreamListener();
+        service.upload(test, local, new BandwidthThrottle(BandwidthThrottle.UNLIMITED), count, status, new DisabledConnectionCallback());
+        assertEquals(random.length, count.getSent());
+        assertTrue(status.isComplete());
+        assertEquals(random.length, status.getResponse().getSize());
+        assertFalse(service.append(test, new TransferStatus()).append);
+        final PathAttributes attr = new AzureAttributesFinderFeature(session, context).find(test);
+        assertEquals(random.length, attr.getSize());
+        assertEquals(BlobType.BLOCK_BLOB.name(), attr.getCustom().get(AzureAttributesFinderFeature.KEY_BLOB_TYPE));
+        assertEquals("text/plain", new AzureMetadataFeature(session, context).getMetadata(test).get("Content-Type"));
+        final byte[] buffer = new byte[random.length];
+        final InputStream in = new AzureReadFeature(session, context).read(test, new TransferStatus(), new DisabledConnectionCallback());
+        IOUtils.readFully(in, buffer);
+        in.close();
+        assertArrayEquals(random, buffer);
+        new AzureDeleteFeature(session, context).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
+        local.delete();
+    }
+}
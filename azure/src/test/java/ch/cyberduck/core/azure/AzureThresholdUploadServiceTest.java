@@ -0,0 +1,48 @@
+package ch.cyberduck.core.azure;
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.blob.BlobType;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class AzureThresholdUploadServiceTest extends AbstractAzureTest {
+
+    @Test
+    public void testAppendExistingAppendBlob() throws Exception {
+        final OperationContext context = new OperationContext();
+        final Path container = new Path("cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final Path test = new Path(container, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file));
+        final byte[] content = RandomUtils.nextBytes(513);
+        final OutputStream out = new AzureWriteFeature(session, BlobType.APPEND_BLOB, context).write(test,
+                new TransferStatus().withLength(content.length), new DisabledConnectionCallback());
+        new StreamCopier(new TransferStatus(), new TransferStatus()).transfer(new ByteArrayInputStream(content), out);
+        final TransferStatus status = new TransferStatus().exists(true)
+                .withRemote(new AzureAttributesFinderFeature(session, context).find(test));
+        // No uncommitted blocks for append blob
+        assertFalse(new AzureBlockUploadService(session, context, new AzureWriteFeature(session, context)).append(test, status).append);
+        final Write.Append append = new AzureThresholdUploadService(session, context).append(test, status);
+        assertTrue(append.append);
+        assertEquals(content.length, append.size, 0L);
+        new AzureDeleteFeature(session, context).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+}
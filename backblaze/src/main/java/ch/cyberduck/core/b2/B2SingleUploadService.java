@@ -15,13 +15,19 @@ package ch.cyberduck.core.b2;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
+import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -48,6 +54,18 @@ public class B2SingleUploadService extends HttpUploadFeature<BaseB2Response, Mes
         this.writer = writer;
     }
 
+    @Override
+    public BaseB2Response upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                                 final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        if(HashAlgorithm.sha1 == status.getChecksum().algorithm) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip digest for %s with SHA-1 checksum %s verified by server", file, status.getChecksum()));
+            }
+            return new HttpUploadFeature<BaseB2Response, MessageDigest>(writer).upload(file, local, throttle, listener, status, callback);
+        }
+        return super.upload(file, local, throttle, listener, status, callback);
+    }
+
     @Override
     protected InputStream decorate(final InputStream in, final MessageDigest digest) throws IOException {
         if(null == digest) {
@@ -35,7 +35,7 @@ public class BoxFileidProvider extends CachingFileIdProvider implements FileIdPr
     private final BoxSession session;
 
     public BoxFileidProvider(final BoxSession session) {
-        super(session.getCaseSensitivity());
+        super(session.getHost(), session.getCaseSensitivity());
         this.session = session;
     }
 
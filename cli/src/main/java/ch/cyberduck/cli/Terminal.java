@@ -62,6 +62,7 @@ import ch.cyberduck.core.ssl.CertificateStoreX509TrustManager;
 import ch.cyberduck.core.ssl.DefaultTrustManagerHostnameCallback;
 import ch.cyberduck.core.ssl.PreferencesX509KeyManager;
 import ch.cyberduck.core.storegate.StoregateProtocol;
+import ch.cyberduck.core.synchronization.LocalChecksumIndex;
 import ch.cyberduck.core.threading.DisabledAlertCallback;
 import ch.cyberduck.core.threading.DisconnectBackgroundAction;
 import ch.cyberduck.core.threading.SessionBackgroundAction;
@@ -220,6 +221,10 @@ public class Terminal {
         finally {
             // Clear temporary files
             TemporaryFileServiceFactory.get().shutdown();
+            // Close index of checksums for local files
+            LocalChecksumIndex.get().close();
+            // Close saved directory listings
+            PersistentPathIndex.shutdown();
         }
     }
 
@@ -23,37 +23,160 @@ import ch.cyberduck.core.cache.LRUCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.RemovalListener;
 
 public abstract class AbstractCache<T extends Referenceable> implements Cache<T> {
     private static final Logger log = LogManager.getLogger(AbstractCache.class);
 
     private final LRUCache<CacheReference<T>, AttributedList<T>> impl;
 
+    /**
+     * Reverse index from reference of cached item to its directory listing
+     */
+    private final Map<CacheReference<T>, Entry<T>> index
+            = new ConcurrentHashMap<>();
+    /**
+     * Snapshot of contents last added to reverse index by cached directory listing
+     */
+    private final Map<AttributedList<T>, List<T>> indexed
+            = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
     public AbstractCache(int size) {
+        final RemovalListener<CacheReference<T>, AttributedList<T>> listener
+                = notification -> {
+            this.unindex(notification.getValue());
+            if(notification.wasEvicted()) {
+                this.evicted(notification.getKey(), notification.getValue());
+            }
+        };
         if(size == Integer.MAX_VALUE) {
             // Unlimited
-            impl = LRUCache.build();
+            impl = LRUCache.build(listener);
         }
         else {
             // Will inflate to the given size
-            impl = LRUCache.build(size);
+            impl = LRUCache.build(listener, size);
         }
     }
 
+    /**
+     * Directory listing removed from cache because the maximum size is exceeded
+     *
+     * @param reference Directory
+     * @param list      Cached directory listing
+     */
+    protected void evicted(final CacheReference<T> reference, final AttributedList<T> list) {
+        //
+    }
+
+    /**
+     * Lookup from reverse index of all cached items. On a miss directory listings modified after they were added to
+     * the index are indexed again before searching all cached directory listings for items with attributes changed
+     * in place since they were indexed.
+     *
+     * @param reference Key for item in cached list
+     * @return Cached value for reference
+     */
     @Override
     public T lookup(final CacheReference<T> reference) {
-        for(AttributedList<T> entry : impl.asMap().values()) {
-            final T f = entry.find(reference);
-            if(null == f) {
-                continue;
-            }
+        final T f = this.find(reference);
+        if(null != f) {
+            hits.incrementAndGet();
             return f;
         }
+        misses.incrementAndGet();
+        for(AttributedList<T> list : impl.asMap().values()) {
+            if(indexed.get(list) != list.toList()) {
+                this.index(list);
+            }
+        }
+        final T modified = this.find(reference);
+        if(null != modified) {
+            return modified;
+        }
+        for(AttributedList<T> list : impl.asMap().values()) {
+            final T item = list.find(reference);
+            if(null != item) {
+                // Reference of item has changed since indexed
+                index.put(reference, new Entry<>(item, list));
+                return item;
+            }
+        }
         log.warn(String.format("Lookup failed for %s in cache", reference));
         return null;
     }
 
+    /**
+     * @return Item from reverse index still contained in its directory listing or null
+     */
+    private T find(final CacheReference<T> reference) {
+        final Entry<T> entry = index.get(reference);
+        if(null == entry) {
+            return null;
+        }
+        if(reference.test(entry.item) && entry.list.contains(entry.item)) {
+            return entry.item;
+        }
+        // Removed from directory listing or changed since indexed
+        index.remove(reference, entry);
+        return null;
+    }
+
+    /**
+     * Add items of cached directory listing to reverse index
+     */
+    private void index(final AttributedList<T> list) {
+        final List<T> snapshot = list.toList();
+        for(T f : snapshot) {
+            index.putIfAbsent(this.reference(f), new Entry<>(f, list));
+        }
+        indexed.put(list, snapshot);
+    }
+
+    /**
+     * Remove items of directory listing no longer cached from reverse index
+     */
+    private void unindex(final AttributedList<T> list) {
+        if(null == list) {
+            return;
+        }
+        indexed.remove(list);
+        for(T f : list) {
+            index.computeIfPresent(this.reference(f), (reference, entry) -> entry.list == list ? null : entry);
+        }
+    }
+
+    /**
+     * @return Number of lookups answered from reverse index
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of lookups not found in reverse index
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of items in reverse index
+     */
+    public long getIndexSize() {
+        return index.size();
+    }
+
     @Override
     public long size() {
         return impl.size();
@@ -121,6 +244,7 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         }
         final AttributedList<T> replaced = impl.get(this.reference(key));
         impl.put(this.reference(key), children);
+        this.index(children);
         if(null == replaced) {
             // Not previously in cache
             return AttributedList.emptyList();
@@ -167,13 +291,31 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             log.info(String.format("Clear cache %s", this));
         }
         impl.clear();
+        index.clear();
+        indexed.clear();
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("Cache{");
         sb.append("size=").append(impl.size());
+        sb.append(", index=").append(index.size());
+        sb.append(", hits=").append(hits.get());
+        sb.append(", misses=").append(misses.get());
         sb.append('}');
         return sb.toString();
     }
+
+    private static final class Entry<T extends Referenceable> {
+        private final T item;
+        /**
+         * Directory listing containing item
+         */
+        private final AttributedList<T> list;
+
+        public Entry(final T item, final AttributedList<T> list) {
+            this.item = item;
+            this.list = list;
+        }
+    }
 }
@@ -21,17 +21,24 @@ package ch.cyberduck.core;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
- * A sortable list with a map to lookup values by key.
+ * A sortable list with a map to lookup values by key. Appending is amortized constant time. Lookups by
+ * {@link SimplePathPredicate} and by element are answered from an index built lazily on first use and
+ * maintained on append thereafter. Lookups by element fall back to a linear search when missing in the index as the
+ * equality of elements may change when their attributes are modified in place. Iteration
+ * is over an unmodifiable snapshot of the list taken on first use after the list was modified and does not fail when
+ * the list is modified concurrently.
  */
 public class AttributedList<E extends Referenceable> implements Iterable<E> {
     private static final Logger log = LogManager.getLogger(AttributedList.class);
@@ -54,7 +61,24 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     };
 
     private final List<E> impl
-            = new CopyOnWriteArrayList<>();
+            = new ArrayList<>();
+
+    /**
+     * Index of elements by equality. Maps to the first occurrence in the list.
+     */
+    private Map<E, E> references;
+    /**
+     * Index of paths by simple path predicate. Maps to the first occurrence in the list.
+     */
+    private Map<SimplePathPredicate, E> predicates;
+    /**
+     * Set when an element was not added to an index because an equal key is already present
+     */
+    private boolean duplicates;
+    /**
+     * Unmodifiable copy of list contents taken on first use after modification
+     */
+    private List<E> snapshot;
 
     /**
      * Metadata of file listing
@@ -93,11 +117,18 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public boolean add(final E e) {
-        return impl.add(e);
+        synchronized(impl) {
+            this.index(e);
+            snapshot = null;
+            return impl.add(e);
+        }
     }
 
     public void add(final int index, final E e) {
-        impl.add(index, e);
+        synchronized(impl) {
+            impl.add(index, e);
+            this.invalidate();
+        }
     }
 
     public boolean addAll(final Iterable<? extends E> c) {
@@ -108,24 +139,55 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public E get(final int index) {
-        return impl.get(index);
+        synchronized(impl) {
+            return impl.get(index);
+        }
     }
 
+    /**
+     * @param reference Element to compare with
+     * @return First element in list equal to reference or null
+     */
     public E get(final E reference) {
-        final int index = impl.indexOf(reference);
-        if(-1 == index) {
-            return null;
+        synchronized(impl) {
+            if(null == references) {
+                references = new HashMap<>(impl.size());
+                for(E e : impl) {
+                    if(null != references.putIfAbsent(e, e)) {
+                        duplicates = true;
+                    }
+                }
+            }
+            final E e = references.get(reference);
+            if(null != e) {
+                return e;
+            }
+            // Hash code of element may have changed since it was indexed
+            final int index = impl.indexOf(reference);
+            if(-1 == index) {
+                return null;
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Rebuild index for %s", this));
+            }
+            references = null;
+            return impl.get(index);
         }
-        return impl.get(index);
     }
 
     public void set(final int i, final E e) {
-        impl.set(i, e);
+        synchronized(impl) {
+            impl.set(i, e);
+            this.invalidate();
+        }
     }
 
+    /**
+     * @return Iterator over a snapshot of the current contents
+     */
     @Override
     public Iterator<E> iterator() {
-        return impl.iterator();
+        return this.toList().iterator();
     }
 
     /**
@@ -154,7 +216,11 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @return Filtered list sorted with comparator. Does not modify this list but returns a copy instead.
      */
     public AttributedList<E> filter(final Comparator<E> comparator, final Filter<E> filter) {
-        return this.filter(new AttributedList<>(impl), comparator, filter);
+        final AttributedList<E> copy = new AttributedList<>();
+        synchronized(impl) {
+            copy.impl.addAll(impl);
+        }
+        return this.filter(copy, comparator, filter);
     }
 
     /**
@@ -164,17 +230,20 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @return Filtered list
      */
     public AttributedList<E> filter(final AttributedList<E> filtered, final Comparator<E> comparator, final Filter<E> filter) {
-        if(null != comparator) {
-            if(log.isDebugEnabled()) {
-                log.debug(String.format("Sort list %s with comparator %s", this, comparator));
+        synchronized(filtered.impl) {
+            if(null != comparator) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Sort list %s with comparator %s", this, comparator));
+                }
+                filtered.impl.sort(comparator);
             }
-            filtered.impl.sort(comparator);
-        }
-        if(null != filter) {
-            if(log.isDebugEnabled()) {
-                log.debug(String.format("Filter list %s with filter %s", this, filter));
+            if(null != filter) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Filter list %s with filter %s", this, filter));
+                }
+                filtered.impl.removeIf(e -> !filter.accept(e));
             }
-            filtered.impl.removeIf(e -> !filter.accept(e));
+            filtered.invalidate();
         }
         return filtered;
     }
@@ -183,53 +252,192 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * Clear the list and all references.
      */
     public void clear() {
-        impl.clear();
+        synchronized(impl) {
+            impl.clear();
+            this.invalidate();
+        }
     }
 
     public boolean isEmpty() {
-        return impl.isEmpty();
+        synchronized(impl) {
+            return impl.isEmpty();
+        }
     }
 
     public int size() {
-        return impl.size();
+        synchronized(impl) {
+            return impl.size();
+        }
     }
 
     public boolean contains(final E e) {
-        return impl.contains(e);
+        return this.get(e) != null;
     }
 
+    /**
+     * @param predicate Lookup predicate. Constant time lookup for instances of {@link SimplePathPredicate} but not
+     *                  its subclasses which implement different matching. Elements must be removed and added again
+     *                  when their type or path is changed.
+     * @return First element in list matching predicate or null
+     */
+    @SuppressWarnings("unchecked")
     public E find(final Predicate<E> predicate) {
-        final Optional<E> optional = impl.stream().filter(predicate).findFirst();
-        return optional.orElse(null);
+        synchronized(impl) {
+            if(predicate.getClass() == SimplePathPredicate.class) {
+                if(null == predicates) {
+                    if(!this.rebuild()) {
+                        return this.scan(predicate);
+                    }
+                }
+                final E e = predicates.get((SimplePathPredicate) predicate);
+                if(null == e || predicate.test(e)) {
+                    return e;
+                }
+                // Type or path of element has changed since it was indexed
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Rebuild index for %s", this));
+                }
+                this.invalidate();
+                return this.find(predicate);
+            }
+            return this.scan(predicate);
+        }
+    }
+
+    /**
+     * Build index by simple path predicate
+     *
+     * @return False if list contains elements other than paths
+     */
+    private boolean rebuild() {
+        predicates = new HashMap<>(impl.size());
+        for(E e : impl) {
+            if(!(e instanceof Path)) {
+                predicates = null;
+                return false;
+            }
+            if(null != predicates.putIfAbsent(new SimplePathPredicate((Path) e), e)) {
+                duplicates = true;
+            }
+        }
+        return true;
+    }
+
+    private E scan(final Predicate<E> predicate) {
+        for(E e : impl) {
+            if(predicate.test(e)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add element to indexes already built
+     */
+    private void index(final E e) {
+        if(null != references) {
+            if(null != references.putIfAbsent(e, e)) {
+                duplicates = true;
+            }
+        }
+        if(null != predicates) {
+            if(e instanceof Path) {
+                if(null != predicates.putIfAbsent(new SimplePathPredicate((Path) e), e)) {
+                    duplicates = true;
+                }
+            }
+            else {
+                predicates = null;
+            }
+        }
+    }
+
+    /**
+     * Remove element from indexes already built
+     */
+    private void unindex(final E e) {
+        if(duplicates) {
+            // Another element with the same key may have to take its place
+            this.invalidate();
+            return;
+        }
+        if(null != references) {
+            if(null == references.remove(e)) {
+                // Hash code of element has changed since it was indexed
+                references = null;
+            }
+        }
+        if(null != predicates) {
+            if(e instanceof Path) {
+                predicates.remove(new SimplePathPredicate((Path) e));
+            }
+        }
+    }
+
+    /**
+     * Drop indexes to be rebuilt on next lookup
+     */
+    private void invalidate() {
+        references = null;
+        predicates = null;
+        duplicates = false;
+        snapshot = null;
     }
 
     @SuppressWarnings("unchecked")
     public E[] toArray() {
-        return (E[]) impl.toArray(new Referenceable[impl.size()]);
+        synchronized(impl) {
+            return (E[]) impl.toArray(new Referenceable[impl.size()]);
+        }
     }
 
+    /**
+     * @return Unmodifiable snapshot of the current contents shared until the list is modified
+     */
     public List<E> toList() {
-        return impl;
+        synchronized(impl) {
+            if(null == snapshot) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(impl));
+            }
+            return snapshot;
+        }
     }
 
     public Stream<E> toStream() {
-        return impl.parallelStream();
+        return this.toList().parallelStream();
     }
 
     public int indexOf(final E e) {
-        return impl.indexOf(e);
+        synchronized(impl) {
+            return impl.indexOf(e);
+        }
     }
 
     public void remove(final int index) {
-        impl.remove(index);
+        synchronized(impl) {
+            this.unindex(impl.remove(index));
+            snapshot = null;
+        }
     }
 
     public boolean remove(final E e) {
-        return impl.remove(e);
+        synchronized(impl) {
+            final int index = impl.indexOf(e);
+            if(-1 == index) {
+                return false;
+            }
+            this.unindex(impl.remove(index));
+            snapshot = null;
+            return true;
+        }
     }
 
     public boolean removeAll(final java.util.Collection<E> e) {
-        return impl.removeAll(e);
+        synchronized(impl) {
+            this.invalidate();
+            return impl.removeAll(e);
+        }
     }
 
     @Override
@@ -241,11 +449,11 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
             return false;
         }
         final AttributedList<?> that = (AttributedList<?>) o;
-        return Objects.equals(impl, that.impl);
+        return Objects.equals(this.toList(), that.toList());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(impl);
+        return Objects.hash(this.toList());
     }
 }
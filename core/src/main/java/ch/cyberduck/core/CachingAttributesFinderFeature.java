@@ -41,7 +41,7 @@ public class CachingAttributesFinderFeature implements AttributesFinder {
         }
         if(cache.isValid(file.getParent())) {
             final AttributedList<Path> list = cache.get(file.getParent());
-            final Path found = list.find(new ListFilteringFeature.ListFilteringPredicate(Protocol.Case.sensitive, file));
+            final Path found = new ListFilteringFeature.ListFilteringPredicate(Protocol.Case.sensitive, file).find(list);
             if(null != found) {
                 if(log.isDebugEnabled()) {
                     log.debug(String.format("Return cached attributes %s for %s", found.attributes(), file));
@@ -15,10 +15,8 @@ package ch.cyberduck.core;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.cache.LRUCache;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.FileIdProvider;
-import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -26,29 +24,34 @@ import org.apache.logging.log4j.Logger;
 public abstract class CachingFileIdProvider implements FileIdProvider {
     private static final Logger log = LogManager.getLogger(CachingFileIdProvider.class);
 
-    private final LRUCache<SimplePathPredicate, String> cache
-            = LRUCache.build(PreferencesFactory.get().getLong("fileid.cache.size"));
-
-    private final Protocol.Case sensitivity;
+    private final FileIdCache cache;
 
     public CachingFileIdProvider(final Protocol.Case sensitivity) {
-        this.sensitivity = sensitivity;
+        this(new FileIdCache(sensitivity));
     }
 
-    @Override
-    public String getFileId(final Path file) throws BackgroundException {
-        return cache.get(this.toPredicate(file));
+    /**
+     * @param host        Bookmark to share cached identifiers with other sessions for
+     * @param sensitivity Case sensitivity of paths
+     */
+    public CachingFileIdProvider(final Host host, final Protocol.Case sensitivity) {
+        this(FileIdCache.get(host, sensitivity));
     }
 
-    private SimplePathPredicate toPredicate(final Path file) {
-        return sensitivity == Protocol.Case.sensitive ? new CaseSensitivePathPredicate(file) : new CaseInsensitivePathPredicate(file);
+    public CachingFileIdProvider(final FileIdCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public String getFileId(final Path file) throws BackgroundException {
+        return cache.get(file);
     }
 
     /**
      * Cache file identifier
      *
      * @param file Remote path
-     * @param id   Null to remove from cache
+     * @param id   Null to remove from cache including all descendants of a directory
      * @return Input parameter
      */
     public String cache(final Path file, final String id) {
@@ -56,23 +59,19 @@ public abstract class CachingFileIdProvider implements FileIdProvider {
             log.debug(String.format("Cache %s for file %s", id, file));
         }
         if(null == id) {
-            cache.remove(this.toPredicate(file));
+            cache.remove(file);
             file.attributes().setFileId(null);
-            if(file.isDirectory()) {
-                for(SimplePathPredicate entry : cache.asMap().keySet()) {
-                    if(entry.isChild(this.toPredicate(file))) {
-                        cache.remove(entry);
-                    }
-                }
-            }
         }
         else {
-            cache.put(this.toPredicate(file), id);
+            cache.put(file, id);
             file.attributes().setFileId(id);
         }
         return id;
     }
 
+    /**
+     * Clear cached identifiers not saved to disk
+     */
     @Override
     public void clear() {
         cache.clear();
@@ -40,7 +40,7 @@ public class CachingFindFeature implements Find {
         }
         if(cache.isValid(file.getParent())) {
             final AttributedList<Path> list = cache.get(file.getParent());
-            final Path found = list.find(new ListFilteringFeature.ListFilteringPredicate(Protocol.Case.sensitive, file));
+            final Path found = new ListFilteringFeature.ListFilteringPredicate(Protocol.Case.sensitive, file).find(list);
             if(found != null) {
                 if(log.isDebugEnabled()) {
                     log.debug(String.format("Found %s in cache", file));
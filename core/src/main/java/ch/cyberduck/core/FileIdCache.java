@@ -0,0 +1,340 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+import ch.cyberduck.core.unicode.NFCNormalizer;
+import ch.cyberduck.core.unicode.UnicodeNormalizer;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File identifiers in a tree by path segments. Lookup and removal of a directory including all its descendants is in
+ * time linear to the depth of the path. When the maximum size is reached the least recently used subtrees are removed.
+ * Caches obtained for a bookmark are shared by all sessions connected to it and optionally saved to the application
+ * support directory to be reused after restart.
+ */
+public class FileIdCache {
+    private static final Logger log = LogManager.getLogger(FileIdCache.class);
+
+    private static final UnicodeNormalizer normalizer = new NFCNormalizer();
+
+    /**
+     * Caches by bookmark referenced weakly to be released when no longer used by any session
+     */
+    private static final Map<String, WeakReference<FileIdCache>> shared = new HashMap<>();
+
+    /**
+     * @param host        Bookmark
+     * @param sensitivity Case sensitivity of paths
+     * @return Cache with entries shared with all other sessions for the same bookmark
+     */
+    public static FileIdCache get(final Host host, final Protocol.Case sensitivity) {
+        final String id = DigestUtils.sha256Hex(String.format("%s-%s",
+                new HostUrlProvider().withUsername(true).withPath(false).get(host), host.getUuid()));
+        synchronized(shared) {
+            // Remove caches released
+            shared.values().removeIf(reference -> null == reference.get());
+            final WeakReference<FileIdCache> reference = shared.get(id);
+            FileIdCache cache = null == reference ? null : reference.get();
+            if(null == cache) {
+                final Preferences preferences = PreferencesFactory.get();
+                cache = new FileIdCache(sensitivity, preferences.getLong("fileid.cache.size"),
+                        preferences.getBoolean("fileid.cache.persist") ?
+                                LocalFactory.get(SupportDirectoryFinderFactory.get().find(), String.format("%s.fileids", id)) : null);
+                shared.put(id, new WeakReference<>(cache));
+            }
+            return cache;
+        }
+    }
+
+    private final Protocol.Case sensitivity;
+    /**
+     * Maximum number of identifiers cached
+     */
+    private final long size;
+    /**
+     * File to persist identifiers or null
+     */
+    private final Local file;
+
+    private final Node root = new Node();
+    /**
+     * Incremented on every access to order nodes by last use
+     */
+    private long clock;
+
+    public FileIdCache(final Protocol.Case sensitivity) {
+        this(sensitivity, PreferencesFactory.get().getLong("fileid.cache.size"), null);
+    }
+
+    /**
+     * @param size Maximum number of identifiers cached
+     * @param file File to load identifiers from and save to or null
+     */
+    public FileIdCache(final Protocol.Case sensitivity, final long size, final Local file) {
+        this.sensitivity = sensitivity;
+        this.size = size;
+        this.file = file;
+        this.load();
+    }
+
+    /**
+     * @param file Remote path
+     * @return Cached identifier or null
+     */
+    public synchronized String get(final Path file) {
+        Node node = root;
+        for(String segment : this.segments(file.getAbsolute())) {
+            node = node.children.get(segment);
+            if(null == node) {
+                return null;
+            }
+            node.accessed = ++clock;
+        }
+        return node.ids.get(this.type(file));
+    }
+
+    /**
+     * @param file Remote path
+     * @param id   File identifier
+     */
+    public synchronized void put(final Path file, final String id) {
+        this.put(this.type(file), this.segments(file.getAbsolute()), id);
+    }
+
+    private void put(final Path.Type type, final String[] segments, final String id) {
+        while(root.total >= size) {
+            this.evict();
+        }
+        final Node[] nodes = new Node[segments.length + 1];
+        nodes[0] = root;
+        for(int i = 0; i < segments.length; i++) {
+            nodes[i + 1] = nodes[i].children.computeIfAbsent(segments[i], s -> new Node());
+            nodes[i + 1].accessed = ++clock;
+        }
+        if(null == nodes[segments.length].ids.put(type, id)) {
+            for(Node node : nodes) {
+                node.total++;
+            }
+        }
+    }
+
+    /**
+     * Remove least recently used subtree with at most a tenth of the maximum number of identifiers
+     */
+    private void evict() {
+        final long limit = Math.max(1L, size / 10);
+        final List<Node> path = new ArrayList<>();
+        Node parent = null;
+        String name = null;
+        Node node = root;
+        while(true) {
+            path.add(node);
+            Map.Entry<String, Node> lru = null;
+            for(Map.Entry<String, Node> child : node.children.entrySet()) {
+                if(null == lru || child.getValue().accessed < lru.getValue().accessed) {
+                    lru = child;
+                }
+            }
+            if(null == lru) {
+                // Remove node without children
+                if(null == parent) {
+                    this.reset();
+                    return;
+                }
+                parent.children.remove(name);
+                this.evicted(path, node.total);
+                return;
+            }
+            if(lru.getValue().total <= limit) {
+                node.children.remove(lru.getKey());
+                this.evicted(path, lru.getValue().total);
+                return;
+            }
+            parent = node;
+            name = lru.getKey();
+            node = lru.getValue();
+        }
+    }
+
+    private void evicted(final List<Node> path, final long removed) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Evict %d cached file ids exceeding maximum size %d", removed, size));
+        }
+        for(Node n : path) {
+            n.total -= removed;
+        }
+    }
+
+    /**
+     * Remove identifier for file. For a directory the identifiers of all descendants are removed.
+     *
+     * @param file Remote path
+     */
+    public synchronized void remove(final Path file) {
+        final String[] segments = this.segments(file.getAbsolute());
+        final Node[] nodes = new Node[segments.length + 1];
+        nodes[0] = root;
+        for(int i = 0; i < segments.length; i++) {
+            nodes[i + 1] = nodes[i].children.get(segments[i]);
+            if(null == nodes[i + 1]) {
+                return;
+            }
+        }
+        final Node node = nodes[segments.length];
+        long removed = 0;
+        if(null != node.ids.remove(this.type(file))) {
+            removed++;
+        }
+        if(file.isDirectory()) {
+            // Detach subtree
+            removed += node.total - node.ids.size() - removed;
+            node.children.clear();
+        }
+        for(Node n : nodes) {
+            n.total -= removed;
+        }
+        if(segments.length > 0 && 0 == node.total) {
+            nodes[segments.length - 1].children.remove(segments[segments.length - 1]);
+        }
+    }
+
+    /**
+     * Remove all identifiers unless saved to disk. Identifiers persisted are kept to be reused by new sessions.
+     */
+    public synchronized void clear() {
+        if(null == file) {
+            this.reset();
+        }
+        else {
+            this.save();
+        }
+    }
+
+    private void reset() {
+        root.children.clear();
+        root.ids.clear();
+        root.total = 0;
+    }
+
+    private void load() {
+        if(null == file) {
+            return;
+        }
+        int records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.getAbsolute())))) {
+            while(true) {
+                final Path.Type type = Path.Type.valueOf(in.readUTF());
+                final String path = in.readUTF();
+                this.put(type, StringUtils.split(path, Path.DELIMITER), in.readUTF());
+                records++;
+            }
+        }
+        catch(FileNotFoundException e) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("No saved file ids found in %s", file));
+            }
+        }
+        catch(EOFException e) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Read %d file ids from %s", records, file));
+            }
+        }
+        catch(IOException | IllegalArgumentException e) {
+            log.warn(String.format("Failure reading file ids from %s. %s", file, e.getMessage()));
+        }
+    }
+
+    /**
+     * Save identifiers if enabled
+     */
+    public synchronized void save() {
+        if(null == file) {
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.getAbsolute())))) {
+            this.write(out, String.valueOf(Path.DELIMITER), root);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure saving file ids to %s. %s", file, e.getMessage()));
+        }
+    }
+
+    private void write(final DataOutputStream out, final String path, final Node node) throws IOException {
+        for(Map.Entry<Path.Type, String> entry : node.ids.entrySet()) {
+            out.writeUTF(entry.getKey().name());
+            out.writeUTF(path);
+            out.writeUTF(entry.getValue());
+        }
+        for(Map.Entry<String, Node> child : node.children.entrySet()) {
+            this.write(out, root == node ? String.format("%s%s", Path.DELIMITER, child.getKey())
+                    : String.format("%s%s%s", path, Path.DELIMITER, child.getKey()), child.getValue());
+        }
+    }
+
+    private Path.Type type(final Path file) {
+        return file.isSymbolicLink() ? Path.Type.symboliclink : file.isFile() ? Path.Type.file : Path.Type.directory;
+    }
+
+    private String[] segments(final String path) {
+        final String normalized = normalizer.normalize(path).toString();
+        return StringUtils.split(sensitivity == Protocol.Case.sensitive ? normalized : StringUtils.lowerCase(normalized), Path.DELIMITER);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final Map<Path.Type, String> ids = new EnumMap<>(Path.Type.class);
+        /**
+         * Number of identifiers cached for this node and all descendants
+         */
+        private long total;
+        /**
+         * Value of clock when last accessed
+         */
+        private long accessed;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FileIdCache{");
+        sb.append("sensitivity=").append(sensitivity);
+        sb.append(", file=").append(file);
+        sb.append('}');
+        return sb.toString();
+    }
+}
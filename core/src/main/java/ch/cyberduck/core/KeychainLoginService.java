@@ -190,6 +190,8 @@ public class KeychainLoginService implements LoginService {
                 log.debug(String.format("Attempt authentication for %s", session));
             }
             session.login(proxy, prompt, cancel);
+            // Discard features resolved prior authentication
+            session.invalidate();
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Login successful for %s", session));
             }
@@ -457,6 +457,25 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
         return Channels.newOutputStream(getWriteChannel(path, append, !this.exists()));
     }
 
+    /**
+     * @param position Offset in file to start writing at. Existing contents are not truncated.
+     */
+    public OutputStream getOutputStream(final long position) throws AccessDeniedException {
+        return this.getOutputStream(path, position);
+    }
+
+    protected OutputStream getOutputStream(final String path, final long position) throws AccessDeniedException {
+        try {
+            final Set<OpenOption> options = new HashSet<>();
+            options.add(StandardOpenOption.WRITE);
+            options.add(StandardOpenOption.CREATE);
+            return Channels.newOutputStream(FileChannel.open(Paths.get(path), options).position(position));
+        }
+        catch(RuntimeException | IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+    }
+
     private static FileChannel getWriteChannel(final String path, final boolean append, final boolean create) throws LocalAccessDeniedException {
         try {
             final Set<OpenOption> options = new HashSet<>();
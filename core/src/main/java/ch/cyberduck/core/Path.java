@@ -23,6 +23,7 @@ import ch.cyberduck.core.serializer.Serializer;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.EnumSet;
+import java.util.Objects;
 
 public class Path extends AbstractPath implements Referenceable, Serializable {
 
@@ -52,6 +53,11 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
      */
     private PathAttributes attributes;
 
+    /**
+     * Memoized reference for hash code and comparison
+     */
+    private Identity identity;
+
     public Path(final Path copy) {
         this.parent = copy.parent;
         this.path = copy.path;
@@ -248,7 +254,19 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
      */
     @Override
     public int hashCode() {
-        return new DefaultPathPredicate(this).hashCode();
+        return this.reference().hashCode();
+    }
+
+    /**
+     * @return Reference computed when type, region, file id or version id of this path changed
+     */
+    private DefaultPathPredicate reference() {
+        Identity identity = this.identity;
+        if(null == identity || !identity.test(this)) {
+            identity = new Identity(this);
+            this.identity = identity;
+        }
+        return identity.reference;
     }
 
     /**
@@ -261,7 +279,7 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
             return false;
         }
         if(other instanceof Path) {
-            return new DefaultPathPredicate(this).test((Path) other);
+            return this.reference().equals(((Path) other).reference());
         }
         return false;
     }
@@ -286,4 +304,36 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
         }
         return new SimplePathPredicate(this).isChild(new SimplePathPredicate(directory));
     }
+
+    /**
+     * Reference with properties of path it was computed from
+     */
+    private static final class Identity {
+        private final EnumSet<Type> type;
+        private final PathAttributes attributes;
+        private final String region;
+        private final String fileId;
+        private final String versionId;
+        private final DefaultPathPredicate reference;
+
+        public Identity(final Path file) {
+            this.type = EnumSet.copyOf(file.type);
+            this.attributes = file.attributes;
+            this.region = file.attributes.getRegion();
+            this.fileId = file.attributes.getFileId();
+            this.versionId = file.attributes.getVersionId();
+            this.reference = new DefaultPathPredicate(file);
+        }
+
+        /**
+         * @return True if reference is still valid for path
+         */
+        public boolean test(final Path file) {
+            return attributes == file.attributes
+                    && type.equals(file.type)
+                    && Objects.equals(region, file.attributes.getRegion())
+                    && Objects.equals(fileId, file.attributes.getFileId())
+                    && Objects.equals(versionId, file.attributes.getVersionId());
+        }
+    }
 }
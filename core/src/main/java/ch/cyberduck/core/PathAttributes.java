@@ -45,31 +45,17 @@ public class PathAttributes extends Attributes implements Serializable {
      */
     private long size = TransferStatus.UNKNOWN_LENGTH;
 
-    /**
-     * Quota of folder
-     */
-    private long quota = TransferStatus.UNKNOWN_LENGTH;
-
     /**
      * The file modification date in milliseconds
      */
     private long modified = -1;
-    /**
-     * Last accessed timestamp in milliseconds
-     */
-    private long accessed = -1;
-    /**
-     * When this file was originally created in milliseconds
-     */
-    private long created = -1;
 
     private String owner;
+
     private String group;
 
     private Permission permission = Permission.EMPTY;
 
-    private Acl acl = Acl.EMPTY;
-
     /**
      * MD5 checksum
      */
@@ -85,11 +71,6 @@ public class PathAttributes extends Attributes implements Serializable {
      */
     private String storageClass;
 
-    /**
-     * Server side encryption (SSE) algorithm and key or null
-     */
-    private Encryption.Algorithm encryption = Encryption.Algorithm.NONE;
-
     /**
      * Unique identifier for a given file. Must remain constant even after updating the file.
      */
@@ -100,93 +81,32 @@ public class PathAttributes extends Attributes implements Serializable {
      */
     private String versionId;
 
-    /**
-     * Lock id
-     */
-    private String lockId;
-
-    /**
-     * Should be hidden in the browser by default
-     */
-    private Boolean duplicate;
-    /**
-     * Hidden flag set on server
-     */
-    private Boolean hidden;
-
-    /**
-     * Revision number
-     */
-    private Long revision;
-
     /**
      * Geographical location
      */
     private String region;
 
     /**
-     *
-     */
-    private String displayname;
-
-    private DescriptiveUrl link = DescriptiveUrl.EMPTY;
-
-    /**
-     * HTTP headers
-     */
-    private Map<String, String> metadata = Collections.emptyMap();
-
-    /**
-     * Cryptomator vault
-     */
-    private Path vault;
-    /**
-     * Cryptomator decrypted path
-     */
-    private Path decrypted;
-    /**
-     * Cryptomator encrypted path.
-     */
-    private Path encrypted;
-    /**
-     * Unique identifier for cryptomator
+     * Attributes rarely set shared with other instances until modified
      */
-    private String directoryId;
-
-    private Map<String, String> custom = Collections.emptyMap();
+    private Extension extension = Extension.EMPTY;
 
     public PathAttributes() {
     }
 
     public PathAttributes(final PathAttributes copy) {
         size = copy.size;
-        quota = copy.quota;
         modified = copy.modified;
-        accessed = copy.accessed;
-        created = copy.created;
         owner = copy.owner;
         group = copy.group;
         permission = Permission.EMPTY == copy.permission ? Permission.EMPTY : new Permission(copy.permission);
-        acl = Acl.EMPTY == copy.acl ? Acl.EMPTY : new Acl(copy.acl);
         checksum = Checksum.NONE == copy.checksum ? Checksum.NONE : new Checksum(copy.checksum);
         etag = copy.etag;
         storageClass = copy.storageClass;
-        encryption = copy.encryption;
         fileId = copy.fileId;
         versionId = copy.versionId;
-        lockId = copy.lockId;
-        duplicate = copy.duplicate;
-        hidden = copy.hidden;
-        revision = copy.revision;
         region = copy.region;
-        displayname = copy.displayname;
-        link = DescriptiveUrl.EMPTY == copy.link ? DescriptiveUrl.EMPTY : new DescriptiveUrl(copy.link);
-        metadata = new HashMap<>(copy.metadata);
-        custom = new HashMap<>(copy.custom);
-        vault = copy.vault;
-        decrypted = copy.decrypted;
-        encrypted = copy.encrypted;
-        directoryId = copy.directoryId;
+        extension = Extension.EMPTY == copy.extension ? Extension.EMPTY : new Extension(copy.extension);
     }
 
     @Override
@@ -194,17 +114,17 @@ public class PathAttributes extends Attributes implements Serializable {
         if(size != -1) {
             dict.setStringForKey(String.valueOf(size), "Size");
         }
-        if(quota != -1) {
-            dict.setStringForKey(String.valueOf(quota), "Quota");
+        if(extension.quota != -1) {
+            dict.setStringForKey(String.valueOf(extension.quota), "Quota");
         }
         if(modified != -1) {
             dict.setStringForKey(String.valueOf(modified), "Modified");
         }
-        if(created != -1) {
-            dict.setStringForKey(String.valueOf(created), "Created");
+        if(extension.created != -1) {
+            dict.setStringForKey(String.valueOf(extension.created), "Created");
         }
-        if(revision != null) {
-            dict.setStringForKey(String.valueOf(revision), "Revision");
+        if(extension.revision != null) {
+            dict.setStringForKey(String.valueOf(extension.revision), "Revision");
         }
         if(etag != null) {
             dict.setStringForKey(etag, "ETag");
@@ -218,13 +138,13 @@ public class PathAttributes extends Attributes implements Serializable {
         if(group != null) {
             dict.setStringForKey(group, "Group");
         }
-        if(acl != Acl.EMPTY) {
-            dict.setObjectForKey(acl, "Acl");
+        if(extension.acl != Acl.EMPTY) {
+            dict.setObjectForKey(extension.acl, "Acl");
         }
-        if(link != DescriptiveUrl.EMPTY) {
+        if(extension.link != DescriptiveUrl.EMPTY) {
             final Map<String, String> wrapper = new HashMap<>();
-            wrapper.put("Url", link.getUrl());
-            wrapper.put("Type", link.getType().name());
+            wrapper.put("Url", extension.link.getUrl());
+            wrapper.put("Type", extension.link.getType().name());
             dict.setMapForKey(wrapper, "Link");
         }
         if(checksum != Checksum.NONE) {
@@ -239,14 +159,14 @@ public class PathAttributes extends Attributes implements Serializable {
         if(StringUtils.isNotBlank(fileId)) {
             dict.setStringForKey(fileId, "File Id");
         }
-        if(StringUtils.isNotBlank(lockId)) {
-            dict.setStringForKey(lockId, "Lock Id");
+        if(StringUtils.isNotBlank(extension.lockId)) {
+            dict.setStringForKey(extension.lockId, "Lock Id");
         }
-        if(duplicate != null) {
-            dict.setStringForKey(String.valueOf(duplicate), "Duplicate");
+        if(extension.duplicate != null) {
+            dict.setStringForKey(String.valueOf(extension.duplicate), "Duplicate");
         }
-        if(hidden != null) {
-            dict.setStringForKey(String.valueOf(hidden), "Hidden");
+        if(extension.hidden != null) {
+            dict.setStringForKey(String.valueOf(extension.hidden), "Hidden");
         }
         if(StringUtils.isNotBlank(region)) {
             dict.setStringForKey(region, "Region");
@@ -254,16 +174,16 @@ public class PathAttributes extends Attributes implements Serializable {
         if(StringUtils.isNotBlank(storageClass)) {
             dict.setStringForKey(storageClass, "Storage Class");
         }
-        if(vault != null) {
-            if(vault.attributes() == this) {
-                log.debug(String.format("Skip serializing vault attribute %s to avoid recursion", vault));
+        if(extension.vault != null) {
+            if(extension.vault.attributes() == this) {
+                log.debug(String.format("Skip serializing vault attribute %s to avoid recursion", extension.vault));
             }
             else {
-                dict.setObjectForKey(vault, "Vault");
+                dict.setObjectForKey(extension.vault, "Vault");
             }
         }
-        if(!custom.isEmpty()) {
-            dict.setMapForKey(custom, "Custom");
+        if(!extension.custom.isEmpty()) {
+            dict.setMapForKey(extension.custom, "Custom");
         }
         return dict.getSerialized();
     }
@@ -289,11 +209,11 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public long getQuota() {
-        return quota;
+        return extension.quota;
     }
 
     public void setQuota(final long quota) {
-        this.quota = quota;
+        this.extension().quota = quota;
     }
 
     public PathAttributes withQuota(final long quota) {
@@ -317,20 +237,20 @@ public class PathAttributes extends Attributes implements Serializable {
 
     @Override
     public long getCreationDate() {
-        return created;
+        return extension.created;
     }
 
     public void setCreationDate(final long millis) {
-        this.created = millis;
+        this.extension().created = millis;
     }
 
     @Override
     public long getAccessedDate() {
-        return accessed;
+        return extension.accessed;
     }
 
     public void setAccessedDate(final long millis) {
-        this.accessed = millis;
+        this.extension().accessed = millis;
     }
 
     /**
@@ -354,11 +274,11 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public Acl getAcl() {
-        return acl;
+        return extension.acl;
     }
 
     public void setAcl(final Acl acl) {
-        this.acl = acl;
+        this.extension().acl = acl;
     }
 
     public PathAttributes withAcl(final Acl acl) {
@@ -425,11 +345,11 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public Encryption.Algorithm getEncryption() {
-        return encryption;
+        return extension.encryption;
     }
 
     public void setEncryption(final Encryption.Algorithm encryption) {
-        this.encryption = encryption;
+        this.extension().encryption = encryption;
     }
 
     /**
@@ -474,11 +394,11 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public String getLockId() {
-        return lockId;
+        return extension.lockId;
     }
 
     public void setLockId(final String lockId) {
-        this.lockId = lockId;
+        this.extension().lockId = lockId;
     }
 
     public PathAttributes withLockId(final String lockId) {
@@ -487,52 +407,52 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public String getDirectoryId() {
-        return directoryId;
+        return extension.directoryId;
     }
 
     public void setDirectoryId(final String directoryId) {
-        this.directoryId = directoryId;
+        this.extension().directoryId = directoryId;
     }
 
     /**
      * @return The incrementing revision number of the file or null if not versioned.
      */
     public Long getRevision() {
-        return revision;
+        return extension.revision;
     }
 
     public void setRevision(final Long revision) {
-        this.revision = revision;
+        this.extension().revision = revision;
     }
 
     /**
      * @return Null if path is missing flag encrypted
      */
     public Path getDecrypted() {
-        return decrypted;
+        return extension.decrypted;
     }
 
     public void setDecrypted(final Path decrypted) {
-        this.decrypted = decrypted;
+        this.extension().decrypted = decrypted;
     }
 
     /**
      * @return Null if path is missing flag decrypted
      */
     public Path getEncrypted() {
-        return encrypted;
+        return extension.encrypted;
     }
 
     public void setEncrypted(final Path encrypted) {
-        this.encrypted = encrypted;
+        this.extension().encrypted = encrypted;
     }
 
     public void setVault(final Path vault) {
-        this.vault = vault;
+        this.extension().vault = vault;
     }
 
     public Path getVault() {
-        return vault;
+        return extension.vault;
     }
 
     /**
@@ -542,7 +462,7 @@ public class PathAttributes extends Attributes implements Serializable {
      * @return True if hidden by default.
      */
     public boolean isDuplicate() {
-        return duplicate != null && duplicate;
+        return extension.duplicate != null && extension.duplicate;
     }
 
     /**
@@ -551,23 +471,23 @@ public class PathAttributes extends Attributes implements Serializable {
      * @param duplicate Flag
      */
     public void setDuplicate(final boolean duplicate) {
-        this.duplicate = duplicate;
+        this.extension().duplicate = duplicate;
     }
 
     public Boolean isHidden() {
-        return hidden != null && hidden;
+        return extension.hidden != null && extension.hidden;
     }
 
     public void setHidden(final boolean hidden) {
-        this.hidden = hidden;
+        this.extension().hidden = hidden;
     }
 
     public Map<String, String> getMetadata() {
-        return metadata;
+        return extension.metadata;
     }
 
     public void setMetadata(final Map<String, String> metadata) {
-        this.metadata = metadata;
+        this.extension().metadata = metadata;
     }
 
     public String getRegion() {
@@ -579,32 +499,33 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public String getDisplayname() {
-        return displayname;
+        return extension.displayname;
     }
 
     public void setDisplayname(final String displayname) {
-        this.displayname = displayname;
+        this.extension().displayname = displayname;
     }
 
     public DescriptiveUrl getLink() {
-        return link;
+        return extension.link;
     }
 
     public void setLink(final DescriptiveUrl link) {
-        this.link = link;
+        this.extension().link = link;
     }
 
     public Map<String, String> getCustom() {
-        return custom;
+        return extension.custom;
     }
 
     public void setCustom(final Map<String, String> custom) {
-        this.custom = custom;
+        this.extension().custom = custom;
     }
 
     public PathAttributes withCustom(final String key, final String value) {
-        custom = new HashMap<>(custom);
-        custom.put(key, value);
+        final Extension extension = this.extension();
+        extension.custom = new HashMap<>(extension.custom);
+        extension.custom.put(key, value);
         return this;
     }
 
@@ -629,7 +550,7 @@ public class PathAttributes extends Attributes implements Serializable {
         if(!Objects.equals(permission, that.permission)) {
             return false;
         }
-        if(!Objects.equals(acl, that.acl)) {
+        if(!Objects.equals(extension.acl, that.extension.acl)) {
             return false;
         }
         if(!Objects.equals(versionId, that.versionId)) {
@@ -638,7 +559,7 @@ public class PathAttributes extends Attributes implements Serializable {
         if(!Objects.equals(fileId, that.fileId)) {
             return false;
         }
-        if(!Objects.equals(revision, that.revision)) {
+        if(!Objects.equals(extension.revision, that.extension.revision)) {
             return false;
         }
         return true;
@@ -649,39 +570,155 @@ public class PathAttributes extends Attributes implements Serializable {
         int result = (int) (size ^ (size >>> 32));
         result = 31 * result + (int) (modified ^ (modified >>> 32));
         result = 31 * result + (permission != null ? permission.hashCode() : 0);
-        result = 31 * result + (acl != null ? acl.hashCode() : 0);
+        result = 31 * result + (extension.acl != null ? extension.acl.hashCode() : 0);
         result = 31 * result + (checksum != null ? checksum.hashCode() : 0);
         result = 31 * result + (versionId != null ? versionId.hashCode() : 0);
         result = 31 * result + (fileId != null ? fileId.hashCode() : 0);
-        result = 31 * result + (revision != null ? revision.hashCode() : 0);
+        result = 31 * result + (extension.revision != null ? extension.revision.hashCode() : 0);
         return result;
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("PathAttributes{");
-        sb.append("accessed=").append(accessed);
+        sb.append("accessed=").append(extension.accessed);
         sb.append(", size=").append(size);
         sb.append(", modified=").append(modified);
-        sb.append(", created=").append(created);
+        sb.append(", created=").append(extension.created);
         sb.append(", owner='").append(owner).append('\'');
         sb.append(", group='").append(group).append('\'');
         sb.append(", permission=").append(permission);
-        sb.append(", acl=").append(acl);
+        sb.append(", acl=").append(extension.acl);
         sb.append(", checksum='").append(checksum).append('\'');
         sb.append(", etag='").append(etag).append('\'');
         sb.append(", storageClass='").append(storageClass).append('\'');
-        sb.append(", encryption='").append(encryption).append('\'');
+        sb.append(", encryption='").append(extension.encryption).append('\'');
         sb.append(", versionId='").append(versionId).append('\'');
         sb.append(", fileId='").append(fileId).append('\'');
-        sb.append(", lockId='").append(lockId).append('\'');
-        sb.append(", duplicate=").append(duplicate);
-        sb.append(", hidden=").append(hidden);
-        sb.append(", revision=").append(revision);
+        sb.append(", lockId='").append(extension.lockId).append('\'');
+        sb.append(", duplicate=").append(extension.duplicate);
+        sb.append(", hidden=").append(extension.hidden);
+        sb.append(", revision=").append(extension.revision);
         sb.append(", region='").append(region).append('\'');
-        sb.append(", metadata=").append(metadata).append('\'');
-        sb.append(", custom=").append(custom).append('\'');
+        sb.append(", metadata=").append(extension.metadata).append('\'');
+        sb.append(", custom=").append(extension.custom).append('\'');
         sb.append('}');
         return sb.toString();
     }
+
+    /**
+     * @return Attributes rarely set owned by this instance
+     */
+    private Extension extension() {
+        if(Extension.EMPTY == extension) {
+            extension = new Extension();
+        }
+        return extension;
+    }
+
+    /**
+     * Attributes rarely set allocated on first modification
+     */
+    private static final class Extension {
+        private static final Extension EMPTY = new Extension();
+
+        /**
+         * Quota of folder
+         */
+        private long quota = TransferStatus.UNKNOWN_LENGTH;
+
+        /**
+         * Last accessed timestamp in milliseconds
+         */
+        private long accessed = -1;
+
+        /**
+         * When this file was originally created in milliseconds
+         */
+        private long created = -1;
+
+        private Acl acl = Acl.EMPTY;
+
+        /**
+         * Server side encryption (SSE) algorithm and key or null
+         */
+        private Encryption.Algorithm encryption = Encryption.Algorithm.NONE;
+
+        /**
+         * Lock id
+         */
+        private String lockId;
+
+        /**
+         * Should be hidden in the browser by default
+         */
+        private Boolean duplicate;
+
+        /**
+         * Hidden flag set on server
+         */
+        private Boolean hidden;
+
+        /**
+         * Revision number
+         */
+        private Long revision;
+
+        /**
+         *
+         */
+        private String displayname;
+
+        private DescriptiveUrl link = DescriptiveUrl.EMPTY;
+
+        /**
+         * HTTP headers
+         */
+        private Map<String, String> metadata = Collections.emptyMap();
+
+        /**
+         * Cryptomator vault
+         */
+        private Path vault;
+
+        /**
+         * Cryptomator decrypted path
+         */
+        private Path decrypted;
+
+        /**
+         * Cryptomator encrypted path.
+         */
+        private Path encrypted;
+
+        /**
+         * Unique identifier for cryptomator
+         */
+        private String directoryId;
+
+        private Map<String, String> custom = Collections.emptyMap();
+
+        public Extension() {
+        }
+
+        public Extension(final Extension copy) {
+            quota = copy.quota;
+            accessed = copy.accessed;
+            created = copy.created;
+            acl = Acl.EMPTY == copy.acl ? Acl.EMPTY : new Acl(copy.acl);
+            encryption = copy.encryption;
+            lockId = copy.lockId;
+            duplicate = copy.duplicate;
+            hidden = copy.hidden;
+            revision = copy.revision;
+            displayname = copy.displayname;
+            link = DescriptiveUrl.EMPTY == copy.link ? DescriptiveUrl.EMPTY : new DescriptiveUrl(copy.link);
+            metadata = new HashMap<>(copy.metadata);
+            custom = new HashMap<>(copy.custom);
+            vault = copy.vault;
+            decrypted = copy.decrypted;
+            encrypted = copy.encrypted;
+            directoryId = copy.directoryId;
+        }
+    }
 }
@@ -0,0 +1,90 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.unicode.NFCNormalizer;
+import ch.cyberduck.core.unicode.UnicodeNormalizer;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prefix tree of directories by path segments to lookup parent directories of a file in time linear to the depth
+ * of the file
+ */
+public class PathTrie {
+
+    private static final UnicodeNormalizer normalizer = new NFCNormalizer();
+
+    private final Node root = new Node();
+
+    /**
+     * @param directory Directory or file to add
+     */
+    public void add(final Path directory) {
+        Node node = root;
+        for(String segment : segments(directory)) {
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        node.directory = directory;
+    }
+
+    /**
+     * @param file File
+     * @return Top most directory added that is a parent of file or null if none found
+     */
+    public Path parent(final Path file) {
+        Node node = root;
+        final String[] segments = segments(file);
+        // Node of file itself is not checked
+        for(int i = 0; i < segments.length; i++) {
+            if(null != node.directory) {
+                return node.directory;
+            }
+            node = node.children.get(segments[i]);
+            if(null == node) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param directory Directory
+     * @return True if any path has been added that is a descendant of directory
+     */
+    public boolean hasChildren(final Path directory) {
+        Node node = root;
+        for(String segment : segments(directory)) {
+            node = node.children.get(segment);
+            if(null == node) {
+                return false;
+            }
+        }
+        return !node.children.isEmpty();
+    }
+
+    private static String[] segments(final Path file) {
+        return StringUtils.split(normalizer.normalize(file.getAbsolute()).toString(), Path.DELIMITER);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Path directory;
+    }
+}
@@ -0,0 +1,421 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+import ch.cyberduck.core.unicode.NFCNormalizer;
+import ch.cyberduck.core.unicode.UnicodeNormalizer;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directory listings saved to a file per bookmark to display contents of a directory before the listing is retrieved
+ * from the server and to search previously listed directories without connecting. Only the name, type, size,
+ * modification date, checksum and identifiers of files are saved. Listings are appended to the file with the latest
+ * record for a directory taking precedence. The position of the latest record of each directory is kept in memory.
+ * The file is compacted when more than half of its contents are replaced records. Listings of directories in vaults
+ * are not saved to not write clear text filenames to disk.
+ */
+public class PersistentPathIndex {
+    private static final Logger log = LogManager.getLogger(PersistentPathIndex.class);
+
+    private static final UnicodeNormalizer normalizer = new NFCNormalizer();
+
+    /**
+     * Indexes by bookmark
+     */
+    private static final Map<String, PersistentPathIndex> shared = new ConcurrentHashMap<>();
+
+    /**
+     * @param host Bookmark
+     * @return Index saved in application support directory shared with all other sessions for the same bookmark
+     */
+    public static PersistentPathIndex get(final Host host) {
+        return shared.computeIfAbsent(DigestUtils.sha256Hex(String.format("%s-%s",
+                        new HostUrlProvider().withUsername(true).withPath(false).get(host), host.getUuid())),
+                id -> new PersistentPathIndex(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), String.format("%s.pathindex", id))));
+    }
+
+    /**
+     * Close index files of all bookmarks
+     */
+    public static void shutdown() {
+        for(PersistentPathIndex index : shared.values()) {
+            index.close();
+        }
+    }
+
+    private final Local file;
+
+    /**
+     * Position of latest record by directory. Loaded on first use.
+     */
+    private Map<String, Long> offsets;
+    /**
+     * Number of bytes in file used by latest records
+     */
+    private long used;
+
+    private RandomAccessFile random;
+
+    public PersistentPathIndex(final Local file) {
+        this.file = file;
+    }
+
+    /**
+     * @param directory Directory
+     * @return Saved directory listing or null if directory was never indexed
+     */
+    public synchronized AttributedList<Path> get(final Path directory) {
+        final Long offset = this.load().get(this.key(directory));
+        if(null == offset) {
+            return null;
+        }
+        try {
+            return this.read(directory, offset);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading listing for %s from %s. %s", directory, file, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Save directory listing replacing any previous record for the directory. Listings with decrypted files are not
+     * saved.
+     *
+     * @param directory Directory
+     * @param list      Directory listing
+     */
+    public synchronized void put(final Path directory, final AttributedList<Path> list) {
+        for(Path f : list) {
+            if(f.getType().contains(Path.Type.decrypted)) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Skip saving listing with decrypted file %s", f));
+                }
+                return;
+            }
+        }
+        final String key = this.key(directory);
+        try {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(buffer);
+            for(Path f : list) {
+                out.writeUTF(f.getName());
+                out.writeUTF(String.valueOf(f.getType()));
+                out.writeLong(f.attributes().getSize());
+                out.writeLong(f.attributes().getModificationDate());
+                out.writeUTF(StringUtils.defaultString(f.attributes().getETag()));
+                out.writeUTF(StringUtils.defaultString(f.attributes().getFileId()));
+                out.writeUTF(StringUtils.defaultString(f.attributes().getVersionId()));
+            }
+            this.append(key, list.size(), buffer.toByteArray());
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Saved %d files in %s to %s", list.size(), directory, file));
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure saving listing for %s to %s. %s", directory, file, e.getMessage()));
+        }
+    }
+
+    /**
+     * Remove listing of directory and all subdirectories
+     *
+     * @param directory Directory
+     */
+    public synchronized void remove(final Path directory) {
+        final String key = this.key(directory);
+        try {
+            for(String d : this.load().keySet().toArray(new String[0])) {
+                if(this.isDescendant(d, key)) {
+                    this.append(d, -1, new byte[0]);
+                }
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure removing listing for %s from %s. %s", directory, file, e.getMessage()));
+        }
+    }
+
+    /**
+     * Remove saved listing of parent directory of file. For a directory the saved listings of the directory and all
+     * subdirectories are removed.
+     *
+     * @param file File deleted or moved
+     */
+    public synchronized void invalidate(final Path file) {
+        if(file.isDirectory()) {
+            this.remove(file);
+        }
+        if(file.isRoot()) {
+            return;
+        }
+        final String key = this.key(file.getParent());
+        if(this.load().containsKey(key)) {
+            try {
+                this.append(key, -1, new byte[0]);
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure removing listing for %s from %s. %s", file.getParent(), this.file, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Search saved listings of directory and all subdirectories
+     *
+     * @param workdir Directory to search in
+     * @param filter  Search filter
+     * @return Files and directories accepted by filter
+     */
+    public synchronized AttributedList<Path> search(final Path workdir, final Filter<Path> filter) {
+        final String key = this.key(workdir);
+        final AttributedList<Path> result = new AttributedList<>();
+        for(Map.Entry<String, Long> entry : this.load().entrySet()) {
+            if(this.isDescendant(entry.getKey(), key)) {
+                try {
+                    final Path directory;
+                    if(entry.getKey().equals(key)) {
+                        directory = workdir;
+                    }
+                    else {
+                        final PathAttributes attributes = new PathAttributes();
+                        attributes.setRegion(workdir.attributes().getRegion());
+                        directory = new Path(entry.getKey(), EnumSet.of(Path.Type.directory), attributes);
+                    }
+                    result.addAll(this.read(directory, entry.getValue()).filter(filter));
+                }
+                catch(IOException e) {
+                    log.warn(String.format("Failure reading listing for %s from %s. %s", entry.getKey(), file, e.getMessage()));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return True if directory is equal to or a subdirectory of parent
+     */
+    private boolean isDescendant(final String directory, final String parent) {
+        if(directory.equals(parent)) {
+            return true;
+        }
+        if(String.valueOf(Path.DELIMITER).equals(parent)) {
+            return true;
+        }
+        return directory.startsWith(parent + Path.DELIMITER);
+    }
+
+    private void append(final String key, final int count, final byte[] data) throws IOException {
+        final Map<String, Long> offsets = this.load();
+        final RandomAccessFile random = this.random();
+        final long offset = random.length();
+        random.seek(offset);
+        random.writeUTF(key);
+        random.writeInt(count);
+        random.writeInt(data.length);
+        random.write(data);
+        final Long previous = offsets.remove(key);
+        if(null != previous) {
+            used -= this.length(previous);
+        }
+        if(count >= 0) {
+            offsets.put(key, offset);
+            used += random.length() - offset;
+        }
+        if(random.length() > used * 2) {
+            // Drop records replaced or removed from index file
+            this.compact();
+        }
+    }
+
+    private AttributedList<Path> read(final Path directory, final long offset) throws IOException {
+        final RandomAccessFile random = this.random();
+        random.seek(offset);
+        random.readUTF();
+        final int count = random.readInt();
+        final byte[] data = new byte[random.readInt()];
+        random.readFully(data);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        final AttributedList<Path> list = new AttributedList<>();
+        for(int i = 0; i < count; i++) {
+            final String name = in.readUTF();
+            final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+            for(String t : StringUtils.split(StringUtils.strip(in.readUTF(), "[]"), ", ")) {
+                try {
+                    type.add(Path.Type.valueOf(t));
+                }
+                catch(IllegalArgumentException e) {
+                    throw new IOException(String.format("Unknown type %s", t), e);
+                }
+            }
+            final PathAttributes attributes = new PathAttributes();
+            attributes.setSize(in.readLong());
+            attributes.setModificationDate(in.readLong());
+            attributes.setETag(StringUtils.defaultIfEmpty(in.readUTF(), null));
+            attributes.setFileId(StringUtils.defaultIfEmpty(in.readUTF(), null));
+            attributes.setVersionId(StringUtils.defaultIfEmpty(in.readUTF(), null));
+            // Region is not saved but inherited from parent as in listings retrieved from server
+            attributes.setRegion(directory.attributes().getRegion());
+            list.add(new Path(directory, name, type, attributes));
+        }
+        return list;
+    }
+
+    /**
+     * @return Number of bytes used by record at offset
+     */
+    private long length(final long offset) throws IOException {
+        final RandomAccessFile random = this.random();
+        random.seek(offset);
+        random.readUTF();
+        random.readInt();
+        final int length = random.readInt();
+        return random.getFilePointer() - offset + length;
+    }
+
+    private Map<String, Long> load() {
+        if(null == offsets) {
+            offsets = new HashMap<>();
+            used = 0L;
+            if(!file.exists()) {
+                return offsets;
+            }
+            try {
+                final RandomAccessFile random = this.random();
+                long offset = 0L;
+                try {
+                    while(offset < random.length()) {
+                        random.seek(offset);
+                        final String key = random.readUTF();
+                        final int count = random.readInt();
+                        final int length = random.readInt();
+                        final long next = random.getFilePointer() + length;
+                        if(next > random.length()) {
+                            // Truncated last record
+                            break;
+                        }
+                        if(count >= 0) {
+                            offsets.put(key, offset);
+                        }
+                        else {
+                            offsets.remove(key);
+                        }
+                        offset = next;
+                    }
+                }
+                catch(EOFException e) {
+                    // Truncated last record
+                }
+                for(Long o : offsets.values()) {
+                    used += this.length(o);
+                }
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Read %d directories from %s", offsets.size(), file));
+                }
+                if(random.length() > used * 2) {
+                    this.compact();
+                }
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure reading index %s. %s", file, e.getMessage()));
+                offsets.clear();
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Rewrite index file with latest record for each directory only
+     */
+    private void compact() throws IOException {
+        final File temporary = new File(String.format("%s.tmp", file.getAbsolute()));
+        final Map<String, Long> compacted = new HashMap<>();
+        try (RandomAccessFile out = new RandomAccessFile(temporary, "rw")) {
+            out.setLength(0L);
+            for(Map.Entry<String, Long> entry : offsets.entrySet()) {
+                final long length = this.length(entry.getValue());
+                final byte[] record = new byte[(int) length];
+                random.seek(entry.getValue());
+                random.readFully(record);
+                compacted.put(entry.getKey(), out.getFilePointer());
+                out.write(record);
+            }
+        }
+        this.close();
+        Files.move(temporary.toPath(), Paths.get(file.getAbsolute()), StandardCopyOption.REPLACE_EXISTING);
+        offsets = compacted;
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Compacted index %s to %d directories", file, offsets.size()));
+        }
+    }
+
+    private String key(final Path directory) {
+        return normalizer.normalize(directory.getAbsolute()).toString();
+    }
+
+    private RandomAccessFile random() throws IOException {
+        if(null == random) {
+            random = new RandomAccessFile(file.getAbsolute(), "rw");
+        }
+        return random;
+    }
+
+    /**
+     * Close index file
+     */
+    public synchronized void close() {
+        if(null != random) {
+            try {
+                random.close();
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure closing %s. %s", file, e.getMessage()));
+            }
+            finally {
+                random = null;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PersistentPathIndex{");
+        sb.append("file=").append(file);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -18,9 +18,11 @@ package ch.cyberduck.core;
  *  dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.cache.LRUCache;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.ResolveCanceledException;
 import ch.cyberduck.core.exception.ResolveFailedException;
+import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.CancelCallback;
 import ch.cyberduck.core.threading.NamedThreadFactory;
@@ -32,30 +34,84 @@ import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.text.MessageFormat;
-import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Set;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 
+/**
+ * Resolve hostnames on a shared executor. Results are cached for connection.dns.cache.ttl seconds and failures for
+ * connection.dns.cache.ttl.negative seconds. Concurrent lookups for the same hostname wait for a single query.
+ */
 public final class Resolver {
     private static final Logger log = LogManager.getLogger(Resolver.class);
 
-    private final ThreadFactory threadFactory
-            = new NamedThreadFactory("resolver");
+    private static final class Holder {
+        private static final Preferences preferences = PreferencesFactory.get();
+
+        /**
+         * Thread started on demand for every hostname looked up concurrently to not wait for hung lookups
+         */
+        private static final ExecutorService pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+                preferences.getLong("threading.pool.keepalive.seconds"), TimeUnit.SECONDS, new SynchronousQueue<>(), new NamedThreadFactory("resolver"));
+
+        /**
+         * Resolved addresses and failures by hostname with expiry checked on lookup
+         */
+        private static final LRUCache<String, Cached> cache = LRUCache.build(preferences.getLong("connection.dns.cache.size"));
+
+        /**
+         * Lookups in progress by hostname
+         */
+        private static final Map<String, CompletableFuture<InetAddress[]>> pending = new ConcurrentHashMap<>();
+    }
 
     private final boolean preferIPv6;
+    /**
+     * Interleave IPv6 and IPv4 addresses to attempt connecting to either address family alternately
+     */
+    private final boolean happyEyeballs;
+    private final Lookup lookup;
+    private final Clock clock;
+    /**
+     * Time in milliseconds to cache resolved addresses
+     */
+    private final long ttl;
+    /**
+     * Time in milliseconds to cache failures
+     */
+    private final long negative;
 
     public Resolver() {
         this(PreferencesFactory.get().getBoolean("connection.dns.ipv6"));
     }
 
     public Resolver(final boolean preferIPv6) {
+        this(preferIPv6, PreferencesFactory.get().getBoolean("connection.dns.happyeyeballs"), InetAddress::getAllByName);
+    }
+
+    Resolver(final boolean preferIPv6, final boolean happyEyeballs, final Lookup lookup) {
+        this(preferIPv6, happyEyeballs, lookup, System::currentTimeMillis);
+    }
+
+    Resolver(final boolean preferIPv6, final boolean happyEyeballs, final Lookup lookup, final Clock clock) {
         this.preferIPv6 = preferIPv6;
+        this.happyEyeballs = happyEyeballs;
+        this.lookup = lookup;
+        this.clock = clock;
+        this.ttl = TimeUnit.SECONDS.toMillis(PreferencesFactory.get().getLong("connection.dns.cache.ttl"));
+        this.negative = TimeUnit.SECONDS.toMillis(PreferencesFactory.get().getLong("connection.dns.cache.ttl.negative"));
     }
 
     /**
@@ -66,65 +122,176 @@ public final class Resolver {
      * @throws ResolveCanceledException If the lookup has been interrupted
      */
     public InetAddress[] resolve(final String hostname, final CancelCallback callback) throws ResolveFailedException, ResolveCanceledException {
-        final CountDownLatch signal = new CountDownLatch(1);
-        final AtomicReference<Set<InetAddress>> resolved = new AtomicReference<>();
-        final AtomicReference<UnknownHostException> failure = new AtomicReference<>();
-        final Thread resolver = threadFactory.newThread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    final InetAddress[] allByName = InetAddress.getAllByName(hostname);
-                    resolved.set(Arrays.stream(allByName).collect(Collectors.toSet()));
-                    if(preferIPv6) {
-                        final Set<InetAddress> filtered = Arrays.stream(allByName).filter(inetAddress -> inetAddress instanceof Inet6Address).collect(Collectors.toSet());
-                        if(!filtered.isEmpty()) {
-                            resolved.set(filtered);
-                        }
-                    }
-                    if(log.isInfoEnabled()) {
-                        log.info(String.format("Resolved %s to %s", hostname, Arrays.toString(resolved.get().toArray())));
-                    }
-                }
-                catch(UnknownHostException e) {
-                    log.warn(String.format("Failed resolving %s", hostname));
-                    failure.set(e);
-                }
-                finally {
-                    signal.countDown();
-                }
-            }
-        });
-        resolver.start();
-        log.debug(String.format("Waiting for resolving of %s", hostname));
-        // Wait for #run to finish
-        while(!Uninterruptibles.awaitUninterruptibly(signal, Duration.ofMillis(500))) {
+        final CompletableFuture<InetAddress[]> future = this.lookup(hostname);
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Waiting for resolving of %s", hostname));
+        }
+        InetAddress[] allByName = null;
+        Throwable failure = null;
+        while(null == allByName && null == failure) {
             try {
-                callback.verify();
+                allByName = Uninterruptibles.getUninterruptibly(future, 500, TimeUnit.MILLISECONDS);
             }
-            catch(ConnectionCanceledException c) {
-                throw new ResolveCanceledException(MessageFormat.format(LocaleFactory.localizedString("DNS lookup for {0} failed", "Error"), hostname), c);
+            catch(TimeoutException e) {
+                this.verify(hostname, callback);
             }
+            catch(ExecutionException e) {
+                failure = e.getCause();
+            }
+        }
+        this.verify(hostname, callback);
+        if(null != failure) {
+            throw new ResolveFailedException(
+                    MessageFormat.format(LocaleFactory.localizedString("DNS lookup for {0} failed", "Error"), hostname), failure);
         }
+        return this.sort(allByName);
+    }
+
+    private void verify(final String hostname, final CancelCallback callback) throws ResolveCanceledException {
         try {
             callback.verify();
         }
         catch(ConnectionCanceledException c) {
+            log.warn(String.format("Canceled resolving %s", hostname));
             throw new ResolveCanceledException(MessageFormat.format(LocaleFactory.localizedString("DNS lookup for {0} failed", "Error"), hostname), c);
         }
-        if(null == resolved.get()) {
-            if(null == failure.get()) {
-                log.warn(String.format("Canceled resolving %s", hostname));
-                throw new ResolveCanceledException(MessageFormat.format(LocaleFactory.localizedString("DNS lookup for {0} failed", "Error"), hostname));
+    }
+
+    /**
+     * @return Cached result or lookup in progress
+     */
+    CompletableFuture<InetAddress[]> lookup(final String hostname) {
+        final CompletableFuture<InetAddress[]> future = new CompletableFuture<>();
+        final Cached cached = Holder.cache.get(hostname);
+        if(null != cached) {
+            if(cached.expires > clock.millis()) {
+                if(null != cached.failure) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Return cached failure resolving %s", hostname));
+                    }
+                    future.completeExceptionally(cached.failure);
+                }
+                else {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Return cached addresses %s for %s", Arrays.toString(cached.addresses), hostname));
+                    }
+                    future.complete(cached.addresses);
+                }
+                return future;
             }
-            throw new ResolveFailedException(
-                    MessageFormat.format(LocaleFactory.localizedString("DNS lookup for {0} failed", "Error"), hostname), failure.get());
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Cached result for %s expired", hostname));
+            }
+            Holder.cache.remove(hostname);
+        }
+        final CompletableFuture<InetAddress[]> existing = Holder.pending.putIfAbsent(hostname, future);
+        if(null != existing) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Join pending lookup for %s", hostname));
+            }
+            return existing;
+        }
+        Holder.pool.execute(() -> {
+            try {
+                final InetAddress[] allByName = lookup.getAllByName(hostname);
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Resolved %s to %s", hostname, Arrays.toString(allByName)));
+                }
+                Holder.cache.put(hostname, new Cached(allByName, null, clock.millis() + ttl));
+                future.complete(allByName);
+            }
+            catch(UnknownHostException e) {
+                log.warn(String.format("Failed resolving %s", hostname));
+                Holder.cache.put(hostname, new Cached(null, e, clock.millis() + negative));
+                future.completeExceptionally(e);
+            }
+            catch(RuntimeException e) {
+                log.warn(String.format("Failure resolving %s. %s", hostname, e.getMessage()));
+                future.completeExceptionally(e);
+            }
+            finally {
+                // Result is cached before removing lookup from pending
+                Holder.pending.remove(hostname, future);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @param allByName Addresses in order returned by system
+     * @return IPv6 addresses only if preferred or addresses of both families interleaved
+     */
+    private InetAddress[] sort(final InetAddress[] allByName) {
+        final List<InetAddress> ipv6 = Arrays.stream(allByName).filter(address -> address instanceof Inet6Address).collect(Collectors.toList());
+        final List<InetAddress> ipv4 = Arrays.stream(allByName).filter(address -> !(address instanceof Inet6Address)).collect(Collectors.toList());
+        if(happyEyeballs) {
+            final List<InetAddress> first;
+            final List<InetAddress> second;
+            if(preferIPv6 || allByName.length > 0 && allByName[0] instanceof Inet6Address) {
+                first = ipv6;
+                second = ipv4;
+            }
+            else {
+                first = ipv4;
+                second = ipv6;
+            }
+            final List<InetAddress> interleaved = new ArrayList<>(allByName.length);
+            for(int i = 0; i < Math.max(first.size(), second.size()); i++) {
+                if(i < first.size()) {
+                    interleaved.add(first.get(i));
+                }
+                if(i < second.size()) {
+                    interleaved.add(second.get(i));
+                }
+            }
+            return interleaved.toArray(new InetAddress[0]);
+        }
+        if(preferIPv6) {
+            if(!ipv6.isEmpty()) {
+                return ipv6.toArray(new InetAddress[0]);
+            }
+        }
+        return allByName.clone();
+    }
+
+    /**
+     * Remove all cached results
+     */
+    public static void clear() {
+        Holder.cache.clear();
+    }
+
+    interface Lookup {
+        InetAddress[] getAllByName(String hostname) throws UnknownHostException;
+    }
+
+    interface Clock {
+        /**
+         * @return Current time in milliseconds
+         */
+        long millis();
+    }
+
+    private static final class Cached {
+        private final InetAddress[] addresses;
+        private final UnknownHostException failure;
+        /**
+         * Time in milliseconds until result is valid
+         */
+        private final long expires;
+
+        private Cached(final InetAddress[] addresses, final UnknownHostException failure, final long expires) {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.expires = expires;
         }
-        return resolved.get().toArray(new InetAddress[resolved.get().size()]);
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("Resolver{");
+        sb.append("preferIPv6=").append(preferIPv6);
+        sb.append(", happyEyeballs=").append(happyEyeballs);
         sb.append('}');
         return sb.toString();
     }
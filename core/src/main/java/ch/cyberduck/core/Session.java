@@ -19,19 +19,31 @@ package ch.cyberduck.core;
  */
 
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.AclPermission;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.features.Copy;
+import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.features.Download;
+import ch.cyberduck.core.features.FileIdProvider;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Headers;
+import ch.cyberduck.core.features.Home;
+import ch.cyberduck.core.features.Metadata;
 import ch.cyberduck.core.features.Move;
+import ch.cyberduck.core.features.MultipartWrite;
 import ch.cyberduck.core.features.PromptUrlProvider;
 import ch.cyberduck.core.features.Quota;
 import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.features.Timestamp;
+import ch.cyberduck.core.features.Trash;
+import ch.cyberduck.core.features.UnixPermission;
 import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.features.VersionIdProvider;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.proxy.Proxy;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
@@ -50,9 +62,13 @@ import ch.cyberduck.core.vault.VaultRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class Session<C> implements TranscriptListener {
     private static final Logger log = LogManager.getLogger(Session.class);
@@ -62,6 +78,16 @@ public abstract class Session<C> implements TranscriptListener {
      */
     private static final TranscriptListener transcript = new LoggingTranscriptListener();
 
+    /**
+     * Feature types without configuration methods in any implementation to reuse implementations for subsequent
+     * lookups. Excludes list and find features configured by protocol implementations and vault registry.
+     */
+    private static final Set<Class<?>> memoizable = new HashSet<>(Arrays.asList(
+            Read.class, Write.class, MultipartWrite.class, AttributesFinder.class,
+            Delete.class, Trash.class, Home.class, UrlProvider.class, PromptUrlProvider.class, Timestamp.class,
+            UnixPermission.class, AclPermission.class, Headers.class, Metadata.class, Quota.class, Search.class,
+            FileIdProvider.class, VersionIdProvider.class));
+
     /**
      * Encapsulating all the information of the remote host
      */
@@ -69,6 +95,16 @@ public abstract class Session<C> implements TranscriptListener {
 
     private Metrics metrics = new DisabledMetrics();
 
+    private final boolean memoize;
+    /**
+     * Feature implementations by type including wrapper from vault registry
+     */
+    private final Map<Class<?>, Memoized> features = new ConcurrentHashMap<>();
+    /**
+     * Incremented when features are invalidated to discard implementations resolved before
+     */
+    private final AtomicLong generation = new AtomicLong();
+
     /**
      * Connection
      */
@@ -112,6 +148,7 @@ public abstract class Session<C> implements TranscriptListener {
 
     public Session<?> withRegistry(final VaultRegistry registry) {
         this.registry = registry;
+        this.invalidate();
         return this;
     }
 
@@ -124,6 +161,7 @@ public abstract class Session<C> implements TranscriptListener {
 
     protected Session(final Host h) {
         this.host = h;
+        this.memoize = new HostPreferences(h).getBoolean("connection.feature.cache.enable");
     }
 
     /**
@@ -155,6 +193,7 @@ public abstract class Session<C> implements TranscriptListener {
         }
         // Update status flag
         state = State.opening;
+        this.invalidate();
         client = this.connect(proxy, key, login, cancel);
         if(log.isDebugEnabled()) {
             log.debug(String.format("Connection did open to %s", host));
@@ -221,6 +260,7 @@ public abstract class Session<C> implements TranscriptListener {
     protected void disconnect() {
         state = State.closed;
         listeners.clear();
+        this.invalidate();
     }
 
     /**
@@ -276,9 +316,29 @@ public abstract class Session<C> implements TranscriptListener {
     @SuppressWarnings("unchecked")
     public <T> T getFeature(final Class<T> type) {
         metrics.increment(type);
+        if(memoize && memoizable.contains(type)) {
+            final long current = generation.get();
+            final Memoized cached = features.get(type);
+            if(null != cached && cached.generation == current) {
+                return (T) cached.feature;
+            }
+            final T feature = this.getFeature(type, this._getFeature(type));
+            // Saved with generation resolved in to be ignored when invalidated concurrently
+            features.put(type, new Memoized(current, feature));
+            return feature;
+        }
         return this.getFeature(type, this._getFeature(type));
     }
 
+    /**
+     * Discard feature implementations resolved previously. Required when vaults are loaded or locked and after
+     * login when features depend on state of the connection.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        features.clear();
+    }
+
     /**
      * Wrap proxy with cryptographic feature
      *
@@ -343,4 +403,20 @@ public abstract class Session<C> implements TranscriptListener {
         sb.append('}');
         return sb.toString();
     }
+
+    private static final class Memoized {
+        /**
+         * Generation when feature was resolved
+         */
+        private final long generation;
+        /**
+         * Feature implementation or null when not supported
+         */
+        private final Object feature;
+
+        public Memoized(final long generation, final Object feature) {
+            this.generation = generation;
+            this.feature = feature;
+        }
+    }
 }
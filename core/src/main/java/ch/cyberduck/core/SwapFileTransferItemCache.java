@@ -0,0 +1,235 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.local.LocalTouchFactory;
+import ch.cyberduck.core.local.TemporaryFileServiceFactory;
+import ch.cyberduck.core.serializer.Deserializer;
+import ch.cyberduck.core.serializer.TransferItemDictionary;
+import ch.cyberduck.core.serializer.impl.dd.PlistDeserializer;
+import ch.cyberduck.core.serializer.impl.dd.PlistSerializer;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.dd.plist.BinaryPropertyListParser;
+import com.dd.plist.BinaryPropertyListWriter;
+import com.dd.plist.NSArray;
+import com.dd.plist.NSDictionary;
+import com.dd.plist.NSObject;
+import com.dd.plist.PropertyListFormatException;
+
+/**
+ * Keeps a limited number of directory listings in memory and writes listings evicted to a temporary file. Only
+ * attributes persisted with a transfer are retained for items read back from the file. Lookups and the map
+ * representation are limited to listings in memory.
+ */
+public class SwapFileTransferItemCache extends TransferItemCache {
+    private static final Logger log = LogManager.getLogger(SwapFileTransferItemCache.class);
+
+    private final Local temporary;
+
+    /**
+     * Position of directory listings written to temporary file
+     */
+    private final Map<CacheReference<TransferItem>, Long> offsets = new HashMap<>();
+    /**
+     * Directory listings evicted that failed to write to temporary file
+     */
+    private final Map<CacheReference<TransferItem>, AttributedList<TransferItem>> failures = new HashMap<>();
+
+    private RandomAccessFile file;
+
+    /**
+     * @param size Maximum number of directory listings kept in memory
+     */
+    public SwapFileTransferItemCache(final int size) {
+        this(size, TemporaryFileServiceFactory.get().create(new AlphanumericRandomStringService().random()));
+    }
+
+    public SwapFileTransferItemCache(final int size, final Local temporary) {
+        super(size);
+        this.temporary = temporary;
+    }
+
+    @Override
+    protected synchronized void evicted(final CacheReference<TransferItem> reference, final AttributedList<TransferItem> list) {
+        try {
+            offsets.put(reference, this.write(list));
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing %s to %s. %s", reference, temporary, e.getMessage()));
+            failures.put(reference, list);
+        }
+    }
+
+    @Override
+    public synchronized boolean containsKey(final TransferItem key) {
+        final CacheReference<TransferItem> reference = this.reference(key);
+        return super.containsKey(key) || offsets.containsKey(reference) || failures.containsKey(reference);
+    }
+
+    @Override
+    public synchronized AttributedList<TransferItem> get(final TransferItem key) {
+        final CacheReference<TransferItem> reference = this.reference(key);
+        if(offsets.containsKey(reference)) {
+            return this.read(offsets.get(reference));
+        }
+        if(failures.containsKey(reference)) {
+            return failures.get(reference);
+        }
+        return super.get(key);
+    }
+
+    @Override
+    public synchronized AttributedList<TransferItem> put(final TransferItem key, final AttributedList<TransferItem> children) {
+        final CacheReference<TransferItem> reference = this.reference(key);
+        final Long offset = offsets.remove(reference);
+        final AttributedList<TransferItem> failure = failures.remove(reference);
+        final AttributedList<TransferItem> replaced = super.put(key, children);
+        if(null != offset) {
+            return this.read(offset);
+        }
+        if(null != failure) {
+            return failure;
+        }
+        return replaced;
+    }
+
+    @Override
+    public synchronized AttributedList<TransferItem> remove(final TransferItem key) {
+        final CacheReference<TransferItem> reference = this.reference(key);
+        final Long offset = offsets.remove(reference);
+        if(null != offset) {
+            return this.read(offset);
+        }
+        final AttributedList<TransferItem> failure = failures.remove(reference);
+        if(null != failure) {
+            return failure;
+        }
+        return super.remove(key);
+    }
+
+    @Override
+    public synchronized long size() {
+        return super.size() + offsets.size() + failures.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return 0 == this.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        offsets.clear();
+        failures.clear();
+        if(null != file) {
+            try {
+                file.close();
+            }
+            catch(IOException e) {
+                log.error(String.format("Failure closing %s", temporary));
+            }
+            finally {
+                file = null;
+                try {
+                    temporary.delete();
+                }
+                catch(AccessDeniedException | NotfoundException e) {
+                    log.warn(String.format("Failure removing temporary file %s. Schedule for delete on exit.", temporary));
+                    Paths.get(temporary.getAbsolute()).toFile().deleteOnExit();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Position of directory listing in temporary file
+     */
+    private long write(final AttributedList<TransferItem> list) throws IOException {
+        final NSArray array = new NSArray(list.size());
+        int i = 0;
+        for(TransferItem item : list) {
+            array.setValue(i++, item.serialize(new PlistSerializer()));
+        }
+        final byte[] data = BinaryPropertyListWriter.writeToArray(array);
+        final RandomAccessFile file = this.random();
+        final long offset = file.length();
+        file.seek(offset);
+        file.writeInt(data.length);
+        file.write(data);
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Wrote %d items with %d bytes to %s", list.size(), data.length, temporary));
+        }
+        return offset;
+    }
+
+    private AttributedList<TransferItem> read(final long offset) {
+        final AttributedList<TransferItem> list = new AttributedList<>();
+        try {
+            final RandomAccessFile file = this.random();
+            file.seek(offset);
+            final byte[] data = new byte[file.readInt()];
+            file.readFully(data);
+            final TransferItemDictionary<NSDictionary> dict = new TransferItemDictionary<>(new DeserializerFactory<NSDictionary>() {
+                @Override
+                public Deserializer<NSDictionary> create(final NSDictionary dict) {
+                    return new PlistDeserializer(dict);
+                }
+            });
+            for(NSObject item : ((NSArray) BinaryPropertyListParser.parse(data)).getArray()) {
+                list.add(dict.deserialize((NSDictionary) item));
+            }
+        }
+        catch(IOException | PropertyListFormatException e) {
+            log.error(String.format("Failure reading from %s. %s", temporary, e.getMessage()));
+        }
+        return list;
+    }
+
+    private RandomAccessFile random() throws IOException {
+        if(null == file) {
+            try {
+                LocalTouchFactory.get().touch(temporary);
+            }
+            catch(AccessDeniedException e) {
+                throw new IOException(e);
+            }
+            file = new RandomAccessFile(temporary.getAbsolute(), "rw");
+        }
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SwapFileTransferItemCache{");
+        sb.append("temporary=").append(temporary);
+        sb.append(", offsets=").append(offsets.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
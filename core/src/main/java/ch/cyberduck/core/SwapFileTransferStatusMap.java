@@ -0,0 +1,244 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.local.LocalTouchFactory;
+import ch.cyberduck.core.local.TemporaryFileServiceFactory;
+import ch.cyberduck.core.serializer.Deserializer;
+import ch.cyberduck.core.serializer.TransferItemDictionary;
+import ch.cyberduck.core.serializer.impl.dd.PlistDeserializer;
+import ch.cyberduck.core.serializer.impl.dd.PlistSerializer;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.dd.plist.BinaryPropertyListParser;
+import com.dd.plist.BinaryPropertyListWriter;
+import com.dd.plist.NSDictionary;
+import com.dd.plist.PropertyListFormatException;
+
+/**
+ * Transfer status by item with the status of completed items moved from the map in memory to a temporary file.
+ * Only the item with the attributes persisted with a transfer and the length, offset and completion of the status
+ * are retained for items written to the file. Iteration includes all items while lookups and modifications are
+ * delegated to the map in memory.
+ */
+public class SwapFileTransferStatusMap extends AbstractMap<TransferItem, TransferStatus> {
+    private static final Logger log = LogManager.getLogger(SwapFileTransferStatusMap.class);
+
+    /**
+     * Items not yet completed
+     */
+    private final Map<TransferItem, TransferStatus> memory;
+    private final Local temporary;
+
+    /**
+     * Number of items written to temporary file
+     */
+    private int swapped;
+
+    private RandomAccessFile file;
+
+    public SwapFileTransferStatusMap(final Map<TransferItem, TransferStatus> memory) {
+        this(memory, TemporaryFileServiceFactory.get().create(new AlphanumericRandomStringService().random()));
+    }
+
+    public SwapFileTransferStatusMap(final Map<TransferItem, TransferStatus> memory, final Local temporary) {
+        this.memory = memory;
+        this.temporary = temporary;
+    }
+
+    /**
+     * Move status of completed item from memory to temporary file
+     *
+     * @param item Transfer item
+     */
+    public synchronized void swap(final TransferItem item) {
+        final TransferStatus status = memory.get(item);
+        if(null == status) {
+            return;
+        }
+        try {
+            this.write(item, status);
+            memory.remove(item);
+            swapped++;
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing %s to %s. %s", item, temporary, e.getMessage()));
+        }
+    }
+
+    @Override
+    public TransferStatus get(final Object key) {
+        return memory.get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return memory.containsKey(key);
+    }
+
+    @Override
+    public TransferStatus put(final TransferItem key, final TransferStatus value) {
+        return memory.put(key, value);
+    }
+
+    @Override
+    public TransferStatus remove(final Object key) {
+        return memory.remove(key);
+    }
+
+    @Override
+    public Set<Entry<TransferItem, TransferStatus>> entrySet() {
+        return new AbstractSet<Entry<TransferItem, TransferStatus>>() {
+            @Override
+            public Iterator<Entry<TransferItem, TransferStatus>> iterator() {
+                final Iterator<Entry<TransferItem, TransferStatus>> proxy = memory.entrySet().iterator();
+                return new Iterator<Entry<TransferItem, TransferStatus>>() {
+                    /**
+                     * Position of next record in temporary file
+                     */
+                    private long offset = 0L;
+                    private int read = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return proxy.hasNext() || read < swapped;
+                    }
+
+                    @Override
+                    public Entry<TransferItem, TransferStatus> next() {
+                        if(proxy.hasNext()) {
+                            return proxy.next();
+                        }
+                        if(read >= swapped) {
+                            throw new NoSuchElementException();
+                        }
+                        synchronized(SwapFileTransferStatusMap.this) {
+                            try {
+                                final RandomAccessFile file = SwapFileTransferStatusMap.this.random();
+                                file.seek(offset);
+                                final byte[] data = new byte[file.readInt()];
+                                file.readFully(data);
+                                final TransferStatus status = new TransferStatus();
+                                status.setLength(file.readLong());
+                                status.setOffset(file.readLong());
+                                if(file.readBoolean()) {
+                                    status.setComplete();
+                                }
+                                offset = file.getFilePointer();
+                                read++;
+                                return new SimpleImmutableEntry<>(new TransferItemDictionary<>(new DeserializerFactory<NSDictionary>() {
+                                    @Override
+                                    public Deserializer<NSDictionary> create(final NSDictionary dict) {
+                                        return new PlistDeserializer(dict);
+                                    }
+                                }).deserialize((NSDictionary) BinaryPropertyListParser.parse(data)), status);
+                            }
+                            catch(IOException | PropertyListFormatException e) {
+                                log.error(String.format("Failure reading from %s. %s", temporary, e.getMessage()));
+                                // Skip remaining items
+                                read = swapped;
+                                throw new NoSuchElementException(e.getMessage());
+                            }
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return memory.size() + swapped;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return memory.size() + swapped;
+    }
+
+    @Override
+    public synchronized void clear() {
+        memory.clear();
+        swapped = 0;
+        if(null != file) {
+            try {
+                file.close();
+            }
+            catch(IOException e) {
+                log.error(String.format("Failure closing %s", temporary));
+            }
+            finally {
+                file = null;
+                try {
+                    temporary.delete();
+                }
+                catch(AccessDeniedException | NotfoundException e) {
+                    log.warn(String.format("Failure removing temporary file %s. Schedule for delete on exit.", temporary));
+                    Paths.get(temporary.getAbsolute()).toFile().deleteOnExit();
+                }
+            }
+        }
+    }
+
+    private void write(final TransferItem item, final TransferStatus status) throws IOException {
+        final byte[] data = BinaryPropertyListWriter.writeToArray(item.serialize(new PlistSerializer()));
+        final RandomAccessFile file = this.random();
+        file.seek(file.length());
+        file.writeInt(data.length);
+        file.write(data);
+        file.writeLong(status.getLength());
+        file.writeLong(status.getOffset());
+        file.writeBoolean(status.isComplete());
+    }
+
+    private RandomAccessFile random() throws IOException {
+        if(null == file) {
+            try {
+                LocalTouchFactory.get().touch(temporary);
+            }
+            catch(AccessDeniedException e) {
+                throw new IOException(e);
+            }
+            file = new RandomAccessFile(temporary.getAbsolute(), "rw");
+        }
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SwapFileTransferStatusMap{");
+        sb.append("temporary=").append(temporary);
+        sb.append(", swapped=").append(swapped);
+        sb.append('}');
+        return sb.toString();
+    }
+}
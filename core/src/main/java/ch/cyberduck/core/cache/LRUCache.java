@@ -20,6 +20,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -128,6 +129,23 @@ public class LRUCache<Key, Value> {
         return delegate.getIfPresent(key);
     }
 
+    /**
+     * Atomically lookup value or compute and cache value if absent
+     *
+     * @param key    Key
+     * @param loader Function to compute value not found in cache
+     * @return Cached or computed value
+     * @throws UncheckedExecutionException Wrapping failure computing value
+     */
+    public Value get(final Key key, final Function<Key, Value> loader) throws UncheckedExecutionException {
+        try {
+            return delegate.get(key, () -> loader.apply(key));
+        }
+        catch(ExecutionException e) {
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
     public Map<Key, Value> asMap() {
         return Collections.unmodifiableMap(delegate.asMap());
     }
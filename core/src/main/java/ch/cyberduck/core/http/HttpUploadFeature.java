@@ -126,7 +126,14 @@ public class HttpUploadFeature<Reply, Digest> implements Upload<Reply> {
             return;
         }
         // Obtain locally-calculated MD5 hash.
-        final Checksum expected = Checksum.parse(Hex.encodeHexString(digest.digest()));
+        this.verify(file, Checksum.parse(Hex.encodeHexString(digest.digest())), checksum);
+    }
+
+    /**
+     * @param expected Checksum calculated locally
+     * @param checksum Checksum returned by server
+     */
+    protected void verify(final Path file, final Checksum expected, final Checksum checksum) throws ChecksumException {
         if(ObjectUtils.notEqual(expected.algorithm, checksum.algorithm)) {
             log.warn(String.format("ETag %s returned by server is %s but expected %s", checksum.hash, checksum.algorithm, expected.algorithm));
         }
@@ -4,6 +4,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 
@@ -27,9 +29,10 @@ import com.google.common.util.concurrent.Uninterruptibles;
  * have been exceeded, subsequent calls to request(..) will block.  The default value of T is 100 milliseconds. Smaller
  * window values T allow fairer bandwidth sharing and less noticeable pauses but may decrease efficiency slightly.<p>
  * <p/>
- * Note that throttles are <i>not</i> cumulative.  In the future, this may allow enable fancier control.  Also,
- * BandwidthThrottle may be able delegate to other throttles.  This would allow, for example, a 15 KB/s Gnutella
- * messaging throttle, with no more than 10 KB/s devoted to uploads.<p>
+ * Note that throttles are <i>not</i> cumulative.  A throttle may delegate to a parent throttle shared with other
+ * throttles.  This allows, for example, a limit for all transfers to a host with no more than 10 KB/s devoted to a
+ * single transfer. Bytes available in a window are taken with compare and set without locking and callers wait for
+ * the next window without blocking other callers.<p>
  * <p/>
  * This implementation is based on the <a href="http://cvs.sourceforge.net/cgi-bin/viewcvs.cgi/freenet/freenet/src/freenet/support/io/Bandwidth.java">Bandwidth</a>
  * class from the Freenet project.  It has been simplified and better documented.<p>
@@ -59,11 +62,33 @@ public final class BandwidthThrottle {
     /**
      * The number of bytes remaining in this window.
      */
-    private int availableBytes;
+    private final AtomicLong availableBytes = new AtomicLong();
     /**
      * The system time when the window is reset so more bytes can be sent.
      */
-    private long nextTickTime;
+    private final AtomicLong nextTickTime = new AtomicLong();
+
+    /**
+     * Throttle shared with other throttles to additionally request bandwidth from or null
+     */
+    private final BandwidthThrottle parent;
+
+    /**
+     * Number of bytes allowed to send in total
+     */
+    private final LongAdder transferred = new LongAdder();
+    /**
+     * Number of times callers waited for the next window
+     */
+    private final LongAdder waits = new LongAdder();
+    /**
+     * Milliseconds callers waited for the next window in total
+     */
+    private final LongAdder waited = new LongAdder();
+    /**
+     * Creation time to calculate average rate
+     */
+    private final long created = System.currentTimeMillis();
 
     /**
      * Creates a new bandwidth throttle at the given throttle rate. The default windows size T is used.  The bytes per
@@ -72,6 +97,17 @@ public final class BandwidthThrottle {
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      */
     public BandwidthThrottle(float bytesPerSecond) {
+        this(bytesPerSecond, null);
+    }
+
+    /**
+     * Creates a new bandwidth throttle at the given throttle rate additionally limited by the parent throttle.
+     *
+     * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
+     * @param parent         Throttle shared with other throttles or null
+     */
+    public BandwidthThrottle(float bytesPerSecond, BandwidthThrottle parent) {
+        this.parent = parent;
         this.setRate(bytesPerSecond);
     }
 
@@ -84,6 +120,7 @@ public final class BandwidthThrottle {
      * @param switching      true if we should only allow bandwidth to be used every other second.
      */
     public BandwidthThrottle(float bytesPerSecond, boolean switching) {
+        this.parent = null;
         this.setRate(bytesPerSecond);
         this.setSwitching(switching);
 
@@ -97,7 +134,7 @@ public final class BandwidthThrottle {
     /**
      * Bytes per second allowed
      */
-    private float rate = UNLIMITED;
+    private volatile float rate = UNLIMITED;
 
     /**
      * Sets the throttle to the given throttle rate.  The default windows size T is used.  The bytes per windows N is
@@ -166,48 +203,115 @@ public final class BandwidthThrottle {
      * @return the number of bytes the sender is expected to send, which is always greater than one and less than or
      * equal to desired
      */
-    public synchronized int request(int desired) {
-        if(UNLIMITED == rate) {
-            return desired;
+    public int request(int desired) {
+        int result = UNLIMITED == rate ? desired : this.acquire(desired);
+        if(parent != null) {
+            final int allowed = parent.request(result);
+            if(allowed < result) {
+                this.release(result - allowed);
+                result = allowed;
+            }
         }
-        waitForBandwidth();
-        int result = Math.min(desired, availableBytes);
-        availableBytes -= result;
+        transferred.add(result);
         return result;
     }
 
     /**
-     * Waits until data is _availableBytes.
+     * Take bytes from this window waiting for the next window when no bytes are available
      */
-    private void waitForBandwidth() {
+    private int acquire(int desired) {
         while(true) {
-            long now = System.currentTimeMillis();
-            updateWindow(now);
-            if(availableBytes != 0) {
-                break;
+            final long now = System.currentTimeMillis();
+            this.updateWindow(now);
+            final long available = availableBytes.get();
+            if(available > 0) {
+                final int result = (int) Math.min(desired, available);
+                if(availableBytes.compareAndSet(available, available - result)) {
+                    return result;
+                }
+                // Taken concurrently
+                continue;
             }
-            if(log.isInfoEnabled()) {
-                log.info(String.format("Throttling bandwidth for %d milliseconds", nextTickTime - now));
+            final long wait = nextTickTime.get() - now;
+            if(wait > 0) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Throttling bandwidth for %d milliseconds", wait));
+                }
+                waits.increment();
+                waited.add(wait);
+                Uninterruptibles.sleepUninterruptibly(wait, TimeUnit.MILLISECONDS);
             }
-            Uninterruptibles.sleepUninterruptibly(nextTickTime - now, TimeUnit.MILLISECONDS);
         }
     }
 
     /**
-     * Updates _availableBytes and _nextTickTime if possible.
+     * Return bytes not allowed by parent to this window
+     */
+    private void release(int bytes) {
+        if(UNLIMITED == rate) {
+            return;
+        }
+        availableBytes.accumulateAndGet(bytes, (available, returned) -> Math.min(bytesPerTick, available + returned));
+    }
+
+    /**
+     * @return Throttle shared with other throttles or null
+     */
+    public BandwidthThrottle getParent() {
+        return parent;
+    }
+
+    /**
+     * @return Number of bytes allowed to send by this throttle in total. Sample to determine the current rate.
+     */
+    public long getTransferred() {
+        return transferred.sum();
+    }
+
+    /**
+     * @return Average number of bytes per second allowed since this throttle was created
+     */
+    public float getAverage() {
+        final long elapsed = System.currentTimeMillis() - created;
+        if(elapsed <= 0) {
+            return 0f;
+        }
+        return transferred.sum() * 1000f / elapsed;
+    }
+
+    /**
+     * @return Number of times callers waited for bandwidth
+     */
+    public long getWaits() {
+        return waits.sum();
+    }
+
+    /**
+     * @return Milliseconds callers waited for bandwidth in total. Compare with elapsed time to determine contention.
+     */
+    public long getWaitTime() {
+        return waited.sum();
+    }
+
+    /**
+     * Updates _availableBytes and _nextTickTime if possible. Only the caller setting the next tick time resets the
+     * bytes available.
      */
     private void updateWindow(long now) {
-        if(now >= nextTickTime) {
+        final long tick = nextTickTime.get();
+        if(now >= tick) {
             if(!switching || ((now / 1000) % 2) == 0) {
-                availableBytes = bytesPerTick;
-                nextTickTime = now + MILLIS_PER_TICK;
+                if(nextTickTime.compareAndSet(tick, now + MILLIS_PER_TICK)) {
+                    availableBytes.set(bytesPerTick);
+                }
             }
             else {
-                availableBytes = 0;
                 // the next tick time is the time we'll hit
                 // the next second.
                 long diff = 1000 - (now % 1000);
-                nextTickTime = now + diff;
+                if(nextTickTime.compareAndSet(tick, now + diff)) {
+                    availableBytes.set(0);
+                }
             }
         }
     }
@@ -231,4 +335,16 @@ public final class BandwidthThrottle {
     public int hashCode() {
         return (rate != +0.0f ? Float.floatToIntBits(rate) : 0);
     }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BandwidthThrottle{");
+        sb.append("rate=").append(rate);
+        sb.append(", average=").append(this.getAverage());
+        sb.append(", transferred=").append(this.getTransferred());
+        sb.append(", waits=").append(this.getWaits());
+        sb.append(", waited=").append(this.getWaitTime());
+        sb.append('}');
+        return sb.toString();
+    }
 }
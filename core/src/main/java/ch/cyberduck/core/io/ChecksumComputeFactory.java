@@ -19,6 +19,8 @@ package ch.cyberduck.core.io;
 
 import ch.cyberduck.core.dropbox.DropboxChecksumCompute;
 
+import java.util.Set;
+
 public final class ChecksumComputeFactory {
 
     private ChecksumComputeFactory() {
@@ -43,4 +45,11 @@ public final class ChecksumComputeFactory {
                 return new DisabledChecksumCompute();
         }
     }
+
+    /**
+     * @param algorithms Hash algorithms to calculate reading input once
+     */
+    public static MultipleChecksumCompute get(final Set<HashAlgorithm> algorithms) {
+        return new MultipleChecksumCompute(algorithms);
+    }
 }
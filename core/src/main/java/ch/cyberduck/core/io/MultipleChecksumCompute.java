@@ -0,0 +1,349 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.dropbox.DropboxContentHasher;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ChecksumCanceledException;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Calculate checksums with multiple algorithms reading the input once. Large local files are read in windows into a
+ * reused buffer with each digest updated concurrently and blocks of the Dropbox content hash calculated in parallel.
+ */
+public class MultipleChecksumCompute {
+    private static final Logger log = LogManager.getLogger(MultipleChecksumCompute.class);
+
+    private final Set<HashAlgorithm> algorithms;
+    /**
+     * Buffer size reading from stream
+     */
+    private final int buffer;
+    /**
+     * Size of region read at once. Multiple of Dropbox content hash block size.
+     */
+    private final long window;
+    private final int concurrency;
+
+    public MultipleChecksumCompute(final Set<HashAlgorithm> algorithms) {
+        this(algorithms, 16384, 2L * DropboxContentHasher.BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultipleChecksumCompute(final Set<HashAlgorithm> algorithms, final int buffer, final long window, final int concurrency) {
+        this.algorithms = algorithms;
+        this.buffer = buffer;
+        this.window = window;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @param in     Stream that will be closed when the checksums are computed
+     * @param status Offset and limit to read from stream
+     * @return Checksum for each algorithm or Checksum#NONE if not supported
+     */
+    public Map<HashAlgorithm, Checksum> compute(final InputStream in, final TransferStatus status) throws BackgroundException {
+        final Map<HashAlgorithm, Digest> digests = this.digests(false);
+        final InputStream normalized = this.normalize(in, status);
+        try {
+            final byte[] buffer = new byte[this.buffer];
+            int bytesRead;
+            while((bytesRead = normalized.read(buffer, 0, buffer.length)) != -1) {
+                status.validate();
+                for(Digest digest : digests.values()) {
+                    digest.update(buffer, bytesRead);
+                }
+            }
+        }
+        catch(ClosedChannelException e) {
+            throw new ChecksumCanceledException(e);
+        }
+        catch(IOException e) {
+            throw new ChecksumException(e);
+        }
+        finally {
+            IOUtils.closeQuietly(normalized);
+        }
+        return this.checksums(digests);
+    }
+
+    /**
+     * Read file contents in windows to update digests concurrently. Files smaller than a window or when computing
+     * a single algorithm are read with a stream instead.
+     *
+     * @param file   Local file
+     * @param status Offset and limit to read from file
+     * @return Checksum for each algorithm or Checksum#NONE if not supported
+     */
+    public Map<HashAlgorithm, Checksum> compute(final Local file, final TransferStatus status) throws BackgroundException {
+        if(algorithms.size() == 1) {
+            final HashAlgorithm algorithm = algorithms.iterator().next();
+            final Map<HashAlgorithm, Checksum> checksums = new EnumMap<>(HashAlgorithm.class);
+            checksums.put(algorithm, ChecksumComputeFactory.get(algorithm).compute(file.getInputStream(), status));
+            return checksums;
+        }
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(Paths.get(file.getAbsolute()), StandardOpenOption.READ);
+        }
+        catch(IOException | UnsupportedOperationException e) {
+            log.warn(String.format("Failure opening channel for %s. %s", file, e.getMessage()));
+            return this.compute(file.getInputStream(), status);
+        }
+        final long offset;
+        final long length;
+        try {
+            offset = Math.min(status.getOffset(), channel.size());
+            length = status.getLength() > 0 ? Math.min(status.getLength(), channel.size() - offset) : channel.size() - offset;
+        }
+        catch(IOException e) {
+            IOUtils.closeQuietly(channel);
+            throw new ChecksumException(e);
+        }
+        if(length <= window) {
+            IOUtils.closeQuietly(channel);
+            return this.compute(file.getInputStream(), status);
+        }
+        final ThreadPool pool = ThreadPoolFactory.get(String.format("%s-checksum", new AlphanumericRandomStringService().random()),
+                concurrency, ThreadPool.Priority.norm, new LinkedBlockingQueue<>(Integer.MAX_VALUE));
+        try {
+            final Map<HashAlgorithm, Digest> digests = this.digests(true);
+            // Digests of Dropbox content hash blocks in order
+            final List<Future<byte[]>> blocks = new ArrayList<>();
+            // Reused for every window
+            final ByteBuffer region = ByteBuffer.allocate((int) window);
+            for(long position = 0; position < length; position += window) {
+                status.validate();
+                region.clear();
+                region.limit((int) Math.min(window, length - position));
+                while(region.hasRemaining()) {
+                    if(channel.read(region, offset + position + region.position()) == -1) {
+                        throw new EOFException();
+                    }
+                }
+                region.flip();
+                final List<Future<?>> tasks = new ArrayList<>();
+                for(Digest digest : digests.values()) {
+                    final ByteBuffer input = region.duplicate();
+                    tasks.add(pool.execute(() -> {
+                        digest.update(input);
+                        return null;
+                    }));
+                }
+                if(algorithms.contains(HashAlgorithm.dropbox_content_hash)) {
+                    for(int block = 0; block < region.limit(); block += DropboxContentHasher.BLOCK_SIZE) {
+                        final ByteBuffer input = region.duplicate();
+                        input.position(block).limit(Math.min(block + DropboxContentHasher.BLOCK_SIZE, region.limit()));
+                        final Future<byte[]> future = pool.execute(() -> {
+                            final MessageDigest md = this.digest("SHA-256");
+                            md.update(input);
+                            return md.digest();
+                        });
+                        blocks.add(future);
+                        tasks.add(future);
+                    }
+                }
+                // Wait for window to be processed before reading next region into buffer
+                for(Future<?> task : tasks) {
+                    task.get();
+                }
+            }
+            final Map<HashAlgorithm, Checksum> checksums = this.checksums(digests);
+            if(algorithms.contains(HashAlgorithm.dropbox_content_hash)) {
+                final MessageDigest overall = this.digest("SHA-256");
+                for(Future<byte[]> block : blocks) {
+                    overall.update(block.get());
+                }
+                checksums.put(HashAlgorithm.dropbox_content_hash, new Checksum(HashAlgorithm.dropbox_content_hash,
+                        Hex.encodeHexString(overall.digest())));
+            }
+            return checksums;
+        }
+        catch(ClosedChannelException e) {
+            throw new ChecksumCanceledException(e);
+        }
+        catch(IOException e) {
+            throw new ChecksumException(e);
+        }
+        catch(InterruptedException e) {
+            throw new ConnectionCanceledException(e);
+        }
+        catch(ExecutionException e) {
+            Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
+            throw new ChecksumException(Throwables.getRootCause(e));
+        }
+        finally {
+            pool.shutdown(false);
+            IOUtils.closeQuietly(channel);
+        }
+    }
+
+    private InputStream normalize(final InputStream in, final TransferStatus status) throws BackgroundException {
+        final InputStream bounded = status.getLength() > 0 ?
+                new BoundedInputStream(in, status.getOffset() + status.getLength()) : in;
+        return status.getOffset() > 0 ? StreamCopier.skip(bounded, status.getOffset()) : bounded;
+    }
+
+    /**
+     * @param mapped Exclude Dropbox content hash calculated by block
+     */
+    private Map<HashAlgorithm, Digest> digests(final boolean mapped) throws ChecksumException {
+        final Map<HashAlgorithm, Digest> digests = new EnumMap<>(HashAlgorithm.class);
+        for(HashAlgorithm algorithm : algorithms) {
+            switch(algorithm) {
+                case md5:
+                    digests.put(algorithm, new MessageDigestWrapper(this.digest("MD5")));
+                    break;
+                case sha1:
+                    digests.put(algorithm, new MessageDigestWrapper(this.digest("SHA-1")));
+                    break;
+                case sha256:
+                    digests.put(algorithm, new MessageDigestWrapper(this.digest("SHA-256")));
+                    break;
+                case sha512:
+                    digests.put(algorithm, new MessageDigestWrapper(this.digest("SHA-512")));
+                    break;
+                case crc32:
+                    digests.put(algorithm, new CRC32Wrapper());
+                    break;
+                case dropbox_content_hash:
+                    if(!mapped) {
+                        digests.put(algorithm, new MessageDigestWrapper(new DropboxContentHasher(
+                                this.digest("SHA-256"), this.digest("SHA-256"), 0)));
+                    }
+                    break;
+                default:
+                    log.warn(String.format("Unsupported algorithm %s", algorithm));
+            }
+        }
+        return digests;
+    }
+
+    private Map<HashAlgorithm, Checksum> checksums(final Map<HashAlgorithm, Digest> digests) {
+        final Map<HashAlgorithm, Checksum> checksums = new EnumMap<>(HashAlgorithm.class);
+        for(HashAlgorithm algorithm : algorithms) {
+            checksums.put(algorithm, Checksum.NONE);
+        }
+        for(Map.Entry<HashAlgorithm, Digest> entry : digests.entrySet()) {
+            checksums.put(entry.getKey(), new Checksum(entry.getKey(), entry.getValue().hash()));
+        }
+        return checksums;
+    }
+
+    private MessageDigest digest(final String algorithm) throws ChecksumException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        }
+        catch(NoSuchAlgorithmException e) {
+            throw new ChecksumException(e);
+        }
+    }
+
+    private interface Digest {
+        void update(byte[] buffer, int length);
+
+        void update(ByteBuffer buffer);
+
+        /**
+         * @return Hex encoded checksum
+         */
+        String hash();
+    }
+
+    private static final class MessageDigestWrapper implements Digest {
+        private final MessageDigest md;
+
+        public MessageDigestWrapper(final MessageDigest md) {
+            this.md = md;
+        }
+
+        @Override
+        public void update(final byte[] buffer, final int length) {
+            md.update(buffer, 0, length);
+        }
+
+        @Override
+        public void update(final ByteBuffer buffer) {
+            md.update(buffer);
+        }
+
+        @Override
+        public String hash() {
+            return Hex.encodeHexString(md.digest());
+        }
+    }
+
+    private static final class CRC32Wrapper implements Digest {
+        private final CRC32 crc32 = new CRC32();
+
+        @Override
+        public void update(final byte[] buffer, final int length) {
+            crc32.update(buffer, 0, length);
+        }
+
+        @Override
+        public void update(final ByteBuffer buffer) {
+            crc32.update(buffer);
+        }
+
+        @Override
+        public String hash() {
+            return Long.toHexString(crc32.getValue());
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MultipleChecksumCompute{");
+        sb.append("algorithms=").append(algorithms);
+        sb.append(", concurrency=").append(concurrency);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -17,10 +17,15 @@ package ch.cyberduck.core.proxy;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.ConnectionTimeoutFactory;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Resolver;
+import ch.cyberduck.core.exception.ResolveCanceledException;
+import ch.cyberduck.core.exception.ResolveFailedException;
 import ch.cyberduck.core.socket.DefaultSocketConfigurator;
 import ch.cyberduck.core.socket.HttpProxySocketFactory;
 import ch.cyberduck.core.socket.SocketConfigurator;
+import ch.cyberduck.core.threading.CancelCallback;
 
 import org.apache.commons.net.DefaultSocketFactory;
 import org.apache.logging.log4j.LogManager;
@@ -32,9 +37,11 @@ import java.net.ConnectException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class ProxySocketFactory extends SocketFactory {
     private static final Logger log = LogManager.getLogger(ProxySocketFactory.class);
@@ -42,6 +49,7 @@ public class ProxySocketFactory extends SocketFactory {
     private final SocketConfigurator configurator;
     private final ProxyFinder proxyFinder;
     private final Host host;
+    private final Resolver resolver = new Resolver();
 
     private final List<Proxy.Type> types = new ArrayList<>(
             Arrays.asList(Proxy.Type.DIRECT, Proxy.Type.SOCKS, Proxy.Type.HTTP, Proxy.Type.HTTPS));
@@ -73,7 +81,14 @@ public class ProxySocketFactory extends SocketFactory {
      * direct connection socket factory.
      */
     protected SocketFactory factory() {
-        final Proxy proxy = proxyFinder.find(new ProxyHostUrlProvider().get(host));
+        return this.factory(this.proxy());
+    }
+
+    private Proxy proxy() {
+        return proxyFinder.find(new ProxyHostUrlProvider().get(host));
+    }
+
+    private SocketFactory factory(final Proxy proxy) {
         if(!types.contains(proxy.getType())) {
             log.warn(String.format("Use of %s proxy is disabled for socket factory %s", proxy.getType(), this));
             return new DefaultSocketFactory();
@@ -117,7 +132,11 @@ public class ProxySocketFactory extends SocketFactory {
     @Override
     public Socket createSocket(final String hostname, final int port) throws IOException {
         try {
-            final Socket socket = this.factory().createSocket(hostname, port);
+            final Proxy proxy = this.proxy();
+            if(Proxy.Type.DIRECT == proxy.getType()) {
+                return this.connect(this.factory(proxy), hostname, port, null, 0);
+            }
+            final Socket socket = this.factory(proxy).createSocket(hostname, port);
             configurator.configure(socket);
             return socket;
         }
@@ -130,7 +149,11 @@ public class ProxySocketFactory extends SocketFactory {
     public Socket createSocket(final String hostname, final int port,
                                final InetAddress localHost, final int localPort) throws IOException {
         try {
-            final Socket socket = this.factory().createSocket(hostname, port, localHost, localPort);
+            final Proxy proxy = this.proxy();
+            if(Proxy.Type.DIRECT == proxy.getType()) {
+                return this.connect(this.factory(proxy), hostname, port, localHost, localPort);
+            }
+            final Socket socket = this.factory(proxy).createSocket(hostname, port, localHost, localPort);
             configurator.configure(socket);
             return socket;
         }
@@ -139,6 +162,43 @@ public class ProxySocketFactory extends SocketFactory {
         }
     }
 
+    /**
+     * Resolve hostname using cached lookup and connect to addresses in order until connection succeeds
+     *
+     * @param localHost Local address to bind to or null
+     */
+    private Socket connect(final SocketFactory factory, final String hostname, final int port,
+                           final InetAddress localHost, final int localPort) throws IOException {
+        final InetAddress[] addresses;
+        try {
+            addresses = resolver.resolve(hostname, CancelCallback.noop);
+        }
+        catch(ResolveFailedException | ResolveCanceledException e) {
+            final UnknownHostException failure = new UnknownHostException(hostname);
+            failure.initCause(e);
+            throw failure;
+        }
+        final int timeout = (int) TimeUnit.SECONDS.toMillis(ConnectionTimeoutFactory.get(host).getTimeout());
+        IOException failure = new UnknownHostException(hostname);
+        for(InetAddress address : addresses) {
+            final Socket socket = factory.createSocket();
+            try {
+                configurator.configure(socket);
+                if(null != localHost) {
+                    socket.bind(new InetSocketAddress(localHost, localPort));
+                }
+                socket.connect(new InetSocketAddress(address, port), timeout);
+                return socket;
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure connecting to %s for %s. %s", address, hostname, e.getMessage()));
+                socket.close();
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
     @Override
     public Socket createSocket(final InetAddress inetAddress, final int port) throws IOException {
         try {
@@ -24,6 +24,7 @@ import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Protocol;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.exception.BackgroundException;
 
 import org.apache.commons.lang3.StringUtils;
@@ -46,7 +47,7 @@ public abstract class ListFilteringFeature {
     protected Path search(final Path file, final ListProgressListener listener) throws BackgroundException {
         final AttributedList<Path> list = session._getFeature(ListService.class).list(file.getParent(), listener);
         // Try to match path only as the version might have changed in the meantime
-        final Path found = list.find(new ListFilteringPredicate(session.getCaseSensitivity(), file));
+        final Path found = new ListFilteringPredicate(session.getCaseSensitivity(), file).find(list);
         if(null == found) {
             if(log.isWarnEnabled()) {
                 log.warn(String.format("File %s not found in directory listing", file));
@@ -89,5 +90,23 @@ public abstract class ListFilteringFeature {
             }
             return false;
         }
+
+        /**
+         * @param list Directory listing
+         * @return First match in list. Uses the path index of the list for case-sensitive lookups.
+         */
+        public Path find(final AttributedList<Path> list) {
+            if(sensitivity == Protocol.Case.sensitive) {
+                // All matches share type and path
+                final Path candidate = list.find(new SimplePathPredicate(file));
+                if(null == candidate) {
+                    return null;
+                }
+                if(this.test(candidate)) {
+                    return candidate;
+                }
+            }
+            return list.find(this);
+        }
     }
 }
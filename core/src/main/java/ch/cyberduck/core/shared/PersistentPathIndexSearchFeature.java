@@ -0,0 +1,48 @@
+package ch.cyberduck.core.shared;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PersistentPathIndex;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Search;
+
+/**
+ * Search directory listings saved in index without connecting to the server
+ */
+public class PersistentPathIndexSearchFeature implements Search {
+
+    private final PersistentPathIndex index;
+
+    public PersistentPathIndexSearchFeature(final PersistentPathIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public AttributedList<Path> search(final Path workdir, final Filter<Path> filter, final ListProgressListener listener) throws BackgroundException {
+        final AttributedList<Path> list = index.search(workdir, filter);
+        listener.chunk(workdir, list);
+        return list;
+    }
+
+    @Override
+    public boolean isRecursive() {
+        return true;
+    }
+}
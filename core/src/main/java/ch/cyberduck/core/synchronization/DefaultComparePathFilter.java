@@ -30,6 +30,7 @@ import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.transfer.TransferItem;
@@ -49,10 +50,20 @@ public class DefaultComparePathFilter implements ComparePathFilter {
 
     private final ComparisonService comparison;
 
+    /**
+     * Checksums previously computed for local files or null
+     */
+    private final LocalChecksumIndex index;
+
     public DefaultComparePathFilter(final Session<?> session) {
+        this(session, new HostPreferences(session.getHost()).getBoolean("queue.sync.checksum.index.enable") ? LocalChecksumIndex.get() : null);
+    }
+
+    public DefaultComparePathFilter(final Session<?> session, final LocalChecksumIndex index) {
         this.finder = session.getFeature(Find.class, new DefaultFindFeature(session));
         this.attribute = session.getFeature(AttributesFinder.class, new DefaultAttributesFinderFeature(session));
         this.comparison = session.getFeature(ComparisonService.class);
+        this.index = index;
     }
 
     @Override
@@ -123,6 +134,9 @@ public class DefaultComparePathFilter implements ComparePathFilter {
     }
 
     protected Checksum checksum(final HashAlgorithm algorithm, final Local local) throws BackgroundException {
+        if(index != null) {
+            return index.checksum(local, algorithm);
+        }
         return ChecksumComputeFactory.get(algorithm).compute(local.getInputStream(), new TransferStatus());
     }
 }
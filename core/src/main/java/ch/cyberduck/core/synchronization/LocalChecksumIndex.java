@@ -0,0 +1,313 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Persistent index of checksums computed for local files. Entries are keyed by hash algorithm and absolute path and
+ * only returned as long as size, modification date and file key of the file are unchanged. Records are appended to
+ * the index file with the last record for a file taking precedence when read back. The number of records is limited
+ * with the least recently used records removed first. Records of files no longer found are removed when the index
+ * file is compacted.
+ */
+public class LocalChecksumIndex {
+    private static final Logger log = LogManager.getLogger(LocalChecksumIndex.class);
+
+    private static final class Holder {
+        private static final LocalChecksumIndex instance = new LocalChecksumIndex(
+                LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Checksums.index"));
+    }
+
+    /**
+     * @return Index saved in application support directory
+     */
+    public static LocalChecksumIndex get() {
+        return Holder.instance;
+    }
+
+    private final Local file;
+    /**
+     * Maximum number of records
+     */
+    private final int size;
+
+    /**
+     * Records by hash algorithm and absolute path of local file in access order. Loaded on first use.
+     */
+    private Map<String, Record> records;
+    /**
+     * Number of records in index file
+     */
+    private int written;
+
+    private DataOutputStream out;
+
+    public LocalChecksumIndex(final Local file) {
+        this(file, PreferencesFactory.get().getInteger("queue.sync.checksum.index.size"));
+    }
+
+    /**
+     * @param size Maximum number of records
+     */
+    public LocalChecksumIndex(final Local file, final int size) {
+        this.file = file;
+        this.size = size;
+    }
+
+    /**
+     * Lookup checksum in index or compute checksum and save to index
+     *
+     * @param local     Local file
+     * @param algorithm Hash algorithm
+     * @return Checksum of file contents
+     */
+    public Checksum checksum(final Local local, final HashAlgorithm algorithm) throws BackgroundException {
+        final Record current;
+        try {
+            // Read attributes before computing checksum to not save checksum for file modified in the meantime
+            current = this.stat(local, algorithm);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading attributes of %s. %s", local, e.getMessage()));
+            return this.compute(local, algorithm);
+        }
+        final Record record = this.find(local, algorithm);
+        if(current.equals(record)) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Return checksum %s from index for %s", record.hash, local));
+            }
+            return new Checksum(algorithm, record.hash);
+        }
+        final Checksum checksum = this.compute(local, algorithm);
+        if(Checksum.NONE != checksum) {
+            this.save(local, new Record(current.size, current.modified, current.key, algorithm, checksum.hash));
+        }
+        return checksum;
+    }
+
+    protected Checksum compute(final Local local, final HashAlgorithm algorithm) throws BackgroundException {
+        return ChecksumComputeFactory.get(algorithm).compute(local.getInputStream(), new TransferStatus());
+    }
+
+    private Record stat(final Local local, final HashAlgorithm algorithm) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(Paths.get(local.getAbsolute()), BasicFileAttributes.class);
+        return new Record(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                null == attributes.fileKey() ? StringUtils.EMPTY : attributes.fileKey().toString(), algorithm, null);
+    }
+
+    private synchronized Record find(final Local local, final HashAlgorithm algorithm) {
+        return this.load().get(this.key(local.getAbsolute(), algorithm));
+    }
+
+    private synchronized void save(final Local local, final Record record) {
+        this.load().put(this.key(local.getAbsolute(), record.algorithm), record);
+        if(written >= size * 2) {
+            // Drop records replaced or evicted from index file
+            this.close();
+            this.compact();
+            return;
+        }
+        try {
+            if(null == out) {
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.getAbsolute(), true)));
+            }
+            this.write(out, local.getAbsolute(), record);
+            out.flush();
+            written++;
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing to %s. %s", file, e.getMessage()));
+        }
+    }
+
+    private Map<String, Record> load() {
+        if(null == records) {
+            records = new LinkedHashMap<String, Record>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Record> eldest) {
+                    return this.size() > LocalChecksumIndex.this.size;
+                }
+            };
+            int count = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.getAbsolute())))) {
+                while(true) {
+                    final String path = in.readUTF();
+                    final Record record = new Record(in.readLong(), in.readLong(), in.readUTF(),
+                            HashAlgorithm.valueOf(in.readUTF()), in.readUTF());
+                    records.put(this.key(path, record.algorithm), record);
+                    count++;
+                }
+            }
+            catch(FileNotFoundException e) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("No index found in %s", file));
+                }
+            }
+            catch(EOFException e) {
+                // End of file or truncated last record
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Read %d records from %s", count, file));
+                }
+            }
+            catch(IOException | IllegalArgumentException e) {
+                log.warn(String.format("Failure reading index %s. %s", file, e.getMessage()));
+            }
+            written = count;
+            if(count > records.size() * 2) {
+                this.compact();
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Rewrite index file with latest record for each path only and remove records for files no longer found
+     */
+    private void compact() {
+        final File temporary = new File(String.format("%s.tmp", file.getAbsolute()));
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+                for(Iterator<Map.Entry<String, Record>> iter = records.entrySet().iterator(); iter.hasNext(); ) {
+                    final Map.Entry<String, Record> entry = iter.next();
+                    final String path = StringUtils.substringAfter(entry.getKey(), ":");
+                    if(!new File(path).exists()) {
+                        iter.remove();
+                        continue;
+                    }
+                    this.write(out, path, entry.getValue());
+                }
+            }
+            Files.move(temporary.toPath(), Paths.get(file.getAbsolute()), StandardCopyOption.REPLACE_EXISTING);
+            written = records.size();
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Compacted index %s to %d records", file, records.size()));
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure compacting index %s. %s", file, e.getMessage()));
+        }
+    }
+
+    private String key(final String path, final HashAlgorithm algorithm) {
+        return String.format("%s:%s", algorithm.name(), path);
+    }
+
+    private void write(final DataOutputStream out, final String path, final Record record) throws IOException {
+        out.writeUTF(path);
+        out.writeLong(record.size);
+        out.writeLong(record.modified);
+        out.writeUTF(record.key);
+        out.writeUTF(record.algorithm.name());
+        out.writeUTF(record.hash);
+    }
+
+    /**
+     * Close index file
+     */
+    public synchronized void close() {
+        if(null != out) {
+            try {
+                out.close();
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure closing %s. %s", file, e.getMessage()));
+            }
+            finally {
+                out = null;
+            }
+        }
+    }
+
+    private static final class Record {
+        private final long size;
+        private final long modified;
+        /**
+         * File key identifying file on disk such as device and inode
+         */
+        private final String key;
+        private final HashAlgorithm algorithm;
+        private final String hash;
+
+        public Record(final long size, final long modified, final String key, final HashAlgorithm algorithm, final String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.key = key;
+            this.algorithm = algorithm;
+            this.hash = hash;
+        }
+
+        /**
+         * Compare file attributes and algorithm only
+         */
+        @Override
+        public boolean equals(final Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Record record = (Record) o;
+            return size == record.size && modified == record.modified
+                    && Objects.equals(key, record.key) && algorithm == record.algorithm;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, modified, key, algorithm);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LocalChecksumIndex{");
+        sb.append("file=").append(file);
+        sb.append('}');
+        return sb.toString();
+    }
+}
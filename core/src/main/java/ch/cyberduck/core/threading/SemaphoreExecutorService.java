@@ -0,0 +1,170 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a new thread for every task with the number of tasks running concurrently limited by a fair semaphore
+ * instead of a fixed number of threads. Tasks waiting for a permit park their thread. Intended for use with
+ * threads cheap to create and block.
+ */
+public class SemaphoreExecutorService extends AbstractExecutorService {
+    private static final Logger log = LogManager.getLogger(SemaphoreExecutorService.class);
+
+    private final ThreadFactory factory;
+    private final Semaphore permits;
+
+    /**
+     * Threads started and not yet finished
+     */
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    /**
+     * Tasks by thread waiting for a permit and not yet started
+     */
+    private final Map<Thread, Runnable> waiting = new ConcurrentHashMap<>();
+    private final Object termination = new Object();
+
+    private volatile boolean shutdown;
+
+    /**
+     * @param factory Thread factory
+     * @param size    Maximum number of tasks running concurrently
+     */
+    public SemaphoreExecutorService(final ThreadFactory factory, final int size) {
+        this.factory = factory;
+        this.permits = new Semaphore(size, true);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if(shutdown) {
+            throw new RejectedExecutionException(String.format("Rejected execution of %s", command));
+        }
+        final Thread thread = factory.newThread(() -> {
+            try {
+                permits.acquire();
+                try {
+                    if(null == waiting.remove(Thread.currentThread())) {
+                        // Drained from queue with shutdown
+                        return;
+                    }
+                    command.run();
+                }
+                finally {
+                    permits.release();
+                }
+            }
+            catch(InterruptedException e) {
+                log.warn(String.format("Interrupted waiting to run %s", command));
+                if(null != waiting.remove(Thread.currentThread())) {
+                    this.cancel(command);
+                }
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                threads.remove(Thread.currentThread());
+                synchronized(termination) {
+                    termination.notifyAll();
+                }
+            }
+        });
+        threads.add(thread);
+        waiting.put(thread, command);
+        thread.start();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * Cancel tasks waiting for a permit and interrupt all running tasks
+     *
+     * @return Tasks never started
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        final List<Runnable> drained = new ArrayList<>();
+        for(Map.Entry<Thread, Runnable> entry : waiting.entrySet()) {
+            if(waiting.remove(entry.getKey(), entry.getValue())) {
+                this.cancel(entry.getValue());
+                drained.add(entry.getValue());
+            }
+        }
+        for(Thread thread : threads) {
+            thread.interrupt();
+        }
+        return drained;
+    }
+
+    private void cancel(final Runnable command) {
+        if(command instanceof Future) {
+            ((Future<?>) command).cancel(false);
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && threads.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized(termination) {
+            while(!this.isTerminated()) {
+                final long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(termination, remaining);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SemaphoreExecutorService{");
+        sb.append("threads=").append(threads.size());
+        sb.append(", waiting=").append(waiting.size());
+        sb.append(", permits=").append(permits.availablePermits());
+        sb.append(", shutdown=").append(shutdown);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every task in its own virtual thread with the number of concurrent tasks limited by the pool size. Falls back
+ * to a pool of platform threads when virtual threads are not supported by the runtime. Select with
+ * <code>factory.threadpool.class</code>.
+ */
+public class VirtualThreadPool extends ExecutorServiceThreadPool {
+    private static final Logger log = LogManager.getLogger(VirtualThreadPool.class);
+
+    public VirtualThreadPool() {
+        this(PreferencesFactory.get().getInteger("threading.pool.size.max"));
+    }
+
+    /**
+     * @param size Maximum number of tasks running concurrently
+     */
+    public VirtualThreadPool(final int size) {
+        this(DEFAULT_THREAD_NAME_PREFIX, size, Priority.norm, new LinkedBlockingQueue<>(size), new LoggingUncaughtExceptionHandler());
+    }
+
+    /**
+     * @param prefix   Thread name prefix
+     * @param size     Maximum number of tasks running concurrently
+     * @param priority Thread priority. Only applies to platform threads
+     * @param queue    Queue with pending tasks. Only applies to platform threads
+     * @param handler  Uncaught thread exception handler
+     */
+    public VirtualThreadPool(final String prefix, final int size, final Priority priority, final BlockingQueue<Runnable> queue,
+                             final Thread.UncaughtExceptionHandler handler) {
+        super(createExecutor(prefix, size, priority, queue, handler));
+    }
+
+    private static AbstractExecutorService createExecutor(final String prefix, final int size, final Priority priority,
+                                                          final BlockingQueue<Runnable> queue,
+                                                          final Thread.UncaughtExceptionHandler handler) {
+        try {
+            // Thread.ofVirtual().name(prefix, 1).uncaughtExceptionHandler(handler).factory() available with Java 21
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object virtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            virtual = builder.getMethod("name", String.class, long.class).invoke(virtual, String.format("%s-", prefix), 1L);
+            virtual = builder.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class).invoke(virtual, handler);
+            return new SemaphoreExecutorService((ThreadFactory) builder.getMethod("factory").invoke(virtual), size);
+        }
+        catch(ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            log.warn(String.format("Virtual threads not supported. Use platform threads for pool %s", prefix));
+            return DefaultThreadPool.createExecutor(prefix, size, priority, queue, new DefaultThreadPool.CustomCallerPolicy(), handler);
+        }
+    }
+}
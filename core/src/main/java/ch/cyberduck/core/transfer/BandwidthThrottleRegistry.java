@@ -0,0 +1,78 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bandwidth throttles shared by all transfers and by transfers to the same server. Transfer throttles delegate to the
+ * throttle for the server which delegates to the throttle for all transfers.
+ */
+public final class BandwidthThrottleRegistry {
+
+    private static final BandwidthThrottleRegistry instance = new BandwidthThrottleRegistry();
+
+    public static BandwidthThrottleRegistry get() {
+        return instance;
+    }
+
+    /**
+     * Limit for all transfers
+     */
+    private final BandwidthThrottle global
+            = new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.bandwidth.bytes"));
+
+    /**
+     * Limit by hostname of server
+     */
+    private final Map<String, BandwidthThrottle> hosts = new ConcurrentHashMap<>();
+
+    private BandwidthThrottleRegistry() {
+        //
+    }
+
+    /**
+     * @return Throttle shared by all transfers
+     */
+    public BandwidthThrottle getGlobal() {
+        return global;
+    }
+
+    /**
+     * @param host Server
+     * @return Throttle shared by all transfers to server
+     */
+    public BandwidthThrottle get(final Host host) {
+        return hosts.computeIfAbsent(StringUtils.defaultString(host.getHostname()), hostname ->
+                new BandwidthThrottle(new HostPreferences(host).getFloat("queue.bandwidth.host.bytes"), global));
+    }
+
+    /**
+     * @return Throttles by hostname of server
+     */
+    public Map<String, BandwidthThrottle> getHosts() {
+        return Collections.unmodifiableMap(hosts);
+    }
+}
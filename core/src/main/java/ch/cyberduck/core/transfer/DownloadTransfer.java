@@ -44,6 +44,7 @@ import ch.cyberduck.core.transfer.download.OverwriteFilter;
 import ch.cyberduck.core.transfer.download.RenameExistingFilter;
 import ch.cyberduck.core.transfer.download.RenameFilter;
 import ch.cyberduck.core.transfer.download.ResumeFilter;
+import ch.cyberduck.core.transfer.download.SegmentThroughputRegistry;
 import ch.cyberduck.core.transfer.download.SkipFilter;
 import ch.cyberduck.core.transfer.download.TrashFilter;
 import ch.cyberduck.core.transfer.normalizer.DownloadRootPathsNormalizer;
@@ -91,7 +92,8 @@ public class DownloadTransfer extends Transfer {
     }
 
     public DownloadTransfer(final Host host, final List<TransferItem> roots, final Filter<Path> f, final Comparator<Path> comparator) {
-        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
+        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes"),
+                BandwidthThrottleRegistry.get().get(host)));
         this.filter = f;
         this.comparator = comparator;
         this.symlinkResolver = new DownloadSymlinkResolver(roots);
@@ -327,8 +329,13 @@ public class DownloadTransfer extends Transfer {
             }
             // Transfer
             final Download download = source.getFeature(Download.class);
+            final long start = System.currentTimeMillis();
             download.download(file, local, bandwidth, this.options.icon && segment.getLength() > PreferencesFactory.get().getLong("queue.download.icon.threshold") && !overall.isSegmented() ?
                     new IconUpdateStreamListener(streamListener, segment, local) : streamListener, segment, connectionCallback);
+            if(segment.isSegment()) {
+                // Record throughput to determine segment size for subsequent downloads
+                SegmentThroughputRegistry.get().add(source.getHost(), segment.getLength(), System.currentTimeMillis() - start);
+            }
         }
     }
 
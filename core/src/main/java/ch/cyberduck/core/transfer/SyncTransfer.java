@@ -87,7 +87,8 @@ public class SyncTransfer extends Transfer {
 
     public SyncTransfer(final Host host, final TransferItem item, final TransferAction action) {
         super(host, Collections.singletonList(item),
-            new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
+            new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes"),
+                BandwidthThrottleRegistry.get().get(host)));
         this.upload = new UploadTransfer(host, roots).withCache(cache);
         this.download = new DownloadTransfer(host, roots).withCache(cache);
         this.item = item;
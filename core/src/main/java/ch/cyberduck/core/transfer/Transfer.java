@@ -317,10 +317,15 @@ public abstract class Transfer implements Serializable {
                 switch(this.getType()) {
                     case download:
                         final Local directory = item.local.getParent();
-                        locks.put(directory, directory.lock(true));
+                        // Already locked when called for multiple batches of files
+                        if(!locks.containsKey(directory)) {
+                            locks.put(directory, directory.lock(true));
+                        }
                         break;
                     case upload:
-                        locks.put(item.local, item.local.lock(true));
+                        if(!locks.containsKey(item.local)) {
+                            locks.put(item.local, item.local.lock(true));
+                        }
                         break;
                 }
             }
@@ -391,6 +396,11 @@ public abstract class Transfer implements Serializable {
     public void stop() {
         state = State.stopped;
         timestamp = new Date();
+        if(log.isInfoEnabled()) {
+            for(BandwidthThrottle throttle = bandwidth; throttle != null; throttle = throttle.getParent()) {
+                log.info(String.format("Bandwidth usage %s for %s", throttle, this));
+            }
+        }
     }
 
     /**
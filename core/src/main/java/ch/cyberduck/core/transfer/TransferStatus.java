@@ -83,6 +83,11 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
      */
     private boolean segment = false;
 
+    /**
+     * Segment is written at its offset to the preallocated target file shared with other segments
+     */
+    private boolean preallocated = false;
+
     /**
      * Not accepted
      */
@@ -207,6 +212,7 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
         this.exists = copy.exists;
         this.append = copy.append;
         this.segment = copy.segment;
+        this.preallocated = copy.preallocated;
         this.segments = copy.segments;
         this.rejected = copy.rejected;
         this.hidden = copy.hidden;
@@ -383,6 +389,19 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
         return this;
     }
 
+    public boolean isPreallocated() {
+        return preallocated;
+    }
+
+    public void setPreallocated(final boolean preallocated) {
+        this.preallocated = preallocated;
+    }
+
+    public TransferStatus preallocated(final boolean preallocated) {
+        this.preallocated = preallocated;
+        return this;
+    }
+
     public void setRejected(boolean rejected) {
         this.rejected = rejected;
     }
@@ -690,6 +709,7 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
         sb.append(", exists=").append(exists);
         sb.append(", append=").append(append);
         sb.append(", segment=").append(segment);
+        sb.append(", preallocated=").append(preallocated);
         sb.append(", offset=").append(offset);
         sb.append(", length=").append(length);
         sb.append(", checksum=").append(checksum);
@@ -17,6 +17,7 @@ package ch.cyberduck.core.transfer.download;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.DescriptiveUrl;
 import ch.cyberduck.core.DescriptiveUrlBag;
 import ch.cyberduck.core.HostUrlProvider;
@@ -42,8 +43,10 @@ import ch.cyberduck.core.io.ChecksumCompute;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.local.ApplicationLauncher;
 import ch.cyberduck.core.local.ApplicationLauncherFactory;
+import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.local.IconService;
 import ch.cyberduck.core.local.IconServiceFactory;
+import ch.cyberduck.core.local.LocalTouchFactory;
 import ch.cyberduck.core.local.QuarantineService;
 import ch.cyberduck.core.local.QuarantineServiceFactory;
 import ch.cyberduck.core.preferences.HostPreferences;
@@ -59,6 +62,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
@@ -206,13 +210,18 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                         log.warn(String.format("Failure to determine disk space for %s", file.getParent()));
                     }
                     long threshold = preferences.getLong("queue.download.segments.threshold");
-                    if(status.getLength() * 2 > space) {
+                    if(status.getLength() * (options.preallocate ? 1 : 2) > space) {
                         log.warn(String.format("Insufficient free disk space %d for segmented download of %s", space, file));
                     }
                     else if(status.getLength() > threshold) {
                         // if file is smaller than threshold do not attempt to segment
-                        final long segmentSize = findSegmentSize(status.getLength(),
-                                new AutoTransferConnectionLimiter().getLimit(session.getHost()), threshold,
+                        final int connections = new AutoTransferConnectionLimiter().getLimit(session.getHost());
+                        final double throughput = SegmentThroughputRegistry.get().getThroughput(session.getHost());
+                        final long segmentSize = throughput > 0 ? findSegmentSize(status.getLength(), connections, throughput,
+                                preferences.getLong("queue.download.segments.duration"), threshold,
+                                preferences.getLong("queue.download.segments.size"),
+                                preferences.getLong("queue.download.segments.count")) : findSegmentSize(status.getLength(),
+                                connections, threshold,
                                 preferences.getLong("queue.download.segments.size"),
                                 preferences.getLong("queue.download.segments.count"));
 
@@ -221,14 +230,16 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                         long remaining = status.getLength(), offset = 0;
                         // Sorted list
                         final List<TransferStatus> segments = new ArrayList<>();
-                        final Local segmentsFolder = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
+                        final Local segmentsFolder = this.getSegmentsFolder(local);
                         for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
-                            final Local segmentFile = LocalFactory.get(
+                            // Segments written in place to download target
+                            final Local segmentFile = options.preallocate ? local : LocalFactory.get(
                                     segmentsFolder, String.format("%d.cyberducksegment", segmentNumber));
                             // Last part can be less than 5 MB. Adjust part size.
                             long length = Math.min(segmentSize, remaining);
                             final TransferStatus segmentStatus = new TransferStatus()
                                     .segment(true) // Skip completion filter for single segment
+                                    .preallocated(options.preallocate)
                                     .append(true) // Read with offset
                                     .withOffset(offset)
                                     .withLength(length)
@@ -254,7 +265,58 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
     @Override
     public void apply(final Path file, final Local local, final TransferStatus status,
                       final ProgressListener listener) throws BackgroundException {
-        //
+        if(status.isSegmented()) {
+            final List<TransferStatus> segments = status.getSegments();
+            if(segments.stream().anyMatch(TransferStatus::isPreallocated)) {
+                // Download target may have been renamed after segments were determined
+                for(TransferStatus segment : segments) {
+                    segment.withRename(local);
+                }
+                final long length = segments.stream().mapToLong(TransferStatus::getLength).sum();
+                final Local folder = this.getSegmentsFolder(local);
+                if(!folder.exists() || !local.exists() || local.attributes().getSize() != length) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Preallocate %d bytes for file %s", length, local));
+                    }
+                    if(folder.exists()) {
+                        // Discard state for previous download with different length
+                        for(Local f : folder.list()) {
+                            f.delete();
+                        }
+                    }
+                    else {
+                        new DefaultLocalDirectoryFeature().mkdir(folder);
+                    }
+                    if(local.exists()) {
+                        local.delete();
+                    }
+                    // Sparse file with single byte written at end
+                    try (OutputStream out = local.getOutputStream(length - 1)) {
+                        out.write(0);
+                    }
+                    catch(IOException e) {
+                        throw new DefaultIOExceptionMappingService().map(e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param local Download target
+     * @return Folder for segment files or markers of completed segments written in place
+     */
+    protected Local getSegmentsFolder(final Local local) {
+        return LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
+    }
+
+    /**
+     * @param local   Download target
+     * @param segment Segment written in place
+     * @return Marker file for completed segment
+     */
+    protected Local getSegmentMarker(final Local local, final TransferStatus segment) {
+        return LocalFactory.get(this.getSegmentsFolder(local), String.format("%d-%d.cyberducksegment", segment.getOffset(), segment.getLength()));
     }
 
     /**
@@ -267,13 +329,29 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
             log.debug(String.format("Complete %s with status %s", file.getAbsolute(), status));
         }
         if(status.isSegment()) {
+            if(status.isPreallocated()) {
+                // Save state to resume download
+                LocalTouchFactory.get().touch(this.getSegmentMarker(local, status));
+            }
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Skip completion for single segment %s", status));
             }
             return;
         }
         if(status.isComplete()) {
-            if(status.isSegmented()) {
+            if(status.isSegmented() && status.getSegments().stream().anyMatch(TransferStatus::isPreallocated)) {
+                final Local folder = this.getSegmentsFolder(local);
+                if(folder.exists()) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Remove segment folder %s", folder));
+                    }
+                    for(Local f : folder.list()) {
+                        f.delete();
+                    }
+                    folder.delete();
+                }
+            }
+            else if(status.isSegmented()) {
                 // Obtain ordered list of segments to reassemble
                 final List<TransferStatus> segments = status.getSegments();
                 if(log.isInfoEnabled()) {
@@ -402,6 +480,29 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
         }
     }
 
+    /**
+     * Segment size to transfer each segment in given duration with throughput observed previously
+     *
+     * @param length             File size
+     * @param connections        Number of concurrent connections
+     * @param throughput         Bytes per second per connection
+     * @param duration           Target time in seconds to transfer a segment
+     * @param segmentThreshold   Minimum segment size
+     * @param segmentSizeMaximum Maximum segment size
+     * @param segmentCountLimit  Maximum number of segments
+     * @return Segment size
+     */
+    static long findSegmentSize(final long length, final int connections, final double throughput, final long duration,
+                                final long segmentThreshold, final long segmentSizeMaximum, final long segmentCountLimit) {
+        long segmentSize = (long) (throughput * duration);
+        // Split into at least one segment per connection
+        segmentSize = Math.min(segmentSize, length / Math.max(1, connections));
+        segmentSize = Math.max(segmentSize, segmentThreshold);
+        segmentSize = Math.min(segmentSize, segmentSizeMaximum);
+        // Increase segment size to not exceed maximum number of segments
+        return Math.max(segmentSize, (length + segmentCountLimit - 1) / segmentCountLimit);
+    }
+
     static long findSegmentSize(final long length, final int initialSplit, final long segmentThreshold, final long segmentSizeMaximum, final long segmentCountLimit) {
         // Make segments
         long parts, segmentSize, nextParts = initialSplit;
@@ -28,6 +28,10 @@ public final class DownloadFilterOptions {
      * Split download into segments
      */
     public boolean segments;
+    /**
+     * Write segments in place to preallocated file instead of concatenating segment files when complete
+     */
+    public boolean preallocate;
     public boolean permissions;
     public boolean timestamp;
     public boolean wherefrom;
@@ -42,6 +46,7 @@ public final class DownloadFilterOptions {
     public DownloadFilterOptions(final Host bookmark) {
         final PreferencesReader preferences = new HostPreferences(bookmark);
         segments = preferences.getBoolean("queue.download.segments");
+        preallocate = preferences.getBoolean("queue.download.segments.preallocate");
         permissions = preferences.getBoolean("queue.download.permissions.change");
         timestamp = preferences.getBoolean("queue.download.timestamp.change");
         wherefrom = preferences.getBoolean("queue.download.wherefrom");
@@ -55,6 +60,7 @@ public final class DownloadFilterOptions {
     public String toString() {
         final StringBuilder sb = new StringBuilder("DownloadFilterOptions{");
         sb.append("segments=").append(segments);
+        sb.append(", preallocate=").append(preallocate);
         sb.append(", permissions=").append(permissions);
         sb.append(", timestamp=").append(timestamp);
         sb.append(", wherefrom=").append(wherefrom);
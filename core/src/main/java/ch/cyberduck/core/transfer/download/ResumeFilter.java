@@ -56,7 +56,8 @@ public class ResumeFilter extends AbstractDownloadFilter {
     @Override
     public boolean accept(final Path file, final Local local, final TransferStatus parent) throws BackgroundException {
         if(local.isFile()) {
-            if(local.exists()) {
+            // Incomplete if segments are found
+            if(local.exists() && !this.getSegmentsFolder(local).exists()) {
                 // Read remote attributes
                 final PathAttributes attributes = attribute.find(file);
                 if(local.attributes().getSize() == attributes.getSize()) {
@@ -89,7 +90,22 @@ public class ResumeFilter extends AbstractDownloadFilter {
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         final TransferStatus status = super.prepare(file, local, parent, progress);
         if(status.isSegmented()) {
+            final long length = status.getSegments().stream().mapToLong(TransferStatus::getLength).sum();
             for(TransferStatus segmentStatus : status.getSegments()) {
+                if(segmentStatus.isPreallocated()) {
+                    // Segment written in place to file with expected length
+                    if(local.exists() && local.attributes().getSize() == length) {
+                        if(this.getSegmentMarker(local, segmentStatus).exists()) {
+                            if(log.isInfoEnabled()) {
+                                log.info(String.format("Skip completed part %s", segmentStatus));
+                            }
+                            segmentStatus.setComplete();
+                            status.setLength(status.getLength() - segmentStatus.getLength());
+                            status.setOffset(status.getOffset() + segmentStatus.getLength());
+                        }
+                    }
+                    continue;
+                }
                 final Local segmentFile = segmentStatus.getRename().local;
                 if(segmentFile.exists()) {
                     if(log.isInfoEnabled()) {
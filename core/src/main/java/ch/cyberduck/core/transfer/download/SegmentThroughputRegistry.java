@@ -0,0 +1,77 @@
+package ch.cyberduck.core.transfer.download;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Throughput per connection observed for segments downloaded from server
+ */
+public final class SegmentThroughputRegistry {
+    private static final Logger log = LogManager.getLogger(SegmentThroughputRegistry.class);
+
+    private static final SegmentThroughputRegistry instance = new SegmentThroughputRegistry();
+
+    public static SegmentThroughputRegistry get() {
+        return instance;
+    }
+
+    /**
+     * Weight of latest sample in moving average
+     */
+    private static final double ALPHA = 0.3d;
+
+    /**
+     * Average throughput in bytes per second by hostname of server
+     */
+    private final Map<String, Double> hosts = new ConcurrentHashMap<>();
+
+    private SegmentThroughputRegistry() {
+        //
+    }
+
+    /**
+     * @param host   Server
+     * @param bytes  Length of segment transferred
+     * @param millis Time to transfer segment
+     */
+    public void add(final Host host, final long bytes, final long millis) {
+        if(bytes <= 0 || millis <= 0) {
+            return;
+        }
+        final double sample = bytes * 1000d / millis;
+        final double average = hosts.merge(StringUtils.defaultString(host.getHostname()), sample,
+                (previous, latest) -> ALPHA * latest + (1 - ALPHA) * previous);
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Average throughput %.0f bytes/s per connection for %s", average, host));
+        }
+    }
+
+    /**
+     * @param host Server
+     * @return Average throughput in bytes per second per connection or -1 if unknown
+     */
+    public double getThroughput(final Host host) {
+        return hosts.getOrDefault(StringUtils.defaultString(host.getHostname()), -1d);
+    }
+}
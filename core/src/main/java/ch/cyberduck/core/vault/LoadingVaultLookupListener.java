@@ -48,6 +48,7 @@ public class LoadingVaultLookupListener implements VaultLookupListener {
             }
             try {
                 registry.add(vault.load(session, prompt));
+                session.invalidate();
             }
             catch(BackgroundException e) {
                 log.warn(String.format("Failure %s loading vault %s", e, vault));
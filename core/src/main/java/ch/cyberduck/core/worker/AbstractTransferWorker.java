@@ -24,6 +24,7 @@ import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.TransferCanceledException;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.NotificationService;
+import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.TransferBackgroundActionState;
 import ch.cyberduck.core.transfer.SynchronizingTransferErrorCallback;
@@ -44,10 +45,20 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private static final Logger log = LogManager.getLogger(AbstractTransferWorker.class);
@@ -70,12 +81,20 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
      * Transfer status determined by filters
      */
     private final Map<TransferItem, TransferStatus> table;
+    /**
+     * Transfer status including completed items moved out of table or null to keep completed items in table
+     */
+    private final SwapFileTransferStatusMap swap;
     /**
      * Workload
      */
     private final Cache<TransferItem> cache;
     private final ProgressListener progress;
     private final StreamListener stream;
+    /**
+     * Items prepared or completed in pool to be picked up when pipelining prepare and transfer
+     */
+    private final BlockingQueue<PipelineEvent> events = new LinkedBlockingQueue<>();
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
                                   final TransferPrompt prompt, final TransferSpeedometer meter,
@@ -84,7 +103,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                   final StreamListener stream,
                                   final ConnectionCallback connect,
                                   final NotificationService notification) {
-        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, new TransferItemCache(Integer.MAX_VALUE));
+        this(transfer, options, prompt, meter, error, progress, stream, connect, notification,
+                PreferencesFactory.get().getBoolean("queue.transfer.cache.swap.enable") ?
+                        new SwapFileTransferItemCache(PreferencesFactory.get().getInteger("queue.transfer.cache.swap.size")) :
+                        new TransferItemCache(Integer.MAX_VALUE));
     }
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
@@ -118,6 +140,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         this.notification = notification;
         this.cache = cache;
         this.table = table;
+        this.swap = PreferencesFactory.get().getBoolean("queue.transfer.cache.swap.enable") ? new SwapFileTransferStatusMap(table) : null;
     }
 
     protected enum Connection {
@@ -163,6 +186,13 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         // No need to implement for single threaded transfer
     }
 
+    /**
+     * Collect tasks already completed without blocking
+     */
+    protected void poll() throws BackgroundException {
+        // No need to implement for single threaded transfer
+    }
+
     @Override
     public Boolean run(final Session<?> source) throws BackgroundException {
         final String lock = sleep.lock();
@@ -194,21 +224,27 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             // Normalize Paths before preparing
             transfer.normalize();
 
-            // Calculate information about the files in advance to give progress information
-            for(TransferItem next : transfer.getRoots()) {
-                // Check if parent directory is found in set to determine status
-                this.prepare(next.remote, next.local, new TransferStatus()
-                        .exists(!transfer.getRoots().stream().anyMatch(f -> next.remote.isChild(f.remote))), action);
+            final Preferences preferences = PreferencesFactory.get();
+            if(preferences.getBoolean("queue.transfer.pipeline.enable")) {
+                this.pipeline(source, destination, action, Math.max(1, preferences.getInteger("queue.transfer.pipeline.lookahead")));
             }
-            this.await();
-            meter.reset();
-            transfer.pre(source, destination, table, transfer.filter(source, destination, action, progress), error, progress, connect);
-            // Transfer all files sequentially
-            for(TransferItem next : transfer.getRoots()) {
-                this.transfer(next, action);
+            else {
+                // Calculate information about the files in advance to give progress information
+                for(TransferItem next : transfer.getRoots()) {
+                    // Check if parent directory is found in set to determine status
+                    this.prepare(next.remote, next.local, new TransferStatus()
+                            .exists(!transfer.getRoots().stream().anyMatch(f -> next.remote.isChild(f.remote))), action);
+                }
+                this.await();
+                meter.reset();
+                transfer.pre(source, destination, table, transfer.filter(source, destination, action, progress), error, progress, connect);
+                // Transfer all files sequentially
+                for(TransferItem next : transfer.getRoots()) {
+                    this.transfer(next, action);
+                }
             }
             this.await();
-            transfer.post(source, destination, table, error, progress, connect);
+            transfer.post(source, destination, null == swap ? table : swap, error, progress, connect);
         }
         finally {
             this.release(source, Connection.source, null);
@@ -219,12 +255,106 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         "Transfer incomplete", transfer.getName());
             }
             sleep.release(lock);
+            if(null != swap) {
+                swap.clear();
+            }
             table.clear();
             cache.clear();
         }
         return true;
     }
 
+    /**
+     * Hand over files to transfer as soon as their status is determined instead of preparing the whole tree first.
+     * Directories are expanded depth first once transferred and the number of items prepared but not yet transferred
+     * is bounded.
+     * The transfer is notified with {@link Transfer#pre} for each batch of prepared items.
+     *
+     * @param lookahead Maximum number of items prepared ahead of completed transfers
+     */
+    protected void pipeline(final Session<?> source, final Session<?> destination, final TransferAction action, final int lookahead) throws BackgroundException {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Pipeline prepare and transfer with lookahead %d", lookahead));
+        }
+        meter.reset();
+        final TransferPathFilter filter = transfer.filter(source, destination, action, progress);
+        // Items to prepare with status of parent directory
+        final Deque<Map.Entry<TransferItem, TransferStatus>> pending = new ArrayDeque<>();
+        final List<TransferItem> roots = transfer.getRoots();
+        for(int i = roots.size() - 1; i >= 0; i--) {
+            final TransferItem next = roots.get(i);
+            // Check if parent directory is found in set to determine status
+            pending.push(new AbstractMap.SimpleImmutableEntry<>(next, new TransferStatus()
+                    .exists(!roots.stream().anyMatch(f -> next.remote.isChild(f.remote)))));
+        }
+        // Directories prepared with children to prepare once the directory is transferred
+        final Map<TransferItem, TransferStatus> directories = new HashMap<>();
+        // Number of items submitted and not yet completed
+        int outstanding = 0;
+        while(true) {
+            if(this.isCanceled()) {
+                throw new TransferCanceledException();
+            }
+            while(!pending.isEmpty() && outstanding < lookahead) {
+                final Map.Entry<TransferItem, TransferStatus> next = pending.pop();
+                if(null != this.prepare(next.getKey().remote, next.getKey().local, next.getValue(), action, true)) {
+                    outstanding++;
+                }
+            }
+            this.poll();
+            if(0 == outstanding && events.isEmpty()) {
+                break;
+            }
+            final List<PipelineEvent> batch = new ArrayList<>();
+            if(0 == events.drainTo(batch)) {
+                try {
+                    final PipelineEvent event = events.poll(1L, TimeUnit.SECONDS);
+                    if(null == event) {
+                        continue;
+                    }
+                    batch.add(event);
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+            }
+            final Map<TransferItem, TransferStatus> prepared = new LinkedHashMap<>();
+            for(PipelineEvent event : batch) {
+                if(null != event.failure) {
+                    throw event.failure;
+                }
+                if(null == event.status) {
+                    // Skipped or transfer complete
+                    outstanding--;
+                    final TransferStatus status = directories.remove(event.item);
+                    if(null != status) {
+                        // Children only after parent directory is created
+                        final TransferItem renamed = new TransferItem(
+                                status.getRename().remote != null ? status.getRename().remote : event.item.remote,
+                                status.getRename().local != null ? status.getRename().local : event.item.local
+                        );
+                        final List<TransferItem> children = cache.remove(renamed).toList();
+                        for(int i = children.size() - 1; i >= 0; i--) {
+                            pending.push(new AbstractMap.SimpleImmutableEntry<>(children.get(i), status));
+                        }
+                    }
+                    continue;
+                }
+                prepared.put(event.item, event.status);
+                if(event.item.remote.isDirectory()) {
+                    directories.put(event.item, event.status);
+                }
+            }
+            if(!prepared.isEmpty()) {
+                transfer.pre(source, destination, prepared, filter, error, progress, connect);
+                for(Map.Entry<TransferItem, TransferStatus> entry : prepared.entrySet()) {
+                    final TransferItem item = entry.getKey();
+                    this.transfer(item, action, false, () -> events.add(new PipelineEvent(item, null, null)));
+                }
+            }
+        }
+    }
+
     /**
      * To be called before any file is actually transferred
      *
@@ -232,6 +362,15 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
      * @param action Transfer action for existing files
      */
     public Future<TransferStatus> prepare(final Path file, final Local local, final TransferStatus parent, final TransferAction action) throws BackgroundException {
+        return this.prepare(file, local, parent, action, false);
+    }
+
+    /**
+     * @param pipeline Notify when status is determined and do not prepare children of directories
+     * @return Null if file is not selected for transfer
+     */
+    protected Future<TransferStatus> prepare(final Path file, final Local local, final TransferStatus parent, final TransferAction action,
+                                             final boolean pipeline) throws BackgroundException {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Find transfer status of %s for transfer %s", file, this));
         }
@@ -239,7 +378,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             throw new TransferCanceledException();
         }
         if(prompt.isSelected(new TransferItem(file, local))) {
-            return this.submit(new RetryTransferCallable(transfer.getSource()) {
+            final TransferCallable callable = new RetryTransferCallable(transfer.getSource()) {
                 @Override
                 public TransferStatus call() throws BackgroundException {
                     parent.validate();
@@ -283,10 +422,12 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 final List<TransferItem> children = transfer.list(source, file, local, new WorkerListProgressListener(AbstractTransferWorker.this, progress));
                                 // Put into cache for later reference when transferring
                                 cache.put(item, new AttributedList<>(children));
-                                // Call recursively
-                                for(TransferItem f : children) {
-                                    // Change download path relative to parent local folder
-                                    prepare(f.remote, f.local, status, action);
+                                if(!pipeline) {
+                                    // Call recursively
+                                    for(TransferItem f : children) {
+                                        // Change download path relative to parent local folder
+                                        prepare(f.remote, f.local, status, action);
+                                    }
                                 }
                             }
                             if(log.isInfoEnabled()) {
@@ -324,7 +465,34 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     sb.append('}');
                     return sb.toString();
                 }
-            });
+            };
+            if(pipeline) {
+                final TransferItem item = new TransferItem(file, local);
+                return this.submit(new TransferCallable() {
+                    @Override
+                    public TransferStatus call() throws BackgroundException {
+                        try {
+                            final TransferStatus status = callable.call();
+                            events.add(new PipelineEvent(item, status, null));
+                            return status;
+                        }
+                        catch(BackgroundException e) {
+                            events.add(new PipelineEvent(item, null, e));
+                            throw e;
+                        }
+                        catch(RuntimeException e) {
+                            events.add(new PipelineEvent(item, null, new DefaultExceptionMappingService().map(e)));
+                            throw e;
+                        }
+                    }
+
+                    @Override
+                    public String toString() {
+                        return callable.toString();
+                    }
+                });
+            }
+            return this.submit(callable);
         }
         else {
             log.info(String.format("Skip unchecked file %s for transfer %s", file, this));
@@ -337,6 +505,17 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
      * @param action Transfer action for existing files
      */
     public Future<TransferStatus> transfer(final TransferItem item, final TransferAction action) throws BackgroundException {
+        return this.transfer(item, action, true, () -> {
+            // No notification
+        });
+    }
+
+    /**
+     * @param recursive Transfer children of directory found in cache
+     * @param callback  Notified when all tasks submitted for this item have returned
+     */
+    protected Future<TransferStatus> transfer(final TransferItem item, final TransferAction action, final boolean recursive,
+                                              final Runnable callback) throws BackgroundException {
         if(this.isCanceled()) {
             throw new TransferCanceledException();
         }
@@ -346,10 +525,23 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             final TransferStatus status = table.get(item);
             // Handle submit of one or more segments
             final List<TransferStatus> segments = status.getSegments();
+            // Count of segments and final task awaiting segments
+            final AtomicInteger remaining = new AtomicInteger(segments.size() + 1);
             for(final TransferStatus segment : segments) {
                 this.submit(new RetryTransferCallable(transfer.getSource()) {
                     @Override
                     public TransferStatus call() throws BackgroundException {
+                        try {
+                            return this.run();
+                        }
+                        finally {
+                            if(0 == remaining.decrementAndGet()) {
+                                complete(item, callback);
+                            }
+                        }
+                    }
+
+                    private TransferStatus run() throws BackgroundException {
                         status.validate();
                         if(segment.isComplete()) {
                             if(log.isWarnEnabled()) {
@@ -376,7 +568,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             }
                         }
                         // Recursive
-                        if(item.remote.isDirectory()) {
+                        if(recursive && item.remote.isDirectory()) {
                             if(!cache.isCached(item)) {
                                 log.warn(String.format("Missing entry for %s in cache", item));
                             }
@@ -491,6 +683,17 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             return this.submit(new TransferCallable() {
                 @Override
                 public TransferStatus call() throws BackgroundException {
+                    try {
+                        return this.run();
+                    }
+                    finally {
+                        if(0 == remaining.decrementAndGet()) {
+                            complete(item, callback);
+                        }
+                    }
+                }
+
+                private TransferStatus run() throws BackgroundException {
                     status.validate();
                     if(status.isSegmented()) {
                         // Await completion of all segments
@@ -539,9 +742,20 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         else {
             log.warn(String.format("Skip file %s with unknown transfer status", item));
         }
+        callback.run();
         return ConcurrentUtils.constantFuture(null);
     }
 
+    /**
+     * Release status of item when all tasks submitted for the item have returned
+     */
+    private void complete(final TransferItem item, final Runnable callback) {
+        if(null != swap) {
+            swap.swap(item);
+        }
+        callback.run();
+    }
+
     @Override
     public void cleanup(final Boolean result) {
         this.shutdown();
@@ -583,4 +797,19 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         sb.append('}');
         return sb.toString();
     }
+
+    private static final class PipelineEvent {
+        private final TransferItem item;
+        /**
+         * Determined transfer status or null when skipped or complete
+         */
+        private final TransferStatus status;
+        private final BackgroundException failure;
+
+        public PipelineEvent(final TransferItem item, final TransferStatus status, final BackgroundException failure) {
+            this.item = item;
+            this.status = status;
+            this.failure = failure;
+        }
+    }
 }
@@ -21,11 +21,15 @@ package ch.cyberduck.core.worker;
 
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.threading.BackgroundActionState;
 
 import java.text.MessageFormat;
 import java.util.List;
@@ -39,18 +43,48 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
     private final List<Path> files;
 
     private final ProgressListener listener;
+    /**
+     * Connection pool to list directories concurrently or null
+     */
+    private final SessionPool pool;
 
     public CalculateSizeWorker(final List<Path> files, final ProgressListener listener) {
+        this(files, listener, null);
+    }
+
+    /**
+     * @param pool Connection pool to borrow additional sessions from to list directories concurrently
+     */
+    public CalculateSizeWorker(final List<Path> files, final ProgressListener listener, final SessionPool pool) {
         this.files = files;
         this.listener = listener;
+        this.pool = pool;
     }
 
     private Long total = 0L;
 
     @Override
     public Long run(final Session<?> session) throws BackgroundException {
+        final ListService list;
+        if(null == pool) {
+            list = session.getFeature(ListService.class);
+        }
+        else {
+            list = new ConcurrentRecursiveListService(pool, new HostPreferences(session.getHost()).getInteger("browser.list.concurrent.limit"),
+                    new NullFilter<>(), Path::isDirectory, new BackgroundActionState() {
+                @Override
+                public boolean isCanceled() {
+                    return CalculateSizeWorker.this.isCanceled();
+                }
+
+                @Override
+                public boolean isRunning() {
+                    return true;
+                }
+            });
+        }
         for(Path next : files) {
-            next.attributes().setSize(this.calculateSize(session, next));
+            next.attributes().setSize(this.calculateSize(list, next));
         }
         return total;
     }
@@ -62,7 +96,7 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
      * @param p Directory or file
      * @return The size of the file or the sum of all containing files if a directory
      */
-    private long calculateSize(final Session<?> session, final Path p) throws BackgroundException {
+    private long calculateSize(final ListService list, final Path p) throws BackgroundException {
         long size = 0;
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
@@ -70,8 +104,8 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
         listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
                 p.getName()));
         if(p.isDirectory()) {
-            for(Path next : session.getFeature(ListService.class).list(p, new WorkerListProgressListener(this, listener))) {
-                size += this.calculateSize(session, next);
+            for(Path next : list.list(p, new WorkerListProgressListener(this, listener))) {
+                size += this.calculateSize(list, next);
             }
         }
         else if(p.isFile()) {
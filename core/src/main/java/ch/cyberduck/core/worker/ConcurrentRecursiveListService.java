@@ -0,0 +1,166 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Predicate;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Lists the whole tree below a directory on first request with sessions borrowed from a connection pool. Listings of
+ * subdirectories are submitted to a shared queue as soon as the parent listing is received and are picked up by the
+ * next idle thread. Subsequent requests for directories in the tree are answered from the listings retrieved.
+ */
+public class ConcurrentRecursiveListService implements ListService {
+    private static final Logger log = LogManager.getLogger(ConcurrentRecursiveListService.class);
+
+    private final SessionPool pool;
+    private final int concurrency;
+    private final Filter<Path> filter;
+    /**
+     * Determine whether to descend into child
+     */
+    private final Predicate<Path> recursive;
+    private final BackgroundActionState state;
+
+    /**
+     * Listings retrieved and not yet requested
+     */
+    private final Map<Path, AttributedList<Path>> listings = new ConcurrentHashMap<>();
+
+    /**
+     * @param pool        Connection pool to borrow sessions for listing from
+     * @param concurrency Maximum number of concurrent listings
+     * @param filter      Filter applied to directory listings
+     * @param recursive   Determine whether to list contents of child
+     * @param state       Cancel callback
+     */
+    public ConcurrentRecursiveListService(final SessionPool pool, final int concurrency, final Filter<Path> filter,
+                                          final Predicate<Path> recursive, final BackgroundActionState state) {
+        this.pool = pool;
+        this.concurrency = concurrency;
+        this.filter = filter;
+        this.recursive = recursive;
+        this.state = state;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(!listings.containsKey(directory)) {
+            this.run(directory, listener);
+        }
+        final AttributedList<Path> list = listings.remove(directory);
+        if(null == list) {
+            return AttributedList.emptyList();
+        }
+        return list;
+    }
+
+    /**
+     * Retrieve listings for all directories in tree
+     *
+     * @param directory Root of tree
+     */
+    private void run(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final ThreadPool threads = ThreadPoolFactory.get(String.format("%s-list", new AlphanumericRandomStringService().random()),
+                concurrency, ThreadPool.Priority.norm, new LinkedBlockingQueue<>(Integer.MAX_VALUE));
+        final CompletionService<AttributedList<Path>> completion = new ExecutorCompletionService<>(threads.executor());
+        try {
+            completion.submit(() -> this.fetch(directory, listener));
+            // Number of listings submitted and not yet received
+            int pending = 1;
+            while(pending > 0) {
+                final Future<AttributedList<Path>> future = completion.take();
+                pending--;
+                if(state.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                for(Path child : future.get()) {
+                    if(recursive.test(child)) {
+                        completion.submit(() -> this.fetch(child, listener));
+                        pending++;
+                    }
+                }
+            }
+        }
+        catch(InterruptedException e) {
+            throw new ConnectionCanceledException(e);
+        }
+        catch(ExecutionException e) {
+            Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
+            throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+        }
+        finally {
+            threads.shutdown(false);
+        }
+    }
+
+    private AttributedList<Path> fetch(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(state.isCanceled()) {
+            throw new ConnectionCanceledException();
+        }
+        final Session<?> session = pool.borrow(state);
+        BackgroundException failure = null;
+        try {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("List %s with %s", directory, session));
+            }
+            final AttributedList<Path> list = session.getFeature(ListService.class).list(directory, listener).filter(filter);
+            listings.put(directory, list);
+            return list;
+        }
+        catch(BackgroundException e) {
+            failure = e;
+            throw e;
+        }
+        finally {
+            pool.release(session, failure);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConcurrentRecursiveListService{");
+        sb.append("pool=").append(pool);
+        sb.append(", concurrency=").append(concurrency);
+        sb.append('}');
+        return sb.toString();
+    }
+}
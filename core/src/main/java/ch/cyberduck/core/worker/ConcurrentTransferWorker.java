@@ -153,28 +153,48 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
     public void await() throws BackgroundException {
         while(size.get() > 0) {
             // Repeat until no new entries in queue found
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Await completion for %d submitted tasks in queue", size.get()));
+            }
             try {
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Await completion for %d submitted tasks in queue", size.get()));
-                }
-                final TransferStatus status = completion.take().get();
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Finished task with return value %s", status));
-                }
+                this.complete(completion.take());
             }
             catch(InterruptedException e) {
                 // Errors are handled in transfer worker error callback already
                 log.warn(String.format("Unhandled failure %s", e));
+                size.decrementAndGet();
                 throw new ConnectionCanceledException(e);
             }
-            catch(ExecutionException e) {
-                Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
-                throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
-            }
-            finally {
-                size.decrementAndGet();
+        }
+    }
+
+    @Override
+    protected void poll() throws BackgroundException {
+        Future<TransferStatus> future;
+        while((future = completion.poll()) != null) {
+            this.complete(future);
+        }
+    }
+
+    private void complete(final Future<TransferStatus> future) throws BackgroundException {
+        try {
+            final TransferStatus status = future.get();
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Finished task with return value %s", status));
             }
         }
+        catch(InterruptedException e) {
+            // Errors are handled in transfer worker error callback already
+            log.warn(String.format("Unhandled failure %s", e));
+            throw new ConnectionCanceledException(e);
+        }
+        catch(ExecutionException e) {
+            Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
+            throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+        }
+        finally {
+            size.decrementAndGet();
+        }
     }
 
     @Override
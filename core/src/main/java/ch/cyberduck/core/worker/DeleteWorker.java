@@ -26,13 +26,19 @@ import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.LoginCallback;
 import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathTrie;
+import ch.cyberduck.core.PersistentPathIndex;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.features.Trash;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundActionState;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.logging.log4j.LogManager;
@@ -41,6 +47,7 @@ import org.apache.logging.log4j.Logger;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +68,10 @@ public class DeleteWorker extends Worker<List<Path>> {
      */
     private final boolean trash;
     private final Delete.Callback callback;
+    /**
+     * Connection pool to list directories concurrently or null
+     */
+    private final SessionPool pool;
 
     public DeleteWorker(final LoginCallback prompt, final List<Path> files, final ProgressListener listener) {
         this(prompt, files, listener, new NullFilter<>());
@@ -83,12 +94,21 @@ public class DeleteWorker extends Worker<List<Path>> {
 
     public DeleteWorker(final LoginCallback prompt, final List<Path> files, final ProgressListener listener,
                         final Filter<Path> filter, final boolean trash, final Delete.Callback callback) {
+        this(prompt, files, listener, filter, trash, callback, null);
+    }
+
+    /**
+     * @param pool Connection pool to borrow additional sessions from to list directories concurrently
+     */
+    public DeleteWorker(final LoginCallback prompt, final List<Path> files, final ProgressListener listener,
+                        final Filter<Path> filter, final boolean trash, final Delete.Callback callback, final SessionPool pool) {
         this.files = files;
         this.prompt = prompt;
         this.listener = listener;
         this.filter = filter;
         this.trash = trash;
         this.callback = callback;
+        this.pool = pool;
     }
 
     @Override
@@ -106,7 +126,24 @@ public class DeleteWorker extends Worker<List<Path>> {
         else {
             delete = session.getFeature(Delete.class);
         }
-        final ListService list = session.getFeature(ListService.class);
+        final ListService list;
+        if(null == pool) {
+            list = session.getFeature(ListService.class);
+        }
+        else {
+            list = new ConcurrentRecursiveListService(pool, new HostPreferences(session.getHost()).getInteger("browser.list.concurrent.limit"),
+                    filter, f -> f.isDirectory() && !f.isSymbolicLink(), new BackgroundActionState() {
+                @Override
+                public boolean isCanceled() {
+                    return DeleteWorker.this.isCanceled();
+                }
+
+                @Override
+                public boolean isRunning() {
+                    return true;
+                }
+            });
+        }
         final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
         for(Path file : files) {
             if(this.isCanceled()) {
@@ -114,18 +151,35 @@ public class DeleteWorker extends Worker<List<Path>> {
             }
             recursive.putAll(this.compile(session.getHost(), delete, list, new WorkerListProgressListener(this, listener), file));
         }
+        // Selected files by parent directories to notify when deleted recursively
+        final Map<SimplePathPredicate, List<Path>> children = new HashMap<>();
         // Iterate again to delete any files that can be omitted when recursive operation is supported
         if(delete.isRecursive()) {
-            recursive.keySet().removeIf(f -> recursive.keySet().stream().anyMatch(f::isChild));
+            final PathTrie directories = new PathTrie();
+            recursive.keySet().stream().filter(f -> !f.isFile()).forEach(directories::add);
+            recursive.keySet().removeIf(f -> null != directories.parent(f));
+            for(Path file : files) {
+                final Path parent = directories.parent(file);
+                if(null != parent) {
+                    children.computeIfAbsent(new SimplePathPredicate(Path.Type.directory, parent.getAbsolute()), p -> new ArrayList<>()).add(file);
+                }
+            }
         }
+        // Saved directory listings to remove deleted files from
+        final PersistentPathIndex index = new HostPreferences(session.getHost()).getBoolean("browser.cache.index.enable") ?
+                PersistentPathIndex.get(session.getHost()) : null;
         delete.delete(recursive, prompt, new Delete.Callback() {
             @Override
             public void delete(final Path file) {
                 listener.message(MessageFormat.format(LocaleFactory.localizedString("Deleting {0}", "Status"), file.getName()));
+                if(null != index) {
+                    index.invalidate(file);
+                }
                 callback.delete(file);
                 if(file.isDirectory()) {
                     if(delete.isRecursive()) {
-                        files.stream().filter(f -> f.isChild(file)).forEach(callback::delete);
+                        children.getOrDefault(new SimplePathPredicate(Path.Type.directory, file.getAbsolute()),
+                                Collections.emptyList()).forEach(callback::delete);
                     }
                 }
             }
@@ -27,6 +27,7 @@ import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.MappingMimeTypeService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PersistentPathIndex;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
@@ -37,6 +38,7 @@ import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.features.Move;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.threading.BackgroundActionState;
@@ -93,6 +95,9 @@ public class MoveWorker extends Worker<Map<Path, Path>> {
                 log.debug(String.format("Run with feature %s", feature));
             }
             final ListService list = session.getFeature(ListService.class);
+            // Saved directory listings to remove moved files from
+            final PersistentPathIndex index = new HostPreferences(session.getHost()).getBoolean("browser.cache.index.enable") ?
+                    PersistentPathIndex.get(session.getHost()) : null;
             // Sort ascending by timestamp to move older versions first
             final Map<Path, Path> sorted = new TreeMap<>(new VersionsComparator(true));
             sorted.putAll(files);
@@ -133,6 +138,10 @@ public class MoveWorker extends Worker<Map<Path, Path>> {
                             moved.withAttributes(session.getFeature(AttributesFinder.class).find(moved));
                         }
                         result.put(r.getKey(), moved);
+                        if(null != index) {
+                            index.invalidate(r.getKey());
+                            index.invalidate(moved);
+                        }
                     }
                 }
                 // Find previous folders to be deleted
@@ -15,6 +15,7 @@ package ch.cyberduck.core.worker;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.Filter;
@@ -22,20 +23,33 @@ import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathTrie;
+import ch.cyberduck.core.PersistentPathIndex;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.shared.PersistentPathIndexSearchFeature;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.text.MessageFormat;
-import java.util.HashSet;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.regex.Pattern;
 
+import com.google.common.base.Throwables;
+
 public class SearchWorker extends Worker<AttributedList<Path>> {
     private static final Logger log = LogManager.getLogger(SearchWorker.class);
 
@@ -43,67 +57,188 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
     private final Filter<Path> filter;
     private final Cache<Path> cache;
     private final ListProgressListener listener;
+    /**
+     * Connection pool to search directories concurrently or null
+     */
+    private final SessionPool pool;
 
     public SearchWorker(final Path directory, final Filter<Path> filter, final Cache<Path> cache, final ListProgressListener listener) {
+        this(directory, filter, cache, listener, null);
+    }
+
+    /**
+     * @param pool Connection pool to borrow additional sessions from to search directories concurrently
+     */
+    public SearchWorker(final Path directory, final Filter<Path> filter, final Cache<Path> cache, final ListProgressListener listener,
+                        final SessionPool pool) {
         this.directory = directory;
         this.filter = filter;
         this.cache = cache;
         this.listener = listener;
+        this.pool = pool;
     }
 
     @Override
     public AttributedList<Path> run(final Session<?> session) throws BackgroundException {
         // Run recursively
-        final Search feature = session.getFeature(Search.class);
+        final Search feature;
+        if(new HostPreferences(session.getHost()).getBoolean("browser.cache.index.search")) {
+            feature = new PersistentPathIndexSearchFeature(PersistentPathIndex.get(session.getHost()));
+        }
+        else {
+            feature = session.getFeature(Search.class);
+        }
         if(log.isDebugEnabled()) {
             log.debug(String.format("Run with feature %s", feature));
         }
-        return this.search(feature, directory);
-    }
-
-    private AttributedList<Path> search(final Search search, final Path workdir) throws BackgroundException {
-        if(this.isCanceled()) {
-            throw new ConnectionCanceledException();
-        }
         final AttributedList<Path> list;
-        if(!search.isRecursive() && cache.isCached(workdir)) {
-            list = new AttributedList<>(cache.get(workdir));
+        if(feature.isRecursive()) {
+            list = this.search(feature, directory);
+        }
+        else if(null == pool) {
+            list = new AttributedList<>();
+            this.search(feature, directory, list);
         }
         else {
-            // Get filtered list from search
-            list = search.search(workdir, new RecursiveSearchFilter(filter), new WorkerListProgressListener(this, listener));
-            if(!search.isRecursive()) {
-                cache.put(workdir, new AttributedList<>(list));
+            list = this.search(new HostPreferences(session.getHost()).getInteger("browser.list.concurrent.limit"));
+        }
+        return this.prune(list);
+    }
+
+    /**
+     * Search directory and all subdirectories
+     *
+     * @param result Files and directories found
+     */
+    private void search(final Search search, final Path workdir, final AttributedList<Path> result) throws BackgroundException {
+        final AttributedList<Path> list = this.search(search, workdir);
+        result.addAll(list);
+        for(Path f : list) {
+            if(f.isDirectory()) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Recursively search in %s", f));
+                }
+                this.search(search, f, result);
             }
         }
-        final Set<Path> removal = new HashSet<>();
-        if(search.isRecursive()) {
-            for(Path directory : list) {
-                if(directory.isDirectory()) {
-                    if(!list.toStream().filter(f -> f.isChild(directory)).findAny().isPresent()) {
-                        removal.add(directory);
+    }
+
+    /**
+     * Search directories with sessions borrowed from connection pool. Subdirectories are submitted to a shared queue
+     * as soon as the search result of the parent is received.
+     *
+     * @param concurrency Maximum number of concurrent searches
+     * @return Files and directories found
+     */
+    private AttributedList<Path> search(final int concurrency) throws BackgroundException {
+        final ThreadPool threads = ThreadPoolFactory.get(String.format("%s-search", new AlphanumericRandomStringService().random()),
+                concurrency, ThreadPool.Priority.norm, new LinkedBlockingQueue<>(Integer.MAX_VALUE));
+        final CompletionService<AttributedList<Path>> completion = new ExecutorCompletionService<>(threads.executor());
+        try {
+            final AttributedList<Path> result = new AttributedList<>();
+            completion.submit(() -> this.borrow(directory));
+            // Number of searches submitted and not yet received
+            int pending = 1;
+            while(pending > 0) {
+                final Future<AttributedList<Path>> future = completion.take();
+                pending--;
+                if(this.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                final AttributedList<Path> list = future.get();
+                result.addAll(list);
+                for(Path f : list) {
+                    if(f.isDirectory()) {
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Recursively search in %s", f));
+                        }
+                        completion.submit(() -> this.borrow(f));
+                        pending++;
                     }
                 }
             }
+            return result;
         }
-        else {
-            for(final Path f : list) {
-                if(f.isDirectory()) {
-                    if(log.isDebugEnabled()) {
-                        log.debug(String.format("Recursively search in %s", f));
-                    }
-                    final AttributedList<Path> children = this.search(search, f);
-                    list.addAll(children);
-                    if(children.isEmpty()) {
-                        removal.add(f);
-                    }
+        catch(InterruptedException e) {
+            throw new ConnectionCanceledException(e);
+        }
+        catch(ExecutionException e) {
+            Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
+            throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+        }
+        finally {
+            threads.shutdown(false);
+        }
+    }
+
+    private AttributedList<Path> borrow(final Path workdir) throws BackgroundException {
+        if(this.isCanceled()) {
+            throw new ConnectionCanceledException();
+        }
+        final Session<?> session = pool.borrow(new BackgroundActionState() {
+            @Override
+            public boolean isCanceled() {
+                return SearchWorker.this.isCanceled();
+            }
+
+            @Override
+            public boolean isRunning() {
+                return true;
+            }
+        });
+        BackgroundException failure = null;
+        try {
+            return this.search(session.getFeature(Search.class), workdir);
+        }
+        catch(BackgroundException e) {
+            failure = e;
+            throw e;
+        }
+        finally {
+            pool.release(session, failure);
+        }
+    }
+
+    /**
+     * @return Files and directories in workdir matching filter
+     */
+    private AttributedList<Path> search(final Search search, final Path workdir) throws BackgroundException {
+        if(this.isCanceled()) {
+            throw new ConnectionCanceledException();
+        }
+        if(!search.isRecursive() && cache.isCached(workdir)) {
+            return new AttributedList<>(cache.get(workdir));
+        }
+        // Get filtered list from search
+        final AttributedList<Path> list = search.search(workdir, new RecursiveSearchFilter(filter), new WorkerListProgressListener(this, listener));
+        if(!search.isRecursive()) {
+            cache.put(workdir, new AttributedList<>(list));
+        }
+        return list;
+    }
+
+    /**
+     * Remove directories without any matching file in time linear to the number of files found
+     *
+     * @param list Files and directories found
+     * @return Matching files and their parent directories
+     */
+    private AttributedList<Path> prune(final AttributedList<Path> list) {
+        final PathTrie matches = new PathTrie();
+        for(Path f : list) {
+            if(!f.isDirectory()) {
+                if(filter.accept(f)) {
+                    matches.add(f);
                 }
             }
         }
         return list.filter(new NullFilter<Path>() {
             @Override
             public boolean accept(final Path file) {
-                return !removal.contains(file);
+                if(file.isDirectory()) {
+                    return matches.hasChildren(file);
+                }
+                return true;
             }
         }).filter(new RecursiveSearchFilter(filter));
     }
@@ -23,10 +23,13 @@ import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PersistentPathIndex;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.ListCanceledException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.preferences.HostPreferences;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -40,11 +43,21 @@ public class SessionListWorker extends Worker<AttributedList<Path>> {
     private final Cache<Path> cache;
     private final Path directory;
     private final ListProgressListener listener;
+    /**
+     * Index to display saved listing from while retrieving directory listing or null to determine from preferences
+     */
+    private final PersistentPathIndex index;
 
     public SessionListWorker(final Cache<Path> cache, final Path directory, final ListProgressListener listener) {
+        this(cache, directory, listener, null);
+    }
+
+    public SessionListWorker(final Cache<Path> cache, final Path directory, final ListProgressListener listener,
+                             final PersistentPathIndex index) {
         this.cache = cache;
         this.directory = directory;
         this.listener = new ConnectionCancelListProgressListener(this, directory, listener);
+        this.index = index;
     }
 
     @Override
@@ -55,11 +68,36 @@ public class SessionListWorker extends Worker<AttributedList<Path>> {
                 listener.chunk(directory, list);
                 return list;
             }
+            final PersistentPathIndex index = this.index(session);
+            if(null != index) {
+                final AttributedList<Path> indexed = index.get(directory);
+                if(null != indexed) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Display %d files from index for %s", indexed.size(), directory));
+                    }
+                    // Display saved listing while revalidating
+                    listener.chunk(directory, indexed);
+                }
+            }
             final ListService service = session.getFeature(ListService.class);
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Run with feature %s", service));
             }
-            return service.list(directory, listener);
+            final AttributedList<Path> list;
+            try {
+                list = service.list(directory, listener);
+            }
+            catch(NotfoundException e) {
+                if(null != index) {
+                    // Directory no longer found on server
+                    index.remove(directory);
+                }
+                throw e;
+            }
+            if(null != index) {
+                index.put(directory, list);
+            }
+            return list;
         }
         catch(ListCanceledException e) {
             if(log.isWarnEnabled()) {
@@ -69,6 +107,20 @@ public class SessionListWorker extends Worker<AttributedList<Path>> {
         }
     }
 
+    private PersistentPathIndex index(final Session<?> session) {
+        if(directory.getType().contains(Path.Type.decrypted) || directory.getType().contains(Path.Type.vault)) {
+            // Never save clear text filenames of files in vault
+            return null;
+        }
+        if(null != index) {
+            return index;
+        }
+        if(new HostPreferences(session.getHost()).getBoolean("browser.cache.index.enable")) {
+            return PersistentPathIndex.get(session.getHost());
+        }
+        return null;
+    }
+
     protected boolean isCached() {
         return cache.isValid(directory);
     }
@@ -3,6 +3,7 @@ package ch.cyberduck.core;
 import org.junit.Test;
 
 import java.util.EnumSet;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
@@ -80,4 +81,80 @@ public class AttributedListTest {
         assertNotSame(list, list.filter(new NullFilter<>()));
         assertEquals(list, list.filter(new NullFilter<>()));
     }
+
+    @Test
+    public void testFindIndexed() {
+        final AttributedList<Path> list = new AttributedList<>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.directory));
+        assertTrue(list.add(a));
+        assertSame(a, list.find(new SimplePathPredicate(a)));
+        assertNull(list.find(new SimplePathPredicate(new Path("/b", EnumSet.of(Path.Type.directory)))));
+        // Index is maintained on append
+        final Path b = new Path("/b", EnumSet.of(Path.Type.file));
+        assertTrue(list.add(b));
+        assertSame(b, list.find(new SimplePathPredicate(b)));
+        assertNull(list.find(new SimplePathPredicate(new Path("/b", EnumSet.of(Path.Type.directory)))));
+        assertTrue(list.remove(b));
+        assertNull(list.find(new SimplePathPredicate(b)));
+        assertSame(a, list.find(new SimplePathPredicate(a)));
+    }
+
+    @Test
+    public void testFindDuplicate() {
+        final AttributedList<Path> list = new AttributedList<>();
+        final Path v1 = new Path("/f", EnumSet.of(Path.Type.file));
+        v1.attributes().setVersionId("1");
+        final Path v2 = new Path("/f", EnumSet.of(Path.Type.file));
+        v2.attributes().setVersionId("2");
+        assertTrue(list.add(v1));
+        assertTrue(list.add(v2));
+        assertSame(v1, list.find(new SimplePathPredicate(v2)));
+        assertSame(v2, list.get(v2));
+        assertTrue(list.remove(v1));
+        assertSame(v2, list.find(new SimplePathPredicate(v1)));
+        assertNull(list.get(v1));
+    }
+
+    @Test
+    public void testFindModified() {
+        final AttributedList<Path> list = new AttributedList<>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file));
+        assertTrue(list.add(a));
+        assertSame(a, list.find(new SimplePathPredicate(a)));
+        assertTrue(list.contains(a));
+        a.setType(EnumSet.of(Path.Type.directory));
+        assertNull(list.find(new SimplePathPredicate(new Path("/a", EnumSet.of(Path.Type.file)))));
+        // Remove and add again when type changes
+        assertTrue(list.remove(a));
+        assertTrue(list.add(a));
+        assertSame(a, list.find(new SimplePathPredicate(a)));
+        a.attributes().setVersionId("1");
+        assertTrue(list.contains(a));
+        assertSame(a, list.get(a));
+    }
+
+    @Test
+    public void testSnapshot() {
+        final AttributedList<Path> list = new AttributedList<>();
+        list.add(new Path("/a", EnumSet.of(Path.Type.file)));
+        assertSame(list.toList(), list.toList());
+        final List<Path> snapshot = list.toList();
+        list.add(new Path("/b", EnumSet.of(Path.Type.file)));
+        assertEquals(1, snapshot.size());
+        assertNotSame(snapshot, list.toList());
+        assertEquals(2, list.toList().size());
+        list.remove(0);
+        assertEquals(1, list.toList().size());
+    }
+
+    @Test
+    public void testIterateModified() {
+        final AttributedList<Path> list = new AttributedList<>();
+        list.add(new Path("/a", EnumSet.of(Path.Type.file)));
+        list.add(new Path("/b", EnumSet.of(Path.Type.file)));
+        for(Path f : list) {
+            list.add(new Path(f.getAbsolute() + "-copy", EnumSet.of(Path.Type.file)));
+        }
+        assertEquals(4, list.size());
+    }
 }
@@ -0,0 +1,147 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class FileIdCacheTest {
+
+    @Test
+    public void testGet() {
+        final FileIdCache cache = new FileIdCache(Protocol.Case.sensitive);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        cache.put(directory, "1");
+        cache.put(file, "2");
+        assertEquals("1", cache.get(directory));
+        assertEquals("2", cache.get(file));
+        assertNull(cache.get(new Path(directory, "f", EnumSet.of(Path.Type.directory))));
+        assertNull(cache.get(new Path(directory, "F", EnumSet.of(Path.Type.file))));
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        final FileIdCache cache = new FileIdCache(Protocol.Case.insensitive);
+        cache.put(new Path("/d/f", EnumSet.of(Path.Type.file)), "1");
+        assertEquals("1", cache.get(new Path("/D/F", EnumSet.of(Path.Type.file))));
+    }
+
+    @Test
+    public void testRemoveDirectory() {
+        final FileIdCache cache = new FileIdCache(Protocol.Case.sensitive);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path child = new Path(directory, "c", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(child, "f", EnumSet.of(Path.Type.file));
+        final Path sibling = new Path("/s", EnumSet.of(Path.Type.file));
+        cache.put(directory, "1");
+        cache.put(child, "2");
+        cache.put(file, "3");
+        cache.put(sibling, "4");
+        cache.remove(directory);
+        assertNull(cache.get(directory));
+        assertNull(cache.get(child));
+        assertNull(cache.get(file));
+        assertEquals("4", cache.get(sibling));
+    }
+
+    @Test
+    public void testRemoveFile() {
+        final FileIdCache cache = new FileIdCache(Protocol.Case.sensitive);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        cache.put(directory, "1");
+        cache.put(file, "2");
+        cache.remove(file);
+        assertNull(cache.get(file));
+        assertEquals("1", cache.get(directory));
+    }
+
+    @Test
+    public void testMaximumSize() {
+        final FileIdCache cache = new FileIdCache(Protocol.Case.sensitive, 2L, null);
+        cache.put(new Path("/a", EnumSet.of(Path.Type.file)), "1");
+        cache.put(new Path("/b", EnumSet.of(Path.Type.file)), "2");
+        cache.remove(new Path("/a", EnumSet.of(Path.Type.file)));
+        cache.put(new Path("/c", EnumSet.of(Path.Type.file)), "3");
+        assertEquals("2", cache.get(new Path("/b", EnumSet.of(Path.Type.file))));
+        cache.put(new Path("/d", EnumSet.of(Path.Type.file)), "4");
+        // Least recently used removed
+        assertNull(cache.get(new Path("/c", EnumSet.of(Path.Type.file))));
+        assertEquals("2", cache.get(new Path("/b", EnumSet.of(Path.Type.file))));
+        assertEquals("4", cache.get(new Path("/d", EnumSet.of(Path.Type.file))));
+    }
+
+    @Test
+    public void testEvictSubtree() {
+        final FileIdCache cache = new FileIdCache(Protocol.Case.sensitive, 20L, null);
+        for(int i = 0; i < 10; i++) {
+            cache.put(new Path(String.format("/a/d/%d", i), EnumSet.of(Path.Type.file)), String.valueOf(i));
+        }
+        for(int i = 0; i < 9; i++) {
+            cache.put(new Path(String.format("/b/%d", i), EnumSet.of(Path.Type.file)), String.valueOf(i));
+        }
+        cache.put(new Path("/a/f", EnumSet.of(Path.Type.file)), "f");
+        assertEquals("f", cache.get(new Path("/a/f", EnumSet.of(Path.Type.file))));
+        // Exceeds maximum size
+        cache.put(new Path("/c", EnumSet.of(Path.Type.file)), "c");
+        // Only least recently used file removed
+        assertNull(cache.get(new Path("/b/0", EnumSet.of(Path.Type.file))));
+        assertEquals("1", cache.get(new Path("/b/1", EnumSet.of(Path.Type.file))));
+        assertEquals("0", cache.get(new Path("/a/d/0", EnumSet.of(Path.Type.file))));
+        assertEquals("f", cache.get(new Path("/a/f", EnumSet.of(Path.Type.file))));
+        assertEquals("c", cache.get(new Path("/c", EnumSet.of(Path.Type.file))));
+    }
+
+    @Test
+    public void testPersist() throws Exception {
+        final Local index = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final FileIdCache cache = new FileIdCache(Protocol.Case.sensitive, 10L, index);
+            cache.put(new Path("/d", EnumSet.of(Path.Type.directory)), "1");
+            cache.put(new Path("/d/f", EnumSet.of(Path.Type.file)), "2");
+            cache.clear();
+            // Kept in memory when persisted
+            assertEquals("2", cache.get(new Path("/d/f", EnumSet.of(Path.Type.file))));
+            final FileIdCache restored = new FileIdCache(Protocol.Case.sensitive, 10L, index);
+            assertEquals("1", restored.get(new Path("/d", EnumSet.of(Path.Type.directory))));
+            assertEquals("2", restored.get(new Path("/d/f", EnumSet.of(Path.Type.file))));
+        }
+        finally {
+            index.delete();
+        }
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        final Host host = new Host(new TestProtocol(), "h");
+        // Referenced by session
+        final FileIdCache cache = FileIdCache.get(host, Protocol.Case.sensitive);
+        cache.put(new Path("/f", EnumSet.of(Path.Type.file)), "1");
+        assertSame(cache, FileIdCache.get(host, Protocol.Case.sensitive));
+        assertEquals("1", FileIdCache.get(host, Protocol.Case.sensitive).get(new Path("/f", EnumSet.of(Path.Type.file))));
+        assertNull(FileIdCache.get(new Host(new TestProtocol(), "h"), Protocol.Case.sensitive).get(new Path("/f", EnumSet.of(Path.Type.file))));
+        final CachingFileIdProvider provider = new CachingFileIdProvider(host, Protocol.Case.sensitive) {
+        };
+        assertEquals("1", provider.getFileId(new Path("/f", EnumSet.of(Path.Type.file))));
+        // Cleared on logout when not persisted
+        provider.clear();
+        assertNull(cache.get(new Path("/f", EnumSet.of(Path.Type.file))));
+    }
+}
@@ -39,4 +39,9 @@ public class NullLocal extends Local {
     public OutputStream getOutputStream(boolean append) {
         return NullOutputStream.NULL_OUTPUT_STREAM;
     }
+
+    @Override
+    public OutputStream getOutputStream(final long position) {
+        return NullOutputStream.NULL_OUTPUT_STREAM;
+    }
 }
@@ -41,6 +41,21 @@ public class PathAttributesTest {
         assertEquals(DescriptiveUrl.EMPTY, clone.getLink());
     }
 
+    @Test
+    public void testCopyDefaultExtension() {
+        final PathAttributes attributes = new PathAttributes();
+        attributes.setSize(1L);
+        final PathAttributes clone = new PathAttributes(attributes);
+        clone.setRevision(2L);
+        clone.withCustom("k", "v");
+        assertNull(attributes.getRevision());
+        assertTrue(attributes.getCustom().isEmpty());
+        assertEquals(-1L, new PathAttributes().getCreationDate());
+        assertEquals(Acl.EMPTY, new PathAttributes().getAcl());
+        assertEquals(Long.valueOf(2L), clone.getRevision());
+        assertEquals("v", clone.getCustom().get("k"));
+    }
+
     @Test
     public void testPermissions() {
         final PathAttributes attributes = new PathAttributes();
@@ -2,6 +2,7 @@ package ch.cyberduck.core;
 
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
@@ -94,4 +95,92 @@ public class PathCacheTest {
         assertTrue(cache.containsKey(new Path("/", EnumSet.of(Path.Type.directory))));
         assertTrue(cache.isCached(new Path("/", EnumSet.of(Path.Type.directory))));
     }
+
+    @Test
+    public void testLookupIndex() {
+        final PathCache cache = new PathCache(2);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        final AttributedList<Path> list = new AttributedList<>();
+        list.add(file);
+        cache.put(directory, list);
+        assertEquals(1, cache.getIndexSize());
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertNull(cache.lookup(new DefaultPathPredicate(new Path(directory, "g", EnumSet.of(Path.Type.file)))));
+        assertEquals(1, cache.getMisses());
+        // Replace listing
+        final Path replacement = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(replacement)));
+        assertEquals(1, cache.getIndexSize());
+        assertSame(replacement, cache.lookup(new DefaultPathPredicate(file)));
+        cache.remove(directory);
+        assertEquals(0, cache.getIndexSize());
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+    }
+
+    @Test
+    public void testLookupIndexAddedAfterCache() {
+        final PathCache cache = new PathCache(2);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new AttributedList<>();
+        cache.put(directory, list);
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        list.add(file);
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        assertEquals(1, cache.getMisses());
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testLookupIndexRemovedFromList() {
+        final PathCache cache = new PathCache(2);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        final AttributedList<Path> list = new AttributedList<>(Collections.singletonList(file));
+        cache.put(directory, list);
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        assertTrue(list.remove(file));
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+        assertEquals(0, cache.getIndexSize());
+        // Added again to cached listing
+        final Path replacement = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        list.add(replacement);
+        assertSame(replacement, cache.lookup(new DefaultPathPredicate(file)));
+    }
+
+    @Test
+    public void testLookupAttributesModified() {
+        final PathCache cache = new PathCache(2);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        final AttributedList<Path> list = new AttributedList<>(Collections.singletonList(file));
+        cache.put(directory, list);
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        // Set by file id provider on cached path
+        file.attributes().setFileId("1");
+        assertTrue(list.contains(file));
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        assertNull(cache.lookup(new DefaultPathPredicate(new Path(directory, "f", EnumSet.of(Path.Type.file)))));
+    }
+
+    @Test
+    public void testLookupIndexEvicted() {
+        final PathCache cache = new PathCache(1);
+        final Path d1 = new Path("/d1", EnumSet.of(Path.Type.directory));
+        final Path d2 = new Path("/d2", EnumSet.of(Path.Type.directory));
+        final Path f1 = new Path(d1, "f", EnumSet.of(Path.Type.file));
+        final Path f2 = new Path(d2, "f", EnumSet.of(Path.Type.file));
+        cache.put(d1, new AttributedList<>(Collections.singletonList(f1)));
+        cache.put(d2, new AttributedList<>(Collections.singletonList(f2)));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getIndexSize());
+        assertNull(cache.lookup(new DefaultPathPredicate(f1)));
+        assertSame(f2, cache.lookup(new DefaultPathPredicate(f2)));
+        cache.clear();
+        assertEquals(0, cache.getIndexSize());
+    }
 }
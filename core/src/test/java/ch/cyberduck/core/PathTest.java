@@ -155,4 +155,22 @@ public class PathTest {
         assertNotEquals(new Path("19.vcf.gz", EnumSet.of(Path.Type.file)), new Path("0X.vcf.gz", EnumSet.of(Path.Type.file)));
         assertNotEquals(new Path("/d/2R", EnumSet.of(Path.Type.directory)), new Path("/d/33", EnumSet.of(Path.Type.directory)));
     }
+
+    @Test
+    public void testHashcodeChangedAttributes() {
+        final Path file = new Path("/f", EnumSet.of(Path.Type.file));
+        final int hashcode = file.hashCode();
+        assertEquals(hashcode, file.hashCode());
+        file.attributes().setVersionId("1");
+        assertNotEquals(hashcode, file.hashCode());
+        assertNotEquals(new Path("/f", EnumSet.of(Path.Type.file)), file);
+        file.attributes().setVersionId(null);
+        assertEquals(hashcode, file.hashCode());
+        file.getType().add(Path.Type.symboliclink);
+        assertNotEquals(hashcode, file.hashCode());
+        file.setType(EnumSet.of(Path.Type.file));
+        file.setAttributes(new PathAttributes().withFileId("i"));
+        assertNotEquals(new Path("/f", EnumSet.of(Path.Type.file)), file);
+        assertEquals(new Path("/f", EnumSet.of(Path.Type.file), new PathAttributes().withFileId("i")), file);
+    }
 }
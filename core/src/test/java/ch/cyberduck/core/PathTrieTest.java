@@ -0,0 +1,45 @@
+package ch.cyberduck.core;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class PathTrieTest {
+
+    @Test
+    public void testParent() {
+        final PathTrie trie = new PathTrie();
+        final Path t = new Path("/t", EnumSet.of(Path.Type.directory));
+        trie.add(t);
+        trie.add(new Path("/t/d", EnumSet.of(Path.Type.directory)));
+        assertNull(trie.parent(t));
+        assertEquals(t, trie.parent(new Path("/t/d", EnumSet.of(Path.Type.directory))));
+        assertEquals(t, trie.parent(new Path("/t/d/f", EnumSet.of(Path.Type.file))));
+        assertEquals(t, trie.parent(new Path("/t/a", EnumSet.of(Path.Type.file))));
+        assertNull(trie.parent(new Path("/tt", EnumSet.of(Path.Type.file))));
+        assertNull(trie.parent(new Path("/a/t", EnumSet.of(Path.Type.file))));
+        assertNull(trie.parent(new Path("/", EnumSet.of(Path.Type.directory))));
+    }
+
+    @Test
+    public void testParentRoot() {
+        final PathTrie trie = new PathTrie();
+        final Path root = new Path("/", EnumSet.of(Path.Type.directory));
+        trie.add(root);
+        assertNull(trie.parent(root));
+        assertEquals(root, trie.parent(new Path("/a", EnumSet.of(Path.Type.file))));
+    }
+
+    @Test
+    public void testHasChildren() {
+        final PathTrie trie = new PathTrie();
+        trie.add(new Path("/t/d/f", EnumSet.of(Path.Type.file)));
+        assertTrue(trie.hasChildren(new Path("/", EnumSet.of(Path.Type.directory))));
+        assertTrue(trie.hasChildren(new Path("/t", EnumSet.of(Path.Type.directory))));
+        assertTrue(trie.hasChildren(new Path("/t/d", EnumSet.of(Path.Type.directory))));
+        assertFalse(trie.hasChildren(new Path("/t/d/f", EnumSet.of(Path.Type.directory))));
+        assertFalse(trie.hasChildren(new Path("/a", EnumSet.of(Path.Type.directory))));
+    }
+}
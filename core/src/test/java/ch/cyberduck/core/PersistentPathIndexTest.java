@@ -0,0 +1,192 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.ui.browser.SearchFilter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class PersistentPathIndexTest {
+
+    @Test
+    public void testPutGet() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        try {
+            final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+            assertNull(index.get(directory));
+            final Path f = new Path(directory, "f", EnumSet.of(Path.Type.file));
+            f.attributes().setSize(3L);
+            f.attributes().setModificationDate(1000L);
+            f.attributes().setETag("e");
+            f.attributes().setFileId("i");
+            final Path p = new Path(directory, "p", EnumSet.of(Path.Type.directory, Path.Type.placeholder));
+            index.put(directory, new AttributedList<>(Arrays.asList(f, p)));
+            final AttributedList<Path> list = index.get(directory);
+            assertEquals(2, list.size());
+            assertEquals(f, list.get(0));
+            assertEquals(3L, list.get(0).attributes().getSize());
+            assertEquals(1000L, list.get(0).attributes().getModificationDate());
+            assertEquals("e", list.get(0).attributes().getETag());
+            assertEquals("i", list.get(0).attributes().getFileId());
+            assertNull(list.get(0).attributes().getVersionId());
+            assertEquals(EnumSet.of(Path.Type.directory, Path.Type.placeholder), list.get(1).getType());
+            index.put(directory, new AttributedList<>(Collections.singletonList(p)));
+            assertEquals(1, index.get(directory).size());
+        }
+        finally {
+            index.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        for(int i = 0; i < 10; i++) {
+            index.put(directory, new AttributedList<>(Collections.singletonList(new Path(directory, String.valueOf(i), EnumSet.of(Path.Type.file)))));
+        }
+        index.put(new Path("/e", EnumSet.of(Path.Type.directory)), new AttributedList<>());
+        index.close();
+        final PersistentPathIndex reloaded = new PersistentPathIndex(file);
+        try {
+            assertEquals(new Path(directory, "9", EnumSet.of(Path.Type.file)), reloaded.get(directory).get(0));
+            assertTrue(reloaded.get(new Path("/e", EnumSet.of(Path.Type.directory))).isEmpty());
+            reloaded.put(new Path("/f", EnumSet.of(Path.Type.directory)), new AttributedList<>());
+            assertNotNull(reloaded.get(new Path("/f", EnumSet.of(Path.Type.directory))));
+            assertEquals(new Path(directory, "9", EnumSet.of(Path.Type.file)), reloaded.get(directory).get(0));
+        }
+        finally {
+            reloaded.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        try {
+            index.put(directory, new AttributedList<>(Collections.singletonList(new Path(directory, "0", EnumSet.of(Path.Type.file)))));
+            final long length = file.attributes().getSize();
+            for(int i = 1; i < 10; i++) {
+                index.put(directory, new AttributedList<>(Collections.singletonList(new Path(directory, String.valueOf(i), EnumSet.of(Path.Type.file)))));
+                // Compacted on write
+                assertTrue(file.attributes().getSize() <= length * 2);
+            }
+            assertEquals(new Path(directory, "9", EnumSet.of(Path.Type.file)), index.get(directory).get(0));
+        }
+        finally {
+            index.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSkipDecrypted() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        final Path vault = new Path("/vault", EnumSet.of(Path.Type.directory, Path.Type.vault));
+        index.put(vault, new AttributedList<>(Collections.singletonList(
+                new Path(vault, "clear", EnumSet.of(Path.Type.file, Path.Type.decrypted)))));
+        assertNull(index.get(vault));
+        // Nothing written to disk
+        assertFalse(file.exists());
+        index.close();
+    }
+
+    @Test
+    public void testRemoveSearch() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        try {
+            final Path d = new Path("/d", EnumSet.of(Path.Type.directory));
+            final Path s = new Path(d, "s", EnumSet.of(Path.Type.directory));
+            final Path dd = new Path("/dd", EnumSet.of(Path.Type.directory));
+            index.put(d, new AttributedList<>(Arrays.asList(new Path(d, "a.png", EnumSet.of(Path.Type.file)), s)));
+            index.put(s, new AttributedList<>(Arrays.asList(new Path(s, "b.png", EnumSet.of(Path.Type.file)), new Path(s, "c.gif", EnumSet.of(Path.Type.file)))));
+            index.put(dd, new AttributedList<>(Collections.singletonList(new Path(dd, "e.png", EnumSet.of(Path.Type.file)))));
+            final AttributedList<Path> found = index.search(d, new SearchFilter(".png"));
+            assertEquals(2, found.size());
+            assertTrue(found.contains(new Path(d, "a.png", EnumSet.of(Path.Type.file))));
+            assertTrue(found.contains(new Path(s, "b.png", EnumSet.of(Path.Type.file))));
+            assertEquals(3, index.search(new Path("/", EnumSet.of(Path.Type.directory)), new SearchFilter(".png")).size());
+            index.remove(d);
+            assertNull(index.get(d));
+            assertNull(index.get(s));
+            assertNotNull(index.get(dd));
+        }
+        finally {
+            index.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        try {
+            final Path d = new Path("/d", EnumSet.of(Path.Type.directory));
+            final Path s = new Path(d, "s", EnumSet.of(Path.Type.directory));
+            final Path f = new Path(s, "f", EnumSet.of(Path.Type.file));
+            index.put(new Path("/", EnumSet.of(Path.Type.directory)), new AttributedList<>(Collections.singletonList(d)));
+            index.put(d, new AttributedList<>(Collections.singletonList(s)));
+            index.put(s, new AttributedList<>(Collections.singletonList(f)));
+            index.invalidate(f);
+            assertNull(index.get(s));
+            assertNotNull(index.get(d));
+            index.put(s, new AttributedList<>(Collections.singletonList(f)));
+            index.invalidate(d);
+            assertNull(index.get(new Path("/", EnumSet.of(Path.Type.directory))));
+            assertNull(index.get(d));
+            assertNull(index.get(s));
+        }
+        finally {
+            index.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRegion() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        try {
+            final Path bucket = new Path("/b", EnumSet.of(Path.Type.directory, Path.Type.volume));
+            bucket.attributes().setRegion("eu-west-1");
+            final Path f = new Path(bucket, "f", EnumSet.of(Path.Type.file));
+            f.attributes().setRegion("eu-west-1");
+            index.put(bucket, new AttributedList<>(Collections.singletonList(f)));
+            assertEquals(f, index.get(bucket).get(0));
+            assertEquals("eu-west-1", index.get(bucket).get(0).attributes().getRegion());
+            assertTrue(index.search(bucket, new SearchFilter("f")).contains(f));
+        }
+        finally {
+            index.close();
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.ResolveCanceledException;
+import ch.cyberduck.core.exception.ResolveFailedException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.CancelCallback;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ResolverTest {
+
+    @Test
+    public void testCache() throws Exception {
+        final String hostname = String.format("%s.test", UUID.randomUUID());
+        final AtomicInteger count = new AtomicInteger();
+        final Resolver resolver = new Resolver(false, false, h -> {
+            count.incrementAndGet();
+            return new InetAddress[]{InetAddress.getByAddress(h, new byte[]{127, 0, 0, 1})};
+        });
+        assertEquals(1, resolver.resolve(hostname, CancelCallback.noop).length);
+        assertEquals(1, resolver.resolve(hostname, CancelCallback.noop).length);
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testCacheFailure() throws Exception {
+        final String hostname = String.format("%s.test", UUID.randomUUID());
+        final AtomicInteger count = new AtomicInteger();
+        final Resolver resolver = new Resolver(false, false, h -> {
+            count.incrementAndGet();
+            throw new UnknownHostException(h);
+        });
+        for(int i = 0; i < 2; i++) {
+            try {
+                resolver.resolve(hostname, CancelCallback.noop);
+                fail();
+            }
+            catch(ResolveFailedException e) {
+                assertTrue(e.getCause() instanceof UnknownHostException);
+            }
+        }
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testCacheExpiry() throws Exception {
+        final String hostname = String.format("%s.test", UUID.randomUUID());
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicLong time = new AtomicLong();
+        final Resolver resolver = new Resolver(false, false, h -> {
+            count.incrementAndGet();
+            return new InetAddress[]{InetAddress.getByAddress(h, new byte[]{127, 0, 0, 1})};
+        }, time::get);
+        final long ttl = TimeUnit.SECONDS.toMillis(PreferencesFactory.get().getLong("connection.dns.cache.ttl"));
+        resolver.resolve(hostname, CancelCallback.noop);
+        assertEquals(1, count.get());
+        time.set(ttl - 1);
+        resolver.resolve(hostname, CancelCallback.noop);
+        assertEquals(1, count.get());
+        time.set(ttl);
+        resolver.resolve(hostname, CancelCallback.noop);
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testCacheFailureExpiry() throws Exception {
+        final String hostname = String.format("%s.test", UUID.randomUUID());
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicLong time = new AtomicLong();
+        final Resolver resolver = new Resolver(false, false, h -> {
+            if(count.incrementAndGet() == 1) {
+                throw new UnknownHostException(h);
+            }
+            return new InetAddress[]{InetAddress.getByAddress(h, new byte[]{127, 0, 0, 1})};
+        }, time::get);
+        final long negative = TimeUnit.SECONDS.toMillis(PreferencesFactory.get().getLong("connection.dns.cache.ttl.negative"));
+        for(long t : new long[]{0L, negative - 1}) {
+            time.set(t);
+            try {
+                resolver.resolve(hostname, CancelCallback.noop);
+                fail();
+            }
+            catch(ResolveFailedException e) {
+                assertTrue(e.getCause() instanceof UnknownHostException);
+            }
+        }
+        assertEquals(1, count.get());
+        time.set(negative);
+        assertEquals(1, resolver.resolve(hostname, CancelCallback.noop).length);
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testCoalesceConcurrentLookups() throws Exception {
+        final String hostname = String.format("%s.test", UUID.randomUUID());
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch lookup = new CountDownLatch(1);
+        final Resolver resolver = new Resolver(false, false, h -> {
+            count.incrementAndGet();
+            started.countDown();
+            try {
+                lookup.await();
+            }
+            catch(InterruptedException e) {
+                throw new UnknownHostException(h);
+            }
+            return new InetAddress[]{InetAddress.getByAddress(h, new byte[]{127, 0, 0, 1})};
+        });
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final List<Future<InetAddress[]>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> resolver.resolve(hostname, CancelCallback.noop)));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            // Lookup in progress is returned for subsequent requests
+            final CompletableFuture<InetAddress[]> pending = resolver.lookup(hostname);
+            assertFalse(pending.isDone());
+            for(int i = 0; i < 4; i++) {
+                assertSame(pending, resolver.lookup(hostname));
+                futures.add(executor.submit(() -> resolver.resolve(hostname, CancelCallback.noop)));
+            }
+            lookup.countDown();
+            for(Future<InetAddress[]> future : futures) {
+                assertEquals(1, future.get(10, TimeUnit.SECONDS).length);
+            }
+            assertEquals(1, count.get());
+        }
+        finally {
+            lookup.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHungLookups() throws Exception {
+        final CountDownLatch started = new CountDownLatch(10);
+        final CountDownLatch lookup = new CountDownLatch(1);
+        final String resolvable = String.format("%s.test", UUID.randomUUID());
+        final Resolver resolver = new Resolver(false, false, h -> {
+            if(!h.equals(resolvable)) {
+                started.countDown();
+                try {
+                    lookup.await();
+                }
+                catch(InterruptedException e) {
+                    throw new UnknownHostException(h);
+                }
+            }
+            return new InetAddress[]{InetAddress.getByAddress(h, new byte[]{127, 0, 0, 1})};
+        });
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final List<Future<InetAddress[]>> futures = new ArrayList<>();
+            for(int i = 0; i < 10; i++) {
+                final String hostname = String.format("%s.test", UUID.randomUUID());
+                futures.add(executor.submit(() -> resolver.resolve(hostname, CancelCallback.noop)));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            // Not queued behind hung lookups
+            assertEquals(1, resolver.resolve(resolvable, CancelCallback.noop).length);
+            lookup.countDown();
+            for(Future<InetAddress[]> future : futures) {
+                assertEquals(1, future.get(10, TimeUnit.SECONDS).length);
+            }
+        }
+        finally {
+            lookup.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = ResolveCanceledException.class)
+    public void testCancel() throws Exception {
+        final String hostname = String.format("%s.test", UUID.randomUUID());
+        final Resolver resolver = new Resolver(false, false, h -> new InetAddress[]{InetAddress.getByAddress(h, new byte[]{127, 0, 0, 1})});
+        resolver.resolve(hostname, new CancelCallback() {
+            @Override
+            public void verify() throws ConnectionCanceledException {
+                throw new ConnectionCanceledException();
+            }
+        });
+    }
+
+    @Test
+    public void testInterleave() throws Exception {
+        final String hostname = String.format("%s.test", UUID.randomUUID());
+        final InetAddress v4a = InetAddress.getByAddress(hostname, new byte[]{10, 0, 0, 1});
+        final InetAddress v4b = InetAddress.getByAddress(hostname, new byte[]{10, 0, 0, 2});
+        final InetAddress v6a = InetAddress.getByAddress(hostname, new byte[]{0x20, 0x01, 0x0d, (byte) 0xb8, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1});
+        final InetAddress v6b = InetAddress.getByAddress(hostname, new byte[]{0x20, 0x01, 0x0d, (byte) 0xb8, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2});
+        final Resolver.Lookup lookup = h -> new InetAddress[]{v4a, v4b, v6a, v6b};
+        assertArrayEquals(new InetAddress[]{v6a, v4a, v6b, v4b}, new Resolver(true, true, lookup).resolve(hostname, CancelCallback.noop));
+        assertArrayEquals(new InetAddress[]{v4a, v6a, v4b, v6b}, new Resolver(false, true, lookup).resolve(hostname, CancelCallback.noop));
+        assertArrayEquals(new InetAddress[]{v6a, v6b}, new Resolver(true, false, lookup).resolve(hostname, CancelCallback.noop));
+        assertArrayEquals(new InetAddress[]{v4a, v4b, v6a, v6b}, new Resolver(false, false, lookup).resolve(hostname, CancelCallback.noop));
+    }
+}
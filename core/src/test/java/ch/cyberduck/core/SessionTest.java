@@ -0,0 +1,88 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Move;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.features.Versioning;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.vault.VaultRegistry;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class SessionTest {
+
+    @Test
+    public void testGetFeatureMemoized() {
+        final Host host = new Host(new TestProtocol());
+        host.setProperty("connection.feature.cache.enable", String.valueOf(true));
+        final NullSession session = new NullSession(host);
+        final Read read = session.getFeature(Read.class);
+        assertNotNull(read);
+        assertSame(read, session.getFeature(Read.class));
+        assertSame(session.getFeature(Write.class), session.getFeature(Write.class));
+        // Not memoized with configuration methods
+        assertNotSame(session.getFeature(Find.class), session.getFeature(Find.class));
+        assertNotSame(session.getFeature(Move.class), session.getFeature(Move.class));
+        assertNull(session.getFeature(Versioning.class));
+        session.invalidate();
+        assertNotSame(read, session.getFeature(Read.class));
+    }
+
+    @Test
+    public void testGetFeatureMemoizeDisabled() {
+        final NullSession session = new NullSession(new Host(new TestProtocol()));
+        assertNotSame(session.getFeature(Read.class), session.getFeature(Read.class));
+    }
+
+    @Test
+    public void testInvalidateWithRegistry() {
+        final Host host = new Host(new TestProtocol());
+        host.setProperty("connection.feature.cache.enable", String.valueOf(true));
+        final NullSession session = new NullSession(host);
+        final Write<?> write = session.getFeature(Write.class);
+        assertSame(write, session.getFeature(Write.class));
+        session.withRegistry(VaultRegistry.DISABLED);
+        assertNotSame(write, session.getFeature(Write.class));
+    }
+
+    @Test
+    public void testInvalidateWhileResolving() {
+        final AtomicBoolean invalidate = new AtomicBoolean(true);
+        final Host host = new Host(new TestProtocol());
+        host.setProperty("connection.feature.cache.enable", String.valueOf(true));
+        final NullSession session = new NullSession(host) {
+            @Override
+            public <T> T _getFeature(final Class<T> type) {
+                final T feature = super._getFeature(type);
+                if(invalidate.getAndSet(false)) {
+                    this.invalidate();
+                }
+                return feature;
+            }
+        };
+        final Read read = session.getFeature(Read.class);
+        // Resolved before invalidated
+        final Read resolved = session.getFeature(Read.class);
+        assertNotSame(read, resolved);
+        assertSame(resolved, session.getFeature(Read.class));
+    }
+}
@@ -0,0 +1,59 @@
+package ch.cyberduck.core;
+
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class SwapFileTransferItemCacheTest {
+
+    @Test
+    public void testEvicted() {
+        final Local temporary = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final SwapFileTransferItemCache cache = new SwapFileTransferItemCache(1, temporary);
+        final TransferItem a = new TransferItem(new Path("/a", EnumSet.of(Path.Type.directory)), new Local("/l/a"));
+        final TransferItem b = new TransferItem(new Path("/b", EnumSet.of(Path.Type.directory)), new Local("/l/b"));
+        final Path file = new Path("/a/f", EnumSet.of(Path.Type.file));
+        file.attributes().setSize(3L);
+        file.attributes().setVersionId("v");
+        final AttributedList<TransferItem> list = new AttributedList<>();
+        list.add(new TransferItem(file, new Local("/l/a/f")));
+        cache.put(a, list);
+        cache.put(b, new AttributedList<>());
+        assertTrue(temporary.exists());
+        assertEquals(2L, cache.size());
+        assertTrue(cache.isCached(a));
+        assertTrue(cache.isCached(b));
+        final AttributedList<TransferItem> read = cache.get(a);
+        assertEquals(1, read.size());
+        assertEquals(file, read.get(0).remote);
+        assertEquals(new Local("/l/a/f"), read.get(0).local);
+        assertEquals(3L, read.get(0).remote.attributes().getSize());
+        assertEquals("v", read.get(0).remote.attributes().getVersionId());
+        assertEquals(1, cache.remove(a).size());
+        assertFalse(cache.isCached(a));
+        assertEquals(1L, cache.size());
+        cache.clear();
+        assertTrue(cache.isEmpty());
+        assertFalse(temporary.exists());
+    }
+
+    @Test
+    public void testPutReplaceEvicted() {
+        final Local temporary = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final SwapFileTransferItemCache cache = new SwapFileTransferItemCache(1, temporary);
+        final TransferItem a = new TransferItem(new Path("/a", EnumSet.of(Path.Type.directory)), new Local("/l/a"));
+        final TransferItem b = new TransferItem(new Path("/b", EnumSet.of(Path.Type.directory)), new Local("/l/b"));
+        final AttributedList<TransferItem> list = new AttributedList<>();
+        list.add(new TransferItem(new Path("/a/f", EnumSet.of(Path.Type.file)), new Local("/l/a/f")));
+        cache.put(a, list);
+        cache.put(b, new AttributedList<>());
+        assertEquals(1, cache.put(a, new AttributedList<>()).size());
+        assertTrue(cache.get(a).isEmpty());
+        assertEquals(2L, cache.size());
+        cache.clear();
+    }
+}
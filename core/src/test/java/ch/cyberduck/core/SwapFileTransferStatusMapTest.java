@@ -0,0 +1,46 @@
+package ch.cyberduck.core;
+
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+public class SwapFileTransferStatusMapTest {
+
+    @Test
+    public void testSwap() {
+        final Local temporary = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Map<TransferItem, TransferStatus> table = new ConcurrentHashMap<>();
+        final SwapFileTransferStatusMap map = new SwapFileTransferStatusMap(table, temporary);
+        final TransferItem a = new TransferItem(new Path("/a", EnumSet.of(Path.Type.file)), new Local("/l/a"));
+        final TransferItem b = new TransferItem(new Path("/b", EnumSet.of(Path.Type.file)), new Local("/l/b"));
+        map.put(a, new TransferStatus().withLength(3L).complete());
+        map.put(b, new TransferStatus().withLength(5L));
+        map.swap(a);
+        assertTrue(temporary.exists());
+        assertFalse(table.containsKey(a));
+        assertFalse(map.containsKey(a));
+        assertTrue(map.containsKey(b));
+        assertEquals(2, map.size());
+        final Map<TransferItem, TransferStatus> copy = new HashMap<>(map);
+        assertEquals(2, copy.size());
+        assertEquals(3L, copy.get(a).getLength());
+        assertTrue(copy.get(a).isComplete());
+        assertEquals(new Local("/l/a"), copy.keySet().stream().filter(a::equals).findFirst().get().local);
+        assertEquals(5L, copy.get(b).getLength());
+        // Already swapped
+        map.swap(a);
+        assertEquals(2, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertTrue(table.isEmpty());
+        assertFalse(temporary.exists());
+    }
+}
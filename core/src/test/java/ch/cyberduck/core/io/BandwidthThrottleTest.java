@@ -0,0 +1,75 @@
+package ch.cyberduck.core.io;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BandwidthThrottleTest {
+
+    @Test
+    public void testUnlimited() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(BandwidthThrottle.UNLIMITED);
+        assertEquals(1000, throttle.request(1000));
+        assertEquals(1000L, throttle.getTransferred());
+    }
+
+    @Test
+    public void testParent() {
+        final BandwidthThrottle parent = new BandwidthThrottle(100f);
+        final BandwidthThrottle throttle = new BandwidthThrottle(BandwidthThrottle.UNLIMITED, parent);
+        assertEquals(10, throttle.request(1000));
+        assertEquals(10L, throttle.getTransferred());
+        assertEquals(10L, parent.getTransferred());
+    }
+
+    @Test
+    public void testParentLimitExceeded() {
+        final BandwidthThrottle parent = new BandwidthThrottle(50f);
+        final BandwidthThrottle throttle = new BandwidthThrottle(100f, parent);
+        assertEquals(5, throttle.request(1000));
+        // Bytes not allowed by parent are returned to window
+        assertEquals(5, throttle.request(1000));
+        assertEquals(10L, throttle.getTransferred());
+        assertEquals(10L, parent.getTransferred());
+    }
+
+    @Test
+    public void testLimited() {
+        final BandwidthThrottle parent = new BandwidthThrottle(100f);
+        final BandwidthThrottle throttle = new BandwidthThrottle(50f, parent);
+        assertEquals(5, throttle.request(1000));
+        assertEquals(5L, parent.getTransferred());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final BandwidthThrottle throttle = new BandwidthThrottle(1000f);
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Integer>> results = new ArrayList<>();
+            for(int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> throttle.request(100)));
+            }
+            int total = 0;
+            for(Future<Integer> result : results) {
+                final int allowed = result.get();
+                assertTrue(allowed > 0);
+                total += allowed;
+            }
+            assertEquals(total, throttle.getTransferred());
+            // Only 100 bytes are available per window
+            assertTrue(throttle.getWaits() > 0);
+            assertTrue(throttle.getWaitTime() > 0);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+}
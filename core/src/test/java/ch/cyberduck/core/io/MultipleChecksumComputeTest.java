@@ -0,0 +1,85 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.dropbox.DropboxContentHasher;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MultipleChecksumComputeTest {
+
+    @Test
+    public void testComputeStream() throws Exception {
+        final Map<HashAlgorithm, Checksum> checksums = ChecksumComputeFactory.get(EnumSet.of(HashAlgorithm.md5, HashAlgorithm.crc32, HashAlgorithm.cdash64))
+                .compute(new NullInputStream(1L), new TransferStatus());
+        assertEquals(new MD5ChecksumCompute().compute(new NullInputStream(1L), new TransferStatus()), checksums.get(HashAlgorithm.md5));
+        assertEquals("d202ef8d", checksums.get(HashAlgorithm.crc32).hash);
+        assertEquals(Checksum.NONE, checksums.get(HashAlgorithm.cdash64));
+    }
+
+    @Test
+    public void testComputeFile() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(5 * DropboxContentHasher.BLOCK_SIZE + 1);
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        Files.write(Paths.get(file.getAbsolute()), content);
+        final EnumSet<HashAlgorithm> algorithms = EnumSet.of(HashAlgorithm.md5, HashAlgorithm.sha1, HashAlgorithm.sha256,
+                HashAlgorithm.sha512, HashAlgorithm.crc32, HashAlgorithm.dropbox_content_hash);
+        final MultipleChecksumCompute compute = new MultipleChecksumCompute(algorithms, 16384, 2L * DropboxContentHasher.BLOCK_SIZE, 3);
+        {
+            final Map<HashAlgorithm, Checksum> checksums = compute.compute(file, new TransferStatus());
+            for(HashAlgorithm algorithm : algorithms) {
+                assertEquals(ChecksumComputeFactory.get(algorithm).compute(new ByteArrayInputStream(content), new TransferStatus()),
+                        checksums.get(algorithm));
+            }
+            assertEquals(checksums, compute.compute(new ByteArrayInputStream(content), new TransferStatus()));
+        }
+        {
+            final TransferStatus status = new TransferStatus().withOffset(3L).withLength(DropboxContentHasher.BLOCK_SIZE + 5L);
+            final Map<HashAlgorithm, Checksum> checksums = compute.compute(file, status);
+            for(HashAlgorithm algorithm : algorithms) {
+                assertEquals(ChecksumComputeFactory.get(algorithm).compute(new ByteArrayInputStream(content), status),
+                        checksums.get(algorithm));
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void testComputeFileSingleAlgorithm() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(1025);
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        Files.write(Paths.get(file.getAbsolute()), content);
+        final Map<HashAlgorithm, Checksum> checksums = ChecksumComputeFactory.get(EnumSet.of(HashAlgorithm.sha256)).compute(file, new TransferStatus());
+        assertEquals(1, checksums.size());
+        assertEquals(new SHA256ChecksumCompute().compute(new ByteArrayInputStream(content), new TransferStatus()), checksums.get(HashAlgorithm.sha256));
+        file.delete();
+        assertFalse(file.exists());
+    }
+}
@@ -41,6 +41,19 @@ public class LocalTest {
         file.delete();
     }
 
+    @Test
+    public void testWritePosition() throws Exception {
+        final Local file = new DefaultTemporaryFileService().create(new AlphanumericRandomStringService().random());
+        try (OutputStream out = file.getOutputStream(2L)) {
+            out.write("cd".getBytes(StandardCharsets.UTF_8));
+        }
+        try (OutputStream out = file.getOutputStream(0L)) {
+            out.write("ab".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals("abcd", IOUtils.toString(file.getInputStream(), StandardCharsets.UTF_8));
+        file.delete();
+    }
+
     @Test
     public void testList() throws Exception {
         assertFalse(new Local("../profiles").list().isEmpty());
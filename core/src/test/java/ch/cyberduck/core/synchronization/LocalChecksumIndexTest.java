@@ -0,0 +1,98 @@
+package ch.cyberduck.core.synchronization;
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LocalChecksumIndexTest {
+
+    @Test
+    public void testChecksum() throws Exception {
+        final Local index = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        Files.write(Paths.get(file.getAbsolute()), "a".getBytes(StandardCharsets.UTF_8));
+        final AtomicInteger count = new AtomicInteger();
+        final LocalChecksumIndex first = new LocalChecksumIndex(index) {
+            @Override
+            protected Checksum compute(final Local local, final HashAlgorithm algorithm) throws BackgroundException {
+                count.incrementAndGet();
+                return super.compute(local, algorithm);
+            }
+        };
+        final Checksum checksum = first.checksum(file, HashAlgorithm.md5);
+        assertEquals("0cc175b9c0f1b6a831c399e269772661", checksum.hash);
+        assertEquals(checksum, first.checksum(file, HashAlgorithm.md5));
+        assertEquals(1, count.get());
+        assertNotEquals(checksum, first.checksum(file, HashAlgorithm.sha256));
+        assertEquals(2, count.get());
+        first.close();
+        final LocalChecksumIndex second = new LocalChecksumIndex(index) {
+            @Override
+            protected Checksum compute(final Local local, final HashAlgorithm algorithm) throws BackgroundException {
+                count.incrementAndGet();
+                return super.compute(local, algorithm);
+            }
+        };
+        // Read from index file
+        assertEquals(checksum, second.checksum(file, HashAlgorithm.md5));
+        assertEquals(2, count.get());
+        Files.write(Paths.get(file.getAbsolute()), "b".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(Paths.get(file.getAbsolute()), FileTime.fromMillis(System.currentTimeMillis() + 10000L));
+        assertEquals("92eb5ffee6ae2fec3ad71c777531578f", second.checksum(file, HashAlgorithm.md5).hash);
+        assertEquals(3, count.get());
+        second.close();
+        file.delete();
+        index.delete();
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        final Local index = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local a = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        Files.write(Paths.get(a.getAbsolute()), "a".getBytes(StandardCharsets.UTF_8));
+        final Local b = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        Files.write(Paths.get(b.getAbsolute()), "b".getBytes(StandardCharsets.UTF_8));
+        final AtomicInteger count = new AtomicInteger();
+        final LocalChecksumIndex first = new LocalChecksumIndex(index, 1) {
+            @Override
+            protected Checksum compute(final Local local, final HashAlgorithm algorithm) throws BackgroundException {
+                count.incrementAndGet();
+                return super.compute(local, algorithm);
+            }
+        };
+        first.checksum(a, HashAlgorithm.md5);
+        first.checksum(b, HashAlgorithm.md5);
+        assertEquals(2, count.get());
+        // Evicted
+        first.checksum(a, HashAlgorithm.md5);
+        assertEquals(3, count.get());
+        b.delete();
+        first.checksum(a, HashAlgorithm.sha256);
+        assertEquals(4, count.get());
+        first.close();
+        final LocalChecksumIndex second = new LocalChecksumIndex(index, 2) {
+            @Override
+            protected Checksum compute(final Local local, final HashAlgorithm algorithm) throws BackgroundException {
+                count.incrementAndGet();
+                return super.compute(local, algorithm);
+            }
+        };
+        second.checksum(a, HashAlgorithm.sha256);
+        assertEquals(4, count.get());
+        second.close();
+        a.delete();
+        index.delete();
+    }
+}
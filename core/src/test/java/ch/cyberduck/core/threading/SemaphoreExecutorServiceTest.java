@@ -0,0 +1,73 @@
+package ch.cyberduck.core.threading;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SemaphoreExecutorServiceTest {
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        final SemaphoreExecutorService executor = new SemaphoreExecutorService(new NamedThreadFactory("test"), 2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            final int n = i;
+            futures.add(executor.submit(() -> {
+                maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5L);
+                running.decrementAndGet();
+                return n;
+            }));
+        }
+        for(int i = 0; i < 20; i++) {
+            assertEquals(i, futures.get(i).get(), 0);
+        }
+        assertTrue(maximum.get() <= 2);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testShutdown() {
+        final SemaphoreExecutorService executor = new SemaphoreExecutorService(new NamedThreadFactory("test"), 1);
+        executor.shutdown();
+        executor.execute(() -> fail());
+    }
+
+    @Test
+    public void testShutdownNow() throws Exception {
+        final SemaphoreExecutorService executor = new SemaphoreExecutorService(new NamedThreadFactory("test"), 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final Future<Object> running = executor.submit(() -> {
+            started.countDown();
+            Thread.sleep(10000L);
+            return null;
+        });
+        started.await();
+        final Future<?> queued = executor.submit(() -> fail());
+        final List<Runnable> drained = executor.shutdownNow();
+        assertEquals(1, drained.size());
+        assertSame(queued, drained.get(0));
+        assertTrue(queued.isCancelled());
+        assertTrue(executor.awaitTermination(1L, TimeUnit.SECONDS));
+        assertFalse(running.isCancelled());
+    }
+
+    @Test
+    public void testVirtualThreadPool() throws Exception {
+        final VirtualThreadPool pool = new VirtualThreadPool(1);
+        assertEquals(1, pool.execute(() -> 1).get(), 0);
+        pool.shutdown(true);
+    }
+}
@@ -20,6 +20,7 @@ import org.junit.Test;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class ThreadPoolFactoryTest {
 
@@ -29,4 +30,13 @@ public class ThreadPoolFactoryTest {
                 "prefix", 1, ThreadPool.Priority.low, new LinkedBlockingQueue<>(), new LoggingUncaughtExceptionHandler()
         ));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetVirtual() {
+        final ThreadPool pool = new ThreadPoolFactory(VirtualThreadPool.class).create(
+                "prefix", 1, ThreadPool.Priority.low, new LinkedBlockingQueue<>(), new LoggingUncaughtExceptionHandler()
+        );
+        assertTrue(pool instanceof VirtualThreadPool);
+        pool.shutdown(true);
+    }
+}
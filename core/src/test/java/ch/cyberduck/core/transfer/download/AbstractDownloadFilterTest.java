@@ -85,6 +85,30 @@ public class AbstractDownloadFilterTest {
         }
     }
 
+    @Test
+    public void testFindSegmentSizeThroughput() {
+        // 1 MiB/s per connection for 30 seconds
+        assertEquals(convertSize(30, MiB), AbstractDownloadFilter.findSegmentSize(
+                convertSize(16, GiB), 2, convertSize(1, MiB), 30L,
+                convertSize(10, MiB), convertSize(128, MiB), 1024));
+        // Limited to maximum segment size
+        assertEquals(convertSize(128, MiB), AbstractDownloadFilter.findSegmentSize(
+                convertSize(16, GiB), 2, convertSize(100, MiB), 30L,
+                convertSize(10, MiB), convertSize(128, MiB), 1024));
+        // At least one segment per connection
+        assertEquals(convertSize(50, MiB), AbstractDownloadFilter.findSegmentSize(
+                convertSize(100, MiB), 2, convertSize(100, MiB), 30L,
+                convertSize(10, MiB), convertSize(128, MiB), 128));
+        // Not below threshold for slow connection
+        assertEquals(convertSize(10, MiB), AbstractDownloadFilter.findSegmentSize(
+                convertSize(100, MiB), 2, 1024d, 30L,
+                convertSize(10, MiB), convertSize(128, MiB), 128));
+        // Not exceeding maximum number of segments
+        assertEquals(convertSize(128, MiB), AbstractDownloadFilter.findSegmentSize(
+                convertSize(16, GiB), 2, convertSize(1, MiB), 30L,
+                convertSize(10, MiB), convertSize(128, MiB), 128));
+    }
+
     class SegmentSizePair {
         public final long length;
         public final int connections;
@@ -1,9 +1,13 @@
 package ch.cyberduck.core.transfer.download;
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
+import ch.cyberduck.core.LocalFactory;
 import ch.cyberduck.core.NullLocal;
+import ch.cyberduck.core.NullReadFeature;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.NullTransferSession;
 import ch.cyberduck.core.Path;
@@ -144,4 +148,61 @@ public class ResumeFilterTest {
         final TransferStatus status = f.prepare(p, local, new TransferStatus(), new DisabledProgressListener());
         assertFalse(status.isAppend());
     }
+
+    @Test
+    public void testPrepareSegmentsPreallocated() throws Exception {
+        final Host host = new Host(new TestProtocol());
+        final NullSession session = new NullTransferSession(host) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getFeature(final Class<T> type, final T feature) {
+                if(type == Read.class) {
+                    return (T) new NullReadFeature() {
+                        @Override
+                        public boolean offset(final Path file) {
+                            return true;
+                        }
+                    };
+                }
+                return super.getFeature(type, feature);
+            }
+        };
+        final DownloadFilterOptions options = new DownloadFilterOptions(host);
+        options.segments = true;
+        options.preallocate = true;
+        options.permissions = false;
+        options.timestamp = false;
+        options.icon = false;
+        options.quarantine = false;
+        options.wherefrom = false;
+        options.open = false;
+        final ResumeFilter f = new ResumeFilter(new DisabledDownloadSymlinkResolver(), session, options);
+        final Path p = new Path("a", EnumSet.of(Path.Type.file));
+        p.attributes().setSize(30 * 1024 * 1024L);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final TransferStatus status = f.prepare(p, local, new TransferStatus().exists(true), new DisabledProgressListener());
+            assertTrue(status.isSegmented());
+            for(TransferStatus segment : status.getSegments()) {
+                assertTrue(segment.isPreallocated());
+                assertEquals(local, segment.getRename().local);
+            }
+            f.apply(p, local, status, new DisabledProgressListener());
+            assertEquals(p.attributes().getSize(), local.attributes().getSize());
+            final TransferStatus first = status.getSegments().get(0);
+            f.complete(p, local, first.complete(), new DisabledProgressListener());
+            assertTrue(f.accept(p, local, new TransferStatus().exists(true)));
+            final TransferStatus resume = f.prepare(p, local, new TransferStatus().exists(true), new DisabledProgressListener());
+            assertTrue(resume.getSegments().get(0).isComplete());
+            assertFalse(resume.getSegments().get(1).isComplete());
+            assertEquals(first.getLength(), resume.getOffset());
+            f.apply(p, local, resume, new DisabledProgressListener());
+            f.complete(p, local, resume.complete(), new DisabledProgressListener());
+            assertTrue(local.exists());
+            assertFalse(LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName())).exists());
+        }
+        finally {
+            local.delete();
+        }
+    }
 }
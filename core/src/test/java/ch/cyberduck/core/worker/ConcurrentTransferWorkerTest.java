@@ -22,6 +22,7 @@ import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.DisabledNotificationService;
 import ch.cyberduck.core.pool.DefaultSessionPool;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.ssl.DefaultX509KeyManager;
 import ch.cyberduck.core.ssl.DisabledX509TrustManager;
 import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
@@ -29,8 +30,10 @@ import ch.cyberduck.core.transfer.DisabledTransferPrompt;
 import ch.cyberduck.core.transfer.DownloadTransfer;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
+import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferItem;
 import ch.cyberduck.core.transfer.TransferOptions;
+import ch.cyberduck.core.transfer.TransferPathFilter;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.UploadTransfer;
@@ -43,6 +46,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -209,6 +213,113 @@ public class ConcurrentTransferWorkerTest {
         worker.cleanup(true);
     }
 
+    @Test
+    public void testDownloadPipeline() throws Exception {
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final Set<Path> created = ConcurrentHashMap.newKeySet();
+        final Set<Path> transferred = ConcurrentHashMap.newKeySet();
+        final Set<Path> orphaned = ConcurrentHashMap.newKeySet();
+        final Host host = new Host(new TestProtocol(), "test.cyberduck.ch");
+        final Transfer t = new DownloadTransfer(host, root, new NullLocal("/t")) {
+            @Override
+            public List<TransferItem> list(final Session<?> session, final Path directory, final Local local, final ListProgressListener listener) {
+                final List<TransferItem> children = new ArrayList<>();
+                for(int i = 1; i <= 5; i++) {
+                    if(root.equals(directory)) {
+                        final Path d = new Path(directory, "d" + i, EnumSet.of(Path.Type.directory));
+                        children.add(new TransferItem(d, new NullLocal(d.getAbsolute())));
+                    }
+                    else {
+                        final Path f = new Path(directory, "f" + i, EnumSet.of(Path.Type.file));
+                        children.add(new TransferItem(f, new NullLocal(f.getAbsolute())));
+                    }
+                }
+                return children;
+            }
+
+            @Override
+            public void pre(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files,
+                            final TransferPathFilter filter, final TransferErrorCallback error, final ProgressListener progress, final ConnectionCallback callback) {
+                // Create directories in transfer as with copy
+            }
+
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, final Local local,
+                                 final TransferOptions options, final TransferStatus overall, final TransferStatus segment,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                if(file.isDirectory()) {
+                    try {
+                        // Slow creation of directory
+                        Thread.sleep(100L);
+                    }
+                    catch(InterruptedException e) {
+                        fail();
+                    }
+                    created.add(file);
+                }
+                else {
+                    if(!created.contains(file.getParent())) {
+                        orphaned.add(file);
+                    }
+                    transferred.add(file);
+                }
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return new AbstractDownloadFilter(new DisabledDownloadSymlinkResolver(), source, null) {
+                    @Override
+                    public boolean accept(final Path file, final Local local, final TransferStatus parent) {
+                        return true;
+                    }
+
+                    @Override
+                    public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) {
+                        return new TransferStatus();
+                    }
+
+                    @Override
+                    public void apply(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+
+                    @Override
+                    public void complete(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+                };
+            }
+        };
+        final LoginConnectionService connection = new TestLoginConnectionService();
+        final DefaultSessionPool pool = new DefaultSessionPool(connection, new DisabledX509TrustManager(), new DefaultX509KeyManager(),
+                new DefaultVaultRegistry(new DisabledPasswordCallback()),
+                new DisabledTranscriptListener(), host);
+        final ConcurrentTransferWorker worker = new ConcurrentTransferWorker(
+                pool, SessionPool.DISCONNECTED, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        }, new DisabledTransferErrorCallback(),
+                new DisabledLoginCallback(), new DisabledProgressListener(), new DisabledStreamListener(), new DisabledNotificationService()
+        );
+        pool.withMaxTotal(5);
+        PreferencesFactory.get().setProperty("queue.transfer.pipeline.enable", true);
+        try {
+            final Session<?> session = worker.borrow(ConcurrentTransferWorker.Connection.source);
+            assertTrue(worker.run(session));
+            worker.release(session, ConcurrentTransferWorker.Connection.source, null);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.transfer.pipeline.enable");
+            worker.cleanup(true);
+        }
+        assertEquals(6, created.size());
+        assertEquals(25, transferred.size());
+        assertTrue(orphaned.isEmpty());
+    }
+
     @Test
     public void testBorrowTimeoutNoSessionAvailable() throws Exception {
         final Host host = new Host(new TestProtocol(), "localhost", new Credentials("u", "p"));
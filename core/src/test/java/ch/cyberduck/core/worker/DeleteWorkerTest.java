@@ -6,12 +6,14 @@ import ch.cyberduck.core.DisabledLoginCallback;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.junit.Test;
@@ -20,7 +22,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -72,6 +76,49 @@ public class DeleteWorkerTest {
         assertEquals(hashCode, worker.hashCode());
     }
 
+    @Test
+    public void testCompileConcurrentList() throws Exception {
+        final Session session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Delete.class) {
+                    return (T) new Delete() {
+                        @Override
+                        public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) {
+                            assertEquals(new Path("/t/a", EnumSet.of(Path.Type.file)), new ArrayList<>(files.keySet()).get(0));
+                            assertEquals(new Path("/t/d/b", EnumSet.of(Path.Type.file)), new ArrayList<>(files.keySet()).get(1));
+                            assertEquals(new Path("/t/d", EnumSet.of(Path.Type.directory)), new ArrayList<>(files.keySet()).get(2));
+                            assertEquals(new Path("/t", EnumSet.of(Path.Type.directory)), new ArrayList<>(files.keySet()).get(3));
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                if(file.equals(new Path("/t", EnumSet.of(Path.Type.directory)))) {
+                    return new AttributedList<>(Arrays.asList(
+                            new Path("/t/a", EnumSet.of(Path.Type.file)),
+                            new Path("/t/d", EnumSet.of(Path.Type.directory))
+                    ));
+                }
+                if(file.equals(new Path("/t/d", EnumSet.of(Path.Type.directory)))) {
+                    return new AttributedList<>(Collections.singletonList(
+                            new Path("/t/d/b", EnumSet.of(Path.Type.file))
+                    ));
+                }
+                fail();
+                return null;
+            }
+        };
+        final DeleteWorker worker = new DeleteWorker(new DisabledLoginCallback(),
+                Collections.singletonList(new Path("/t", EnumSet.of(Path.Type.directory))),
+                new DisabledProgressListener(), new NullFilter<>(), false, new Delete.DisabledCallback(), new SessionPool.SingleSessionPool(session));
+        assertEquals(4, worker.run(session).size());
+    }
+
     @Test
     public void testCompileRecursiveDeleteSupported() throws Exception {
         final Session session = new NullSession(new Host(new TestProtocol())) {
@@ -170,6 +217,52 @@ public class DeleteWorkerTest {
         assertEquals(1, worker.run(session).size());
     }
 
+    @Test
+    public void testCompileRecursiveDeleteSupportedWideAndDeep() throws Exception {
+        final Session session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Delete.class) {
+                    return (T) new Delete() {
+                        @Override
+                        public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) {
+                            assertEquals(2, files.size());
+                            assertEquals(new Path("/t", EnumSet.of(Path.Type.directory)), new ArrayList<>(files.keySet()).get(0));
+                            assertEquals(new Path("/tt", EnumSet.of(Path.Type.file)), new ArrayList<>(files.keySet()).get(1));
+                            files.keySet().forEach(callback::delete);
+                        }
+
+                        @Override
+                        public boolean isRecursive() {
+                            return true;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final List<Path> files = new ArrayList<>();
+        final Path directory = new Path("/t", EnumSet.of(Path.Type.directory));
+        files.add(directory);
+        files.add(new Path("/tt", EnumSet.of(Path.Type.file)));
+        final Path wide = new Path(directory, "w", EnumSet.of(Path.Type.directory));
+        files.add(wide);
+        for(int i = 0; i < 100000; i++) {
+            files.add(new Path(wide, String.format("f-%d", i), EnumSet.of(Path.Type.file)));
+        }
+        Path deep = directory;
+        for(int i = 0; i < 1000; i++) {
+            deep = new Path(deep, "d", EnumSet.of(Path.Type.directory));
+            files.add(deep);
+        }
+        final AtomicInteger deleted = new AtomicInteger();
+        final DeleteWorker worker = new DeleteWorker(new DisabledLoginCallback(), files, new DisabledProgressListener(),
+                new NullFilter<>(), false, file -> deleted.incrementAndGet());
+        assertEquals(2, worker.run(session).size());
+        assertEquals(files.size(), deleted.get());
+    }
+
     @Test
     public void testSymlink() throws Exception {
         final Session session = new NullSession(new Host(new TestProtocol())) {
@@ -23,14 +23,14 @@ import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.ui.browser.SearchFilter;
 
 import org.junit.Test;
 
 import java.util.EnumSet;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class SearchWorkerTest {
 
@@ -102,4 +102,38 @@ public class SearchWorkerTest {
         assertTrue(cache.get(new Path("/folder", EnumSet.of(Path.Type.directory))).contains(
             new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.gif", EnumSet.of(Path.Type.file))));
     }
+
+    @Test
+    public void testRunConcurrent() throws Exception {
+        final PathCache cache = new PathCache(Integer.MAX_VALUE);
+        final AttributedList<Path> root = new AttributedList<>();
+        root.add(new Path("/t1.png", EnumSet.of(Path.Type.file)));
+        final Path folder = new Path("/folder", EnumSet.of(Path.Type.directory));
+        root.add(folder);
+        final Path folder2 = new Path("/folder2", EnumSet.of(Path.Type.directory));
+        root.add(folder2);
+        cache.put(new Path("/", EnumSet.of(Path.Type.directory)), root);
+        final AttributedList<Path> folderContents = new AttributedList<>();
+        final Path subfolder = new Path(folder, "subfolder", EnumSet.of(Path.Type.directory));
+        folderContents.add(subfolder);
+        folderContents.add(new Path(folder, "t2.gif", EnumSet.of(Path.Type.file)));
+        cache.put(folder, folderContents);
+        final AttributedList<Path> subfolderContents = new AttributedList<>();
+        subfolderContents.add(new Path(subfolder, "t3.png", EnumSet.of(Path.Type.file)));
+        cache.put(subfolder, subfolderContents);
+        final AttributedList<Path> folder2Contents = new AttributedList<>();
+        folder2Contents.add(new Path(folder2, "empty", EnumSet.of(Path.Type.directory)));
+        cache.put(folder2, folder2Contents);
+        cache.put(new Path(folder2, "empty", EnumSet.of(Path.Type.directory)), new AttributedList<>());
+        final NullSession session = new NullSession(new Host(new TestProtocol()));
+        final AttributedList<Path> found = new SearchWorker(new Path("/", EnumSet.of(Path.Type.directory)),
+                new SearchFilter(".png"), cache, new DisabledListProgressListener(), new SessionPool.SingleSessionPool(session)).run(session);
+        assertEquals(4, found.size());
+        assertTrue(found.contains(new Path("/t1.png", EnumSet.of(Path.Type.file))));
+        assertTrue(found.contains(folder));
+        assertTrue(found.contains(subfolder));
+        assertTrue(found.contains(new Path(subfolder, "t3.png", EnumSet.of(Path.Type.file))));
+        assertFalse(found.contains(folder2));
+        assertFalse(found.contains(new Path(folder2, "empty", EnumSet.of(Path.Type.directory))));
+    }
 }
@@ -3,6 +3,7 @@ package ch.cyberduck.core.worker;
 import ch.cyberduck.core.*;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ListCanceledException;
+import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.pool.StatelessSessionPool;
 import ch.cyberduck.core.threading.MainAction;
 import ch.cyberduck.core.threading.WorkerBackgroundAction;
@@ -38,6 +39,83 @@ public class SessionListWorkerTest {
         assertTrue(cache.containsKey(new Path("/home/jenkins", EnumSet.of(Path.Type.directory))));
     }
 
+    @Test
+    public void testRunWithIndex() throws Exception {
+        final Host host = new Host(new TestProtocol());
+        final Path directory = new Path("/home/jenkins", EnumSet.of(Path.Type.directory));
+        final Session<?> session = new NullSession(host) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                return new AttributedList<>(Collections.singletonList(new Path(directory, "f2", EnumSet.of(Path.Type.file))));
+            }
+        };
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        try {
+            index.put(directory, new AttributedList<>(Collections.singletonList(new Path(directory, "f1", EnumSet.of(Path.Type.file)))));
+            final AttributedList<Path> chunks = new AttributedList<>();
+            final AttributedList<Path> list = new SessionListWorker(new PathCache(1), directory, new DisabledListProgressListener() {
+                @Override
+                public void chunk(final Path parent, final AttributedList<Path> list) {
+                    chunks.addAll(list);
+                }
+            }, index).run(session);
+            assertEquals(new Path(directory, "f1", EnumSet.of(Path.Type.file)), chunks.get(0));
+            assertEquals(new Path(directory, "f2", EnumSet.of(Path.Type.file)), list.get(0));
+            assertEquals(list, index.get(directory));
+        }
+        finally {
+            index.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRunWithIndexNotfound() throws Exception {
+        final Host host = new Host(new TestProtocol());
+        final Path directory = new Path("/home/jenkins", EnumSet.of(Path.Type.directory));
+        final Session<?> session = new NullSession(host) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) throws BackgroundException {
+                throw new NotfoundException(file.getAbsolute());
+            }
+        };
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        try {
+            index.put(directory, new AttributedList<>(Collections.singletonList(new Path(directory, "f1", EnumSet.of(Path.Type.file)))));
+            try {
+                new SessionListWorker(new PathCache(1), directory, new DisabledListProgressListener(), index).run(session);
+                fail();
+            }
+            catch(NotfoundException e) {
+                // Expected
+            }
+            assertNull(index.get(directory));
+        }
+        finally {
+            index.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRunVaultNotIndexed() throws Exception {
+        final Host host = new Host(new TestProtocol());
+        final Path directory = new Path("/home/vault", EnumSet.of(Path.Type.directory, Path.Type.vault));
+        final Session<?> session = new NullSession(host) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                return new AttributedList<>(Collections.singletonList(new Path(file, "f1", EnumSet.of(Path.Type.file))));
+            }
+        };
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final PersistentPathIndex index = new PersistentPathIndex(file);
+        assertEquals(1, new SessionListWorker(new PathCache(1), directory, new DisabledListProgressListener(), index).run(session).size());
+        assertNull(index.get(directory));
+        index.close();
+    }
+
     @Test
     public void testCacheNotFoundWithController() throws Exception {
         final Host host = new Host(new TestProtocol(), "localhost");
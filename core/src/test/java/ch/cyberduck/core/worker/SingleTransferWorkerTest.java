@@ -1,5 +1,6 @@
 package ch.cyberduck.core.worker;
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DisabledLoginCallback;
@@ -18,8 +19,10 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.io.DisabledStreamListener;
+import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.DisabledNotificationService;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
 import ch.cyberduck.core.transfer.DisabledTransferPrompt;
 import ch.cyberduck.core.transfer.DownloadTransfer;
@@ -34,8 +37,11 @@ import ch.cyberduck.core.transfer.download.AbstractDownloadFilter;
 
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
@@ -252,6 +258,74 @@ public class SingleTransferWorkerTest {
         assertTrue(worker.getCache().isEmpty());
     }
 
+    @Test
+    public void testDownloadPipeline() throws Exception {
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final Path directory = new Path(root, "d", EnumSet.of(Path.Type.directory));
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        new DefaultLocalDirectoryFeature().mkdir(local);
+        final Set<Path> transferred = new HashSet<>();
+        final Transfer t = new DownloadTransfer(new Host(new TestProtocol()), root, local) {
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, Local local,
+                                 final TransferOptions options, final TransferStatus overall, final TransferStatus segment,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                if(file.isFile()) {
+                    transferred.add(file);
+                }
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return super.filter(source, destination, action, listener).withAttributes(new AttributesFinder() {
+                    @Override
+                    public PathAttributes find(final Path file, final ListProgressListener listener) {
+                        return file.attributes();
+                    }
+                });
+            }
+        };
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                final AttributedList<Path> children = new AttributedList<>();
+                if(file.equals(root)) {
+                    children.add(new Path(root, "a", EnumSet.of(Path.Type.file)));
+                    children.add(directory);
+                    children.add(new Path(root, "b", EnumSet.of(Path.Type.file)));
+                }
+                if(file.equals(directory)) {
+                    children.add(new Path(directory, "c", EnumSet.of(Path.Type.file)));
+                }
+                return children;
+            }
+        };
+        final SingleTransferWorker worker = new SingleTransferWorker(session, session, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        }, new DisabledTransferErrorCallback(),
+            new DisabledProgressListener(), new DisabledStreamListener(), new DisabledLoginCallback(), new DisabledNotificationService());
+        PreferencesFactory.get().setProperty("queue.transfer.pipeline.enable", true);
+        PreferencesFactory.get().setProperty("queue.transfer.pipeline.lookahead", 1);
+        try {
+            assertTrue(worker.run(session));
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.transfer.pipeline.enable");
+            PreferencesFactory.get().deleteProperty("queue.transfer.pipeline.lookahead");
+            new Local(local, directory.getName()).delete();
+            local.delete();
+        }
+        assertEquals(new HashSet<>(Arrays.asList(
+            new Path(root, "a", EnumSet.of(Path.Type.file)),
+            new Path(root, "b", EnumSet.of(Path.Type.file)),
+            new Path(directory, "c", EnumSet.of(Path.Type.file)))), transferred);
+        assertTrue(worker.getCache().isEmpty());
+    }
+
     @Test(expected = NotfoundException.class)
     public void testUploadFileNotFound() throws Exception {
         // #7791
@@ -15,6 +15,8 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.ProxyInputStream;
 import org.cryptomator.cryptolib.api.CryptoException;
@@ -23,7 +25,14 @@ import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CryptoInputStream extends ProxyInputStream {
 
@@ -33,19 +42,34 @@ public class CryptoInputStream extends ProxyInputStream {
 
     private ByteBuffer buffer = ByteBuffer.allocate(0);
 
+    /**
+     * Decrypted chunks not yet read
+     */
+    private final Deque<ByteBuffer> decrypted = new ArrayDeque<>();
+
     /**
      * Position proxy content cryptor
      */
     private long chunkIndexOffset;
     private final int chunkSize;
+    /**
+     * Number of chunks to read ahead and decrypt concurrently
+     */
+    private final int chunks;
 
     public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset) {
+        this(proxy, cryptor, header, chunkIndexOffset, PreferencesFactory.get().getInteger("cryptomator.cryptor.chunks"));
+    }
+
+    public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset,
+                             final int chunks) {
         super(proxy);
         this.proxy = proxy;
         this.cryptor = cryptor;
         this.header = header;
         this.chunkSize = cryptor.ciphertextChunkSize();
         this.chunkIndexOffset = chunkIndexOffset;
+        this.chunks = Math.max(1, chunks);
     }
 
     @Override
@@ -80,19 +104,68 @@ public class CryptoInputStream extends ProxyInputStream {
     }
 
     private int readNextChunk() throws IOException {
-        final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
-        final int read = IOUtils.read(proxy, ciphertextBuf.array());
-        if(read == 0) {
+        if(decrypted.isEmpty()) {
+            final int read = this.readNextChunks();
+            if(read == IOUtils.EOF) {
+                return IOUtils.EOF;
+            }
+        }
+        buffer = decrypted.poll();
+        return buffer.remaining();
+    }
+
+    /**
+     * Read up to the configured number of chunks and decrypt concurrently
+     *
+     * @return Number of ciphertext bytes read or EOF
+     */
+    private int readNextChunks() throws IOException {
+        final List<ByteBuffer> ciphertext = new ArrayList<>();
+        int total = 0;
+        for(int i = 0; i < chunks; i++) {
+            final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
+            final int read = IOUtils.read(proxy, ciphertextBuf.array());
+            if(read == 0) {
+                break;
+            }
+            ciphertextBuf.position(read);
+            ciphertextBuf.flip();
+            ciphertext.add(ciphertextBuf);
+            total += read;
+            if(read < chunkSize) {
+                // Last chunk
+                break;
+            }
+        }
+        if(ciphertext.isEmpty()) {
             return IOUtils.EOF;
         }
-        ciphertextBuf.position(read);
-        ciphertextBuf.flip();
         try {
-            buffer = cryptor.decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+            if(ciphertext.size() == 1) {
+                decrypted.add(cryptor.decryptChunk(ciphertext.get(0), chunkIndexOffset++, header, true));
+                return total;
+            }
+            final List<Future<ByteBuffer>> futures = new ArrayList<>();
+            for(ByteBuffer ciphertextBuf : ciphertext) {
+                final long chunkIndex = chunkIndexOffset++;
+                futures.add(CryptoThreadPool.get().execute(() -> cryptor.decryptChunk(ciphertextBuf, chunkIndex, header, true)));
+            }
+            for(Future<ByteBuffer> future : futures) {
+                decrypted.add(future.get());
+            }
         }
         catch(CryptoException e) {
             throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
         }
-        return read;
+        catch(InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof CryptoException) {
+                throw new IOException(e.getCause().getMessage(), new CryptoAuthenticationException(e.getCause().getMessage(), (CryptoException) e.getCause()));
+            }
+            throw new IOException(e.getCause());
+        }
+        return total;
     }
 }
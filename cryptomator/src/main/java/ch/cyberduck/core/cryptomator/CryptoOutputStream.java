@@ -16,6 +16,7 @@ package ch.cyberduck.core.cryptomator;
  */
 
 import ch.cyberduck.core.io.MemorySegementingOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.random.NonceGenerator;
 
 import org.apache.commons.io.output.ProxyOutputStream;
@@ -24,16 +25,28 @@ import org.cryptomator.cryptolib.api.FileContentCryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CryptoOutputStream extends ProxyOutputStream {
 
     public CryptoOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
                               final NonceGenerator nonces, final long chunkIndexOffset) {
+        this(proxy, cryptor, header, nonces, chunkIndexOffset, PreferencesFactory.get().getInteger("cryptomator.cryptor.chunks"));
+    }
+
+    /**
+     * @param chunks Number of chunks to encrypt concurrently
+     */
+    public CryptoOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
+                              final NonceGenerator nonces, final long chunkIndexOffset, final int chunks) {
         super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset),
-                cryptor.cleartextChunkSize()));
+                cryptor.cleartextChunkSize() * Math.max(1, chunks)));
     }
 
     @Override
@@ -46,7 +59,7 @@ public class CryptoOutputStream extends ProxyOutputStream {
         write(b, 0, b.length);
     }
 
-    private static final class EncryptingOutputStream extends ProxyOutputStream {
+    static final class EncryptingOutputStream extends ProxyOutputStream {
         private final FileContentCryptor cryptor;
         private final FileHeader header;
         private final int chunksize;
@@ -71,19 +84,46 @@ public class CryptoOutputStream extends ProxyOutputStream {
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
             try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += chunksize) {
-                    int chunkLen = Math.min(chunksize, len - chunkOffset);
-                    final ByteBuffer encryptedChunk = cryptor.encryptChunk(
-                        ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen)),
-                        chunkIndexOffset++, header, nonces.next());
-                    final byte[] encrypted = new byte[encryptedChunk.remaining()];
-                    encryptedChunk.get(encrypted);
-                    super.write(encrypted);
+                if(len <= chunksize) {
+                    this.write(cryptor.encryptChunk(ByteBuffer.wrap(b, off, len).slice(), chunkIndexOffset++, header, nonces.next()));
+                    return;
+                }
+                // Chunk number and nonce are assigned in order before encrypting chunks concurrently
+                final List<Future<ByteBuffer>> chunks = new ArrayList<>();
+                for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += chunksize) {
+                    final ByteBuffer cleartext = ByteBuffer.wrap(b, chunkOffset, Math.min(chunksize, off + len - chunkOffset)).slice();
+                    final long chunkIndex = chunkIndexOffset++;
+                    final byte[] nonce = nonces.next();
+                    chunks.add(CryptoThreadPool.get().execute(() -> cryptor.encryptChunk(cleartext, chunkIndex, header, nonce)));
+                }
+                // Input buffer must not be returned before all chunks are encrypted
+                for(Future<ByteBuffer> chunk : chunks) {
+                    this.write(chunk.get());
                 }
             }
             catch(CryptoException e) {
                 throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
             }
+            catch(InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            catch(ExecutionException e) {
+                if(e.getCause() instanceof CryptoException) {
+                    throw new IOException(e.getCause().getMessage(), new CryptoAuthenticationException(e.getCause().getMessage(), (CryptoException) e.getCause()));
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        private void write(final ByteBuffer encrypted) throws IOException {
+            if(encrypted.hasArray()) {
+                super.write(encrypted.array(), encrypted.arrayOffset() + encrypted.position(), encrypted.remaining());
+            }
+            else {
+                final byte[] bytes = new byte[encrypted.remaining()];
+                encrypted.get(bytes);
+                super.write(bytes);
+            }
         }
     }
 }
@@ -0,0 +1,40 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Shared pool limited to number of processors to encrypt and decrypt file content chunks
+ */
+public final class CryptoThreadPool {
+
+    private static final class Holder {
+        private static final ThreadPool instance = ThreadPoolFactory.get("cryptor",
+                Runtime.getRuntime().availableProcessors(), ThreadPool.Priority.norm, new LinkedBlockingQueue<>(Integer.MAX_VALUE));
+    }
+
+    private CryptoThreadPool() {
+        //
+    }
+
+    public static ThreadPool get() {
+        return Holder.instance;
+    }
+}
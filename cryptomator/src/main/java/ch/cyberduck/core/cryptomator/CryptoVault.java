@@ -36,6 +36,7 @@ import ch.cyberduck.core.vault.DefaultVaultRegistry;
 import ch.cyberduck.core.vault.VaultCredentials;
 import ch.cyberduck.core.vault.VaultException;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.cryptomator.cryptolib.api.AuthenticationFailedException;
@@ -314,6 +315,9 @@ public class CryptoVault implements Vault {
             if(log.isInfoEnabled()) {
                 log.info(String.format("Close vault with cryptor %s", cryptor));
             }
+            if(fileNameCryptor != null) {
+                fileNameCryptor.close();
+            }
             if(cryptor != null) {
                 cryptor.destroy();
             }
@@ -377,7 +381,8 @@ public class CryptoVault implements Vault {
         }
         vaultConfig.verify(masterKey.getEncoded(), VAULT_VERSION);
         this.cryptor = provider.provide(masterKey, FastSecureRandomProvider.get().provide());
-        this.fileNameCryptor = new CryptorCache(cryptor.fileNameCryptor());
+        // Hashed root directory id is unique for the master key and used to share caches with other instances of this vault
+        this.fileNameCryptor = CryptorCache.get(cryptor.fileNameCryptor().hashDirectoryId(StringUtils.EMPTY), cryptor.fileNameCryptor());
         this.filenameProvider = filenameProvider;
         this.directoryProvider = directoryProvider;
         this.nonceSize = vaultConfig.getNonceSize();
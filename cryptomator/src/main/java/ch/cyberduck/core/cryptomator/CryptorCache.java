@@ -15,68 +15,228 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
 import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.cryptomator.cryptolib.api.AuthenticationFailedException;
 import org.cryptomator.cryptolib.api.FileNameCryptor;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
+import com.google.common.base.Throwables;
 import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 public class CryptorCache {
+    private static final Logger log = LogManager.getLogger(CryptorCache.class);
 
     public static final BaseEncoding BASE32 = BaseEncoding.base32();
 
-    private final LRUCache<String, String> directoryIdCache = LRUCache.build(250);
-    private final LRUCache<CacheKey, String> decryptCache = LRUCache.build(5000);
-    private final LRUCache<CacheKey, String> encryptCache = LRUCache.build(5000);
+    /**
+     * Caches by vault identifier shared by all vaults unlocked with the same master key. Removed when the last vault
+     * using the caches is closed.
+     */
+    private static final Map<String, Caches> shared = new HashMap<>();
+
+    /**
+     * @param identifier Identifier unique for master key of vault such as the hashed root directory id
+     * @param impl       Cryptor
+     * @return Cache with entries shared with all other instances for the same vault. Must be closed when the vault
+     * is locked.
+     */
+    public static CryptorCache get(final String identifier, final FileNameCryptor impl) {
+        synchronized(shared) {
+            final Caches caches = shared.computeIfAbsent(identifier, id -> {
+                final Preferences preferences = PreferencesFactory.get();
+                final Caches c = new Caches(preferences.getLong("cryptomator.cache.directoryid.size"),
+                        preferences.getLong("cryptomator.cache.filename.size"),
+                        preferences.getBoolean("cryptomator.cache.directoryid.persist") ?
+                                LocalFactory.get(SupportDirectoryFinderFactory.get().find(), String.format("%s.directoryids", id)) : null);
+                c.load();
+                return c;
+            });
+            caches.references++;
+            return new CryptorCache(impl, identifier, caches);
+        }
+    }
 
     private final FileNameCryptor impl;
+    /**
+     * Identifier of shared caches or null
+     */
+    private final String identifier;
+    private final Caches caches;
+
+    private boolean closed;
 
     public CryptorCache(final FileNameCryptor impl) {
+        this(impl, null, new Caches(PreferencesFactory.get().getLong("cryptomator.cache.directoryid.size"),
+                PreferencesFactory.get().getLong("cryptomator.cache.filename.size"), null));
+    }
+
+    private CryptorCache(final FileNameCryptor impl, final String identifier, final Caches caches) {
         this.impl = impl;
+        this.identifier = identifier;
+        this.caches = caches;
     }
 
     public String hashDirectoryId(final String cleartextDirectoryId) {
-        if(!directoryIdCache.contains(cleartextDirectoryId)) {
-            directoryIdCache.put(cleartextDirectoryId, impl.hashDirectoryId(cleartextDirectoryId));
-        }
-        return directoryIdCache.get(cleartextDirectoryId);
+        return caches.directoryIdCache.get(cleartextDirectoryId, impl::hashDirectoryId);
     }
 
     public String encryptFilename(final BaseEncoding encoding, final String cleartextName, final byte[] associatedData) {
-        final CacheKey key = new CacheKey(encoding, cleartextName, associatedData);
-        if(encryptCache.contains(key)) {
-            return encryptCache.get(key);
+        try {
+            return caches.encryptCache.get(new CacheKey(encoding, cleartextName, associatedData), key -> {
+                final String ciphertextName = impl.encryptFilename(key.encoding, key.value, key.data);
+                caches.decryptCache.put(new CacheKey(key.encoding, ciphertextName, key.data), key.value);
+                return ciphertextName;
+            });
+        }
+        catch(UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
         }
-        final String ciphertextName = impl.encryptFilename(encoding, cleartextName, associatedData);
-        encryptCache.put(key, ciphertextName);
-        decryptCache.put(new CacheKey(encoding, ciphertextName, associatedData), cleartextName);
-        return ciphertextName;
     }
 
     public String decryptFilename(final BaseEncoding encoding, final String ciphertextName, final byte[] associatedData) throws AuthenticationFailedException {
-        final CacheKey key = new CacheKey(encoding, ciphertextName, associatedData);
-        if(decryptCache.contains(key)) {
-            return decryptCache.get(key);
+        try {
+            return caches.decryptCache.get(new CacheKey(encoding, ciphertextName, associatedData), key -> {
+                final String cleartextName = impl.decryptFilename(key.encoding, key.value, key.data);
+                caches.encryptCache.put(new CacheKey(key.encoding, cleartextName, key.data), key.value);
+                return cleartextName;
+            });
+        }
+        catch(UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    /**
+     * Save hashed directory ids if enabled
+     */
+    public void save() {
+        caches.save();
+    }
+
+    /**
+     * Save hashed directory ids if enabled and release caches. Cached filenames are cleared when no other vault
+     * uses the caches.
+     */
+    public void close() {
+        synchronized(shared) {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            caches.save();
+            if(null != identifier) {
+                if(--caches.references > 0) {
+                    return;
+                }
+                shared.remove(identifier);
+            }
+            caches.clear();
+        }
+    }
+
+    private static final class Caches {
+        private final LRUCache<String, String> directoryIdCache;
+        private final LRUCache<CacheKey, String> decryptCache;
+        private final LRUCache<CacheKey, String> encryptCache;
+        /**
+         * File to persist hashed directory ids or null
+         */
+        private final Local file;
+        /**
+         * Number of instances using caches
+         */
+        private int references;
+
+        public Caches(final long directories, final long filenames, final Local file) {
+            this.directoryIdCache = LRUCache.build(directories);
+            this.decryptCache = LRUCache.build(filenames);
+            this.encryptCache = LRUCache.build(filenames);
+            this.file = file;
+        }
+
+        private void load() {
+            if(null == file) {
+                return;
+            }
+            int count = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.getAbsolute())))) {
+                while(true) {
+                    directoryIdCache.put(in.readUTF(), in.readUTF());
+                    count++;
+                }
+            }
+            catch(FileNotFoundException e) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("No saved directory ids found in %s", file));
+                }
+            }
+            catch(EOFException e) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Read %d directory ids from %s", count, file));
+                }
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure reading directory ids from %s. %s", file, e.getMessage()));
+            }
+        }
+
+        private void clear() {
+            directoryIdCache.clear();
+            decryptCache.clear();
+            encryptCache.clear();
+        }
+
+        private synchronized void save() {
+            if(null == file) {
+                return;
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.getAbsolute())))) {
+                for(Map.Entry<String, String> entry : directoryIdCache.asMap().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure saving directory ids to %s. %s", file, e.getMessage()));
+            }
         }
-        final String cleartextName = impl.decryptFilename(encoding, ciphertextName, associatedData);
-        decryptCache.put(key, cleartextName);
-        encryptCache.put(new CacheKey(encoding, cleartextName, associatedData), ciphertextName);
-        return cleartextName;
     }
 
-    private static class CacheKey {
+    private static final class CacheKey {
         private final BaseEncoding encoding;
         private final String value;
         private final byte[] data;
+        private final int hash;
 
         public CacheKey(final BaseEncoding encoding, final String value, final byte[] data) {
             this.encoding = encoding;
             this.value = value;
             this.data = data;
+            this.hash = 31 * Objects.hash(encoding, value) + Arrays.hashCode(data);
         }
 
         @Override
@@ -88,16 +248,15 @@ public class CryptorCache {
                 return false;
             }
             final CacheKey cacheKey = (CacheKey) o;
-            return Objects.equals(encoding, cacheKey.encoding) &&
+            return hash == cacheKey.hash &&
+                Objects.equals(encoding, cacheKey.encoding) &&
                 Objects.equals(value, cacheKey.value) &&
                 Arrays.equals(data, cacheKey.data);
         }
 
         @Override
         public int hashCode() {
-            int result = Objects.hash(encoding, value);
-            result = 31 * result + Arrays.hashCode(data);
-            return result;
+            return hash;
         }
     }
 }
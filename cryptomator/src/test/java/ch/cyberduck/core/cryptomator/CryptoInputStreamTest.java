@@ -0,0 +1,145 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+import ch.cyberduck.core.features.Directory;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.VaultCredentials;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.ProxyOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.cryptomator.cryptolib.api.FileHeader;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class CryptoInputStreamTest {
+
+    private CryptoVault getVault() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Directory.class) {
+                    return (T) new Directory() {
+
+                        @Override
+                        public Path mkdir(final Path folder, final TransferStatus status) {
+                            assertTrue(folder.equals(home) || folder.isChild(home));
+                            return folder;
+                        }
+
+                        @Override
+                        public Directory withWriter(final Write writer) {
+                            return this;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final CryptoVault vault = new CryptoVault(home);
+        vault.create(session, null, new VaultCredentials("test"));
+        return vault;
+    }
+
+    private byte[] encrypt(final CryptoVault vault, final FileHeader header, final byte[] cleartext) throws Exception {
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final CryptoOutputStream stream = new CryptoOutputStream(
+                new ProxyOutputStream(cipherText), vault.getFileContentCryptor(), header, new RandomNonceGenerator(vault.getNonceSize()), 0, 1);
+        stream.write(cleartext);
+        stream.close();
+        return cipherText.toByteArray();
+    }
+
+    private byte[] decrypt(final CryptoVault vault, final FileHeader header, final byte[] ciphertext, final int length, final int chunks) throws Exception {
+        final byte[] read = new byte[length];
+        final CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(ciphertext), vault.getFileContentCryptor(), header, 0, chunks);
+        IOUtils.readFully(stream, read);
+        assertEquals(IOUtils.EOF, stream.read(new byte[1]));
+        stream.close();
+        return read;
+    }
+
+    @Test
+    public void testReadMultipleBatchesShortLastChunk() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        // Two full batches of three chunks and a last batch with a short chunk
+        final byte[] cleartext = RandomUtils.nextBytes(chunksize * 7 + 17);
+        final byte[] ciphertext = this.encrypt(vault, header, cleartext);
+        final byte[] sequential = this.decrypt(vault, header, ciphertext, cleartext.length, 1);
+        assertArrayEquals(cleartext, sequential);
+        assertArrayEquals(sequential, this.decrypt(vault, header, ciphertext, cleartext.length, 3));
+    }
+
+    @Test
+    public void testReadMultipleBatchesFullChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        // Batch boundary at end of input
+        final byte[] cleartext = RandomUtils.nextBytes(chunksize * 4);
+        final byte[] ciphertext = this.encrypt(vault, header, cleartext);
+        assertArrayEquals(cleartext, this.decrypt(vault, header, ciphertext, cleartext.length, 1));
+        assertArrayEquals(cleartext, this.decrypt(vault, header, ciphertext, cleartext.length, 2));
+        assertArrayEquals(cleartext, this.decrypt(vault, header, ciphertext, cleartext.length, 8));
+    }
+
+    @Test
+    public void testReadChunkOrder() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] cleartext = new byte[chunksize * 5 + 1];
+        for(int i = 0; i < cleartext.length; i++) {
+            // Mark each chunk with its number
+            cleartext[i] = (byte) (i / chunksize);
+        }
+        final byte[] read = this.decrypt(vault, header, this.encrypt(vault, header, cleartext), cleartext.length, 2);
+        for(int i = 0; i < read.length; i++) {
+            assertEquals(i / chunksize, read[i]);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadSwappedChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final int ciphertextChunkSize = vault.getFileContentCryptor().ciphertextChunkSize();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] ciphertext = this.encrypt(vault, header, RandomUtils.nextBytes(chunksize * 2));
+        // Chunk number is authenticated
+        final byte[] swapped = new byte[ciphertext.length];
+        System.arraycopy(ciphertext, ciphertextChunkSize, swapped, 0, ciphertextChunkSize);
+        System.arraycopy(ciphertext, 0, swapped, ciphertextChunkSize, ciphertextChunkSize);
+        this.decrypt(vault, header, swapped, chunksize * 2, 2);
+    }
+}
@@ -22,6 +22,7 @@ import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
 import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.random.NonceGenerator;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.vault.VaultCredentials;
 
@@ -34,6 +35,7 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
@@ -131,4 +133,80 @@ public class CryptoOutputStreamTest {
 
         assertArrayEquals(cleartext, read);
     }
+
+    @Test
+    public void testWriteMultipleBatchesShortLastChunk() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        // Three batches of two chunks with a short last chunk
+        final byte[] cleartext = RandomUtils.nextBytes(chunksize * 5 + 17);
+        final byte[] sequential = this.encrypt(vault, header, cleartext, 0, cleartext.length, 1);
+        final byte[] parallel = this.encrypt(vault, header, cleartext, 0, cleartext.length, 2);
+        final int overhead = vault.getFileContentCryptor().ciphertextChunkSize() - chunksize;
+        assertEquals(cleartext.length + 6 * overhead, parallel.length);
+        assertArrayEquals(sequential, parallel);
+        final byte[] read = new byte[cleartext.length];
+        final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(parallel), vault.getFileContentCryptor(), header, 0, 1);
+        IOUtils.readFully(cryptoInputStream, read);
+        assertEquals(IOUtils.EOF, cryptoInputStream.read());
+        cryptoInputStream.close();
+        assertArrayEquals(cleartext, read);
+    }
+
+    @Test
+    public void testWriteMultipleBatchesFullChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] cleartext = RandomUtils.nextBytes(chunksize * 6);
+        assertArrayEquals(this.encrypt(vault, header, cleartext, 0, cleartext.length, 1),
+                this.encrypt(vault, header, cleartext, 0, cleartext.length, 4));
+    }
+
+    @Test
+    public void testWriteWithOffset() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] cleartext = RandomUtils.nextBytes(chunksize * 3 + 17);
+        final int off = 13;
+        final int len = cleartext.length - off - 7;
+        final byte[] expected = this.encrypt(vault, header, Arrays.copyOfRange(cleartext, off, off + len), 0, len, 1);
+        assertArrayEquals(expected, this.encrypt(vault, header, cleartext, off, len, 1));
+        assertArrayEquals(expected, this.encrypt(vault, header, cleartext, off, len, 2));
+        // Write directly with offset to encrypting stream bypassing segmenting
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final CryptoOutputStream.EncryptingOutputStream stream = new CryptoOutputStream.EncryptingOutputStream(
+                new ProxyOutputStream(cipherText), vault.getFileContentCryptor(), header, new CounterNonceGenerator(vault.getNonceSize()), 0);
+        stream.write(cleartext, off, len);
+        stream.close();
+        assertArrayEquals(expected, cipherText.toByteArray());
+    }
+
+    /**
+     * @return Ciphertext written with deterministic nonces
+     */
+    private byte[] encrypt(final CryptoVault vault, final FileHeader header, final byte[] cleartext, final int off, final int len, final int chunks) throws Exception {
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final CryptoOutputStream stream = new CryptoOutputStream(
+                new ProxyOutputStream(cipherText), vault.getFileContentCryptor(), header, new CounterNonceGenerator(vault.getNonceSize()), 0, chunks);
+        stream.write(cleartext, off, len);
+        stream.close();
+        return cipherText.toByteArray();
+    }
+
+    private static final class CounterNonceGenerator implements NonceGenerator {
+        private final int len;
+        private long counter;
+
+        public CounterNonceGenerator(final int len) {
+            this.len = len;
+        }
+
+        @Override
+        public byte[] next() {
+            return ByteBuffer.allocate(len).putLong(0, counter++).array();
+        }
+    }
 }
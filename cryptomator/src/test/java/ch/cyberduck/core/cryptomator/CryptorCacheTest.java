@@ -15,7 +15,10 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
+
 import org.apache.commons.lang3.RandomStringUtils;
+import org.cryptomator.cryptolib.api.AuthenticationFailedException;
 import org.cryptomator.cryptolib.api.FileNameCryptor;
 import org.junit.Test;
 
@@ -85,4 +88,43 @@ public class CryptorCacheTest {
         cryptor.decryptFilename(CryptorCache.BASE32, "first", "id2".getBytes());
         verify(mock, times(4)).decryptFilename(any(), any(), any());
     }
+
+    @Test
+    public void TestSharedCache() {
+        final String identifier = new AlphanumericRandomStringService().random();
+        final FileNameCryptor first = mock(FileNameCryptor.class);
+        when(first.hashDirectoryId(anyString())).thenReturn("hashed");
+        assertEquals("hashed", CryptorCache.get(identifier, first).hashDirectoryId("id"));
+        final FileNameCryptor second = mock(FileNameCryptor.class);
+        assertEquals("hashed", CryptorCache.get(identifier, second).hashDirectoryId("id"));
+        verify(first, times(1)).hashDirectoryId(anyString());
+        verifyNoMoreInteractions(second);
+    }
+
+    @Test
+    public void TestSharedCacheClose() {
+        final String identifier = new AlphanumericRandomStringService().random();
+        final FileNameCryptor mock = mock(FileNameCryptor.class);
+        when(mock.hashDirectoryId(anyString())).thenReturn("hashed");
+        final CryptorCache first = CryptorCache.get(identifier, mock);
+        final CryptorCache second = CryptorCache.get(identifier, mock);
+        assertEquals("hashed", first.hashDirectoryId("id"));
+        first.close();
+        // Closing again does not release caches used by second vault
+        first.close();
+        assertEquals("hashed", second.hashDirectoryId("id"));
+        verify(mock, times(1)).hashDirectoryId(anyString());
+        second.close();
+        // Cleared after last vault is closed
+        assertEquals("hashed", CryptorCache.get(identifier, mock).hashDirectoryId("id"));
+        verify(mock, times(2)).hashDirectoryId(anyString());
+    }
+
+    @Test(expected = AuthenticationFailedException.class)
+    public void TestDecryptFilenameFailure() {
+        final FileNameCryptor mock = mock(FileNameCryptor.class);
+        final CryptorCache cryptor = new CryptorCache(mock);
+        when(mock.decryptFilename(any(), any(), any())).thenThrow(new AuthenticationFailedException("f"));
+        cryptor.decryptFilename(CryptorCache.BASE32, "first", "id1".getBytes());
+    }
 }
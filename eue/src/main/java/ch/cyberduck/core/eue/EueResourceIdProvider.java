@@ -45,7 +45,7 @@ public class EueResourceIdProvider extends CachingFileIdProvider implements File
     private final EueSession session;
 
     public EueResourceIdProvider(final EueSession session) {
-        super(session.getCaseSensitivity());
+        super(session.getHost(), session.getCaseSensitivity());
         this.session = session;
     }
 
@@ -37,20 +37,24 @@ import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 public class FTPClient extends FTPSClient {
@@ -182,26 +186,90 @@ public class FTPClient extends FTPSClient {
     }
 
     public List<String> list(final FTPCmd command, final String pathname) throws IOException {
+        final List<String> results = new ArrayList<>();
+        try (DataReplyIterator lines = this.listIterator(command, pathname)) {
+            lines.forEachRemaining(results::add);
+        }
+        catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return results;
+    }
+
+    /**
+     * Read lines from data connection as they are received. Closing the iterator closes the data connection and
+     * reads the final reply on the control connection.
+     *
+     * @return Lines of listing. Failures reading from the data connection are thrown as {@link UncheckedIOException}
+     */
+    public DataReplyIterator listIterator(final FTPCmd command, final String pathname) throws IOException {
         this.pret(command, null == pathname ? StringUtils.EMPTY : pathname);
 
-        Socket socket = _openDataConnection_(command, pathname);
+        return new DataReplyIterator(_openDataConnection_(command, pathname));
+    }
+
+    public final class DataReplyIterator implements Iterator<String>, Closeable {
+        private final Socket socket;
+        private final BufferedReader reader;
 
-        BufferedReader reader = new BufferedReader(
-            new InputStreamReader(socket.getInputStream(), getControlEncoding()));
-        ArrayList<String> results = new ArrayList<String>();
-        String line;
-        while((line = reader.readLine()) != null) {
-            _commandSupport_.fireReplyReceived(-1, line);
-            results.add(line);
+        /**
+         * Next line read ahead
+         */
+        private String next;
+        private boolean closed;
+
+        private DataReplyIterator(final Socket socket) throws IOException {
+            this.socket = socket;
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), getControlEncoding()));
         }
 
-        reader.close();
-        socket.close();
+        @Override
+        public boolean hasNext() {
+            if(null == next) {
+                try {
+                    next = reader.readLine();
+                }
+                catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if(null != next) {
+                    _commandSupport_.fireReplyReceived(-1, next);
+                }
+            }
+            return null != next;
+        }
 
-        if(!this.completePendingCommand()) {
-            throw new FTPException(this.getReplyCode(), this.getReplyString());
+        @Override
+        public String next() {
+            if(!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String line = next;
+            next = null;
+            return line;
+        }
+
+        /**
+         * Close data connection and complete pending command
+         *
+         * @throws FTPException Command failed with negative completion reply
+         */
+        @Override
+        public void close() throws IOException {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            try {
+                reader.close();
+            }
+            finally {
+                socket.close();
+            }
+            if(!completePendingCommand()) {
+                throw new FTPException(getReplyCode(), getReplyString());
+            }
         }
-        return results;
     }
 
     /**
@@ -16,11 +16,22 @@ package ch.cyberduck.core.ftp.list;
  */
 
 import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 
+import java.util.Iterator;
 import java.util.List;
 
 public interface FTPDataResponseReader {
 
     AttributedList<Path> read(Path parent, List<String> replies) throws FTPInvalidListException;
+
+    /**
+     * Parse lines as they are read from the data connection
+     *
+     * @param replies  Lines of listing
+     * @param listener Notified with entries parsed so far
+     */
+    AttributedList<Path> read(Path parent, Iterator<String> replies, ListProgressListener listener) throws FTPInvalidListException, ConnectionCanceledException;
 }
@@ -16,10 +16,13 @@ package ch.cyberduck.core.ftp.list;
  */
 
 import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.ftp.parser.FTPExtendedFile;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.net.ftp.FTPFile;
@@ -27,8 +30,11 @@ import org.apache.commons.net.ftp.FTPFileEntryParser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
 
 public class FTPListResponseReader implements FTPDataResponseReader {
@@ -36,14 +42,26 @@ public class FTPListResponseReader implements FTPDataResponseReader {
 
     private final FTPFileEntryParser parser;
     private final boolean lenient;
+    /**
+     * Number of entries parsed before notifying listener
+     */
+    private final int chunksize;
 
     public FTPListResponseReader(final FTPFileEntryParser parser) {
         this(parser, false);
     }
 
     public FTPListResponseReader(final FTPFileEntryParser parser, final boolean lenient) {
+        this(parser, lenient, PreferencesFactory.get().getInteger("ftp.listing.chunksize"));
+    }
+
+    /**
+     * @param chunksize Number of entries parsed before notifying listener
+     */
+    public FTPListResponseReader(final FTPFileEntryParser parser, final boolean lenient, final int chunksize) {
         this.parser = parser;
         this.lenient = lenient;
+        this.chunksize = chunksize;
     }
 
     @Override
@@ -55,113 +73,151 @@ public class FTPListResponseReader implements FTPDataResponseReader {
         // from the server stream, but before any clients see the list
         parser.preParse(replies);
         for(String line : replies) {
-            final FTPFile f = parser.parseFTPEntry(line);
-            if(null == f) {
-                continue;
+            success |= this.parse(directory, line, success, children);
+        }
+        if(!success) {
+            throw new FTPInvalidListException(children);
+        }
+        return children;
+    }
+
+    @Override
+    public AttributedList<Path> read(final Path directory, final Iterator<String> replies, final ListProgressListener listener)
+            throws FTPInvalidListException, ConnectionCanceledException {
+        final AttributedList<Path> children = new AttributedList<Path>();
+        // At least one entry successfully parsed
+        boolean success = false;
+        if(replies.hasNext()) {
+            // Pre-parse hook only given first line which may be a header or total to remove
+            final List<String> first = new ArrayList<>(Collections.singletonList(replies.next()));
+            parser.preParse(first);
+            for(String line : first) {
+                success |= this.parse(directory, line, success, children);
             }
-            final String name = f.getName();
-            if(!success) {
-                if(lenient) {
-                    // Workaround for #2410. STAT only returns ls of directory itself
-                    // Workaround for #2434. STAT of symbolic link directory only lists the directory itself.
-                    if(directory.getName().equals(name)) {
-                        log.warn(String.format("Skip %s matching parent directory name", f.getName()));
-                        continue;
-                    }
-                    if(name.contains(String.valueOf(Path.DELIMITER))) {
-                        if(!name.startsWith(directory.getAbsolute() + Path.DELIMITER)) {
-                            // Workaround for #2434.
-                            log.warn(String.format("Skip %s with delimiter in name", name));
-                            continue;
-                        }
-                    }
-                }
+        }
+        // Number of entries already passed to listener
+        int notified = 0;
+        while(replies.hasNext()) {
+            success |= this.parse(directory, replies.next(), success, children);
+            if(children.size() - notified >= chunksize) {
+                listener.chunk(directory, children);
+                notified = children.size();
             }
-            success = true;
-            if(name.equals(".") || name.equals("..")) {
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Skip %s", f.getName()));
+        }
+        if(!success) {
+            throw new FTPInvalidListException(children);
+        }
+        return children;
+    }
+
+    /**
+     * @param success  At least one entry parsed previously
+     * @param children Add parsed file
+     * @return True if line is a valid entry
+     */
+    private boolean parse(final Path directory, final String line, final boolean success, final AttributedList<Path> children) {
+        final FTPFile f = parser.parseFTPEntry(line);
+        if(null == f) {
+            return false;
+        }
+        final String name = f.getName();
+        if(!success) {
+            if(lenient) {
+                // Workaround for #2410. STAT only returns ls of directory itself
+                // Workaround for #2434. STAT of symbolic link directory only lists the directory itself.
+                if(directory.getName().equals(name)) {
+                    log.warn(String.format("Skip %s matching parent directory name", f.getName()));
+                    return false;
                 }
-                continue;
-            }
-            final Path parsed = new Path(directory, PathNormalizer.name(name), f.getType() == FTPFile.DIRECTORY_TYPE ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file));
-            switch(f.getType()) {
-                case FTPFile.SYMBOLIC_LINK_TYPE:
-                    parsed.setType(EnumSet.of(Path.Type.file, Path.Type.symboliclink));
-                    // Symbolic link target may be an absolute or relative path
-                    final String target = f.getLink();
-                    if(StringUtils.isBlank(target)) {
-                        log.warn(String.format("Missing symbolic link target for %s", parsed));
-                        final EnumSet<Path.Type> type = parsed.getType();
-                        type.remove(Path.Type.symboliclink);
-                    }
-                    else if(StringUtils.startsWith(target, String.valueOf(Path.DELIMITER))) {
-                        parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
-                    }
-                    else if(StringUtils.equals("..", target)) {
-                        parsed.setSymlinkTarget(directory);
+                if(name.contains(String.valueOf(Path.DELIMITER))) {
+                    if(!name.startsWith(directory.getAbsolute() + Path.DELIMITER)) {
+                        // Workaround for #2434.
+                        log.warn(String.format("Skip %s with delimiter in name", name));
+                        return false;
                     }
-                    else if(StringUtils.equals(".", target)) {
-                        parsed.setSymlinkTarget(parsed);
-                    }
-                    else {
-                        parsed.setSymlinkTarget(new Path(directory, target, EnumSet.of(Path.Type.file)));
-                    }
-                    break;
-            }
-            if(parsed.isFile()) {
-                parsed.attributes().setSize(f.getSize());
-            }
-            parsed.attributes().setOwner(f.getUser());
-            parsed.attributes().setGroup(f.getGroup());
-            Permission.Action u = Permission.Action.none;
-            if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION)) {
-                u = u.or(Permission.Action.read);
-            }
-            if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION)) {
-                u = u.or(Permission.Action.write);
-            }
-            if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
-                u = u.or(Permission.Action.execute);
-            }
-            Permission.Action g = Permission.Action.none;
-            if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.READ_PERMISSION)) {
-                g = g.or(Permission.Action.read);
-            }
-            if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.WRITE_PERMISSION)) {
-                g = g.or(Permission.Action.write);
-            }
-            if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
-                g = g.or(Permission.Action.execute);
-            }
-            Permission.Action o = Permission.Action.none;
-            if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.READ_PERMISSION)) {
-                o = o.or(Permission.Action.read);
-            }
-            if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.WRITE_PERMISSION)) {
-                o = o.or(Permission.Action.write);
-            }
-            if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
-                o = o.or(Permission.Action.execute);
-            }
-            final Permission permission = new Permission(u, g, o);
-            if(f instanceof FTPExtendedFile) {
-                permission.setSetuid(((FTPExtendedFile) f).isSetuid());
-                permission.setSetgid(((FTPExtendedFile) f).isSetgid());
-                permission.setSticky(((FTPExtendedFile) f).isSticky());
-            }
-            if(!Permission.EMPTY.equals(permission)) {
-                parsed.attributes().setPermission(permission);
+                }
             }
-            final Calendar timestamp = f.getTimestamp();
-            if(timestamp != null) {
-                parsed.attributes().setModificationDate(timestamp.getTimeInMillis());
+        }
+        if(name.equals(".") || name.equals("..")) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip %s", f.getName()));
             }
-            children.add(parsed);
+            return true;
         }
-        if(!success) {
-            throw new FTPInvalidListException(children);
+        final Path parsed = new Path(directory, PathNormalizer.name(name), f.getType() == FTPFile.DIRECTORY_TYPE ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file));
+        switch(f.getType()) {
+            case FTPFile.SYMBOLIC_LINK_TYPE:
+                parsed.setType(EnumSet.of(Path.Type.file, Path.Type.symboliclink));
+                // Symbolic link target may be an absolute or relative path
+                final String target = f.getLink();
+                if(StringUtils.isBlank(target)) {
+                    log.warn(String.format("Missing symbolic link target for %s", parsed));
+                    final EnumSet<Path.Type> type = parsed.getType();
+                    type.remove(Path.Type.symboliclink);
+                }
+                else if(StringUtils.startsWith(target, String.valueOf(Path.DELIMITER))) {
+                    parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
+                }
+                else if(StringUtils.equals("..", target)) {
+                    parsed.setSymlinkTarget(directory);
+                }
+                else if(StringUtils.equals(".", target)) {
+                    parsed.setSymlinkTarget(parsed);
+                }
+                else {
+                    parsed.setSymlinkTarget(new Path(directory, target, EnumSet.of(Path.Type.file)));
+                }
+                break;
         }
-        return children;
+        if(parsed.isFile()) {
+            parsed.attributes().setSize(f.getSize());
+        }
+        parsed.attributes().setOwner(f.getUser());
+        parsed.attributes().setGroup(f.getGroup());
+        Permission.Action u = Permission.Action.none;
+        if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION)) {
+            u = u.or(Permission.Action.read);
+        }
+        if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION)) {
+            u = u.or(Permission.Action.write);
+        }
+        if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
+            u = u.or(Permission.Action.execute);
+        }
+        Permission.Action g = Permission.Action.none;
+        if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.READ_PERMISSION)) {
+            g = g.or(Permission.Action.read);
+        }
+        if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.WRITE_PERMISSION)) {
+            g = g.or(Permission.Action.write);
+        }
+        if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
+            g = g.or(Permission.Action.execute);
+        }
+        Permission.Action o = Permission.Action.none;
+        if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.READ_PERMISSION)) {
+            o = o.or(Permission.Action.read);
+        }
+        if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.WRITE_PERMISSION)) {
+            o = o.or(Permission.Action.write);
+        }
+        if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
+            o = o.or(Permission.Action.execute);
+        }
+        final Permission permission = new Permission(u, g, o);
+        if(f instanceof FTPExtendedFile) {
+            permission.setSetuid(((FTPExtendedFile) f).isSetuid());
+            permission.setSetgid(((FTPExtendedFile) f).isSetgid());
+            permission.setSticky(((FTPExtendedFile) f).isSticky());
+        }
+        if(!Permission.EMPTY.equals(permission)) {
+            parsed.attributes().setPermission(permission);
+        }
+        final Calendar timestamp = f.getTimestamp();
+        if(timestamp != null) {
+            parsed.attributes().setModificationDate(timestamp.getTimeInMillis());
+        }
+        children.add(parsed);
+        return true;
     }
 }
@@ -16,12 +16,14 @@ package ch.cyberduck.core.ftp.list;
  */
 
 import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.date.InvalidDateException;
 import ch.cyberduck.core.date.MDTMMillisecondsDateFormatter;
 import ch.cyberduck.core.date.MDTMSecondsDateFormatter;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
@@ -31,6 +33,7 @@ import org.apache.logging.log4j.Logger;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -40,6 +43,14 @@ import java.util.regex.Pattern;
 public class FTPMlsdListResponseReader implements FTPDataResponseReader {
     private static final Logger log = LogManager.getLogger(FTPMlsdListResponseReader.class);
 
+    private static final Pattern SYMLINK_TYPE_PATTERN = Pattern.compile("os\\.unix=slink:.*");
+    private static final Pattern FACTS_PATTERN = Pattern.compile("\\s*(\\S+\\=\\S+;)*\\s(.*)");
+
+    /**
+     * Number of entries parsed before notifying listener
+     */
+    private final int chunksize = PreferencesFactory.get().getInteger("ftp.listing.chunksize");
+
     public FTPMlsdListResponseReader() {
         //
     }
@@ -53,126 +64,161 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
         // At least one entry successfully parsed
         boolean success = false;
         for(String line : replies) {
-            final Map<String, Map<String, String>> file = this.parseFacts(line);
-            if(null == file) {
-                log.error(String.format("Error parsing line %s", line));
+            success = this.parse(directory, line, success, children);
+        }
+        if(!success) {
+            throw new FTPInvalidListException(children);
+        }
+        return children;
+    }
+
+    @Override
+    public AttributedList<Path> read(final Path directory, final Iterator<String> replies, final ListProgressListener listener)
+            throws FTPInvalidListException, ConnectionCanceledException {
+        final AttributedList<Path> children = new AttributedList<>();
+        if(!replies.hasNext()) {
+            return children;
+        }
+        // At least one entry successfully parsed
+        boolean success = false;
+        // Number of entries already passed to listener
+        int notified = 0;
+        while(replies.hasNext()) {
+            success = this.parse(directory, replies.next(), success, children);
+            if(children.size() - notified >= chunksize) {
+                listener.chunk(directory, children);
+                notified = children.size();
+            }
+        }
+        if(!success) {
+            throw new FTPInvalidListException(children);
+        }
+        return children;
+    }
+
+    /**
+     * @param success  At least one entry parsed previously
+     * @param children Add parsed file
+     * @return True if this or a previous line is a valid entry
+     */
+    private boolean parse(final Path directory, final String line, final boolean success, final AttributedList<Path> children) {
+        boolean parsedSuccess = success;
+        final Map<String, Map<String, String>> file = this.parseFacts(line);
+        if(null == file) {
+            log.error(String.format("Error parsing line %s", line));
+            return success;
+        }
+        for(Map.Entry<String, Map<String, String>> f : file.entrySet()) {
+            final String name = f.getKey();
+            // size       -- Size in octets
+            // modify     -- Last modification time
+            // create     -- Creation time
+            // type       -- Entry type
+            // unique     -- Unique id of file/directory
+            // perm       -- File permissions, whether read, write, execute is allowed for the login id.
+            // lang       -- Language of the file name per IANA [11] registry.
+            // media-type -- MIME media-type of file contents per IANA registry.
+            // charset    -- Character set per IANA registry (if not UTF-8)
+            final Map<String, String> facts = f.getValue();
+            if(!facts.containsKey("type")) {
+                log.error(String.format("No type fact in line %s", line));
                 continue;
             }
-            for(Map.Entry<String, Map<String, String>> f : file.entrySet()) {
-                final String name = f.getKey();
-                // size       -- Size in octets
-                // modify     -- Last modification time
-                // create     -- Creation time
-                // type       -- Entry type
-                // unique     -- Unique id of file/directory
-                // perm       -- File permissions, whether read, write, execute is allowed for the login id.
-                // lang       -- Language of the file name per IANA [11] registry.
-                // media-type -- MIME media-type of file contents per IANA registry.
-                // charset    -- Character set per IANA registry (if not UTF-8)
-                final Map<String, String> facts = f.getValue();
-                if(!facts.containsKey("type")) {
-                    log.error(String.format("No type fact in line %s", line));
-                    continue;
-                }
-                final Path parsed;
-                if("dir".equals(facts.get("type").toLowerCase(Locale.ROOT))) {
-                    parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.directory));
-                }
-                else if("file".equals(facts.get("type").toLowerCase(Locale.ROOT))) {
-                    parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.file));
-                }
-                else if(facts.get("type").toLowerCase(Locale.ROOT).matches("os\\.unix=slink:.*")) {
-                    parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.file, Path.Type.symboliclink));
-                    // Parse symbolic link target in Type=OS.unix=slink:/foobar;Perm=;Unique=keVO1+4G4; foobar
-                    final String[] type = facts.get("type").split(":");
-                    if(type.length == 2) {
-                        final String target = type[1];
-                        if(target.startsWith(String.valueOf(Path.DELIMITER))) {
-                            parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
-                        }
-                        else {
-                            parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(String.format("%s/%s", directory.getAbsolute(), target)), EnumSet.of(Path.Type.file)));
-                        }
+            final Path parsed;
+            if("dir".equals(facts.get("type").toLowerCase(Locale.ROOT))) {
+                parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.directory));
+            }
+            else if("file".equals(facts.get("type").toLowerCase(Locale.ROOT))) {
+                parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.file));
+            }
+            else if(SYMLINK_TYPE_PATTERN.matcher(facts.get("type").toLowerCase(Locale.ROOT)).matches()) {
+                parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.file, Path.Type.symboliclink));
+                // Parse symbolic link target in Type=OS.unix=slink:/foobar;Perm=;Unique=keVO1+4G4; foobar
+                final String[] type = facts.get("type").split(":");
+                if(type.length == 2) {
+                    final String target = type[1];
+                    if(target.startsWith(String.valueOf(Path.DELIMITER))) {
+                        parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
                     }
                     else {
-                        log.warn(String.format("Missing symbolic link target for type %s in line %s", facts.get("type"), line));
-                        continue;
+                        parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(String.format("%s/%s", directory.getAbsolute(), target)), EnumSet.of(Path.Type.file)));
                     }
                 }
                 else {
-                    log.warn(String.format("Ignored type %s in line %s", facts.get("type"), line));
+                    log.warn(String.format("Missing symbolic link target for type %s in line %s", facts.get("type"), line));
                     continue;
                 }
-                if(!success) {
-                    if(parsed.isDirectory() && directory.getName().equals(name)) {
-                        log.warn(String.format("Possibly bogus response line %s", line));
-                    }
-                    else {
-                        success = true;
-                    }
-                }
-                if(name.equals(".") || name.equals("..")) {
-                    if(log.isDebugEnabled()) {
-                        log.debug(String.format("Skip %s", name));
-                    }
-                    continue;
-                }
-                if(facts.containsKey("size")) {
-                    parsed.attributes().setSize(Long.parseLong(facts.get("size")));
-                }
-                if(facts.containsKey("unix.uid")) {
-                    parsed.attributes().setOwner(facts.get("unix.uid"));
-                }
-                if(facts.containsKey("unix.owner")) {
-                    parsed.attributes().setOwner(facts.get("unix.owner"));
-                }
-                if(facts.containsKey("unix.gid")) {
-                    parsed.attributes().setGroup(facts.get("unix.gid"));
+            }
+            else {
+                log.warn(String.format("Ignored type %s in line %s", facts.get("type"), line));
+                continue;
+            }
+            if(!parsedSuccess) {
+                if(parsed.isDirectory() && directory.getName().equals(name)) {
+                    log.warn(String.format("Possibly bogus response line %s", line));
                 }
-                if(facts.containsKey("unix.group")) {
-                    parsed.attributes().setGroup(facts.get("unix.group"));
+                else {
+                    parsedSuccess = true;
                 }
-                if(facts.containsKey("unix.mode")) {
-                    parsed.attributes().setPermission(new Permission(facts.get("unix.mode")));
+            }
+            if(name.equals(".") || name.equals("..")) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Skip %s", name));
                 }
-                else if(facts.containsKey("perm")) {
-                    if(PreferencesFactory.get().getBoolean("ftp.parser.mlsd.perm.enable")) {
-                        Permission.Action user = Permission.Action.none;
-                        final String flags = facts.get("perm");
-                        if(StringUtils.contains(flags, 'r') || StringUtils.contains(flags, 'l')) {
-                            // RETR command may be applied to that object
-                            // Listing commands, LIST, NLST, and MLSD may be applied
+                continue;
+            }
+            if(facts.containsKey("size")) {
+                parsed.attributes().setSize(Long.parseLong(facts.get("size")));
+            }
+            if(facts.containsKey("unix.uid")) {
+                parsed.attributes().setOwner(facts.get("unix.uid"));
+            }
+            if(facts.containsKey("unix.owner")) {
+                parsed.attributes().setOwner(facts.get("unix.owner"));
+            }
+            if(facts.containsKey("unix.gid")) {
+                parsed.attributes().setGroup(facts.get("unix.gid"));
+            }
+            if(facts.containsKey("unix.group")) {
+                parsed.attributes().setGroup(facts.get("unix.group"));
+            }
+            if(facts.containsKey("unix.mode")) {
+                parsed.attributes().setPermission(new Permission(facts.get("unix.mode")));
+            }
+            else if(facts.containsKey("perm")) {
+                if(PreferencesFactory.get().getBoolean("ftp.parser.mlsd.perm.enable")) {
+                    Permission.Action user = Permission.Action.none;
+                    final String flags = facts.get("perm");
+                    if(StringUtils.contains(flags, 'r') || StringUtils.contains(flags, 'l')) {
+                        // RETR command may be applied to that object
+                        // Listing commands, LIST, NLST, and MLSD may be applied
+                        user = user.or(Permission.Action.read);
+                    }
+                    if(StringUtils.contains(flags, 'w') || StringUtils.contains(flags, 'm') || StringUtils.contains(flags, 'c')) {
+                        user = user.or(Permission.Action.write);
+                    }
+                    if(StringUtils.contains(flags, 'e')) {
+                        // CWD command naming the object should succeed
+                        user = user.or(Permission.Action.execute);
+                        if(parsed.isDirectory()) {
                             user = user.or(Permission.Action.read);
                         }
-                        if(StringUtils.contains(flags, 'w') || StringUtils.contains(flags, 'm') || StringUtils.contains(flags, 'c')) {
-                            user = user.or(Permission.Action.write);
-                        }
-                        if(StringUtils.contains(flags, 'e')) {
-                            // CWD command naming the object should succeed
-                            user = user.or(Permission.Action.execute);
-                            if(parsed.isDirectory()) {
-                                user = user.or(Permission.Action.read);
-                            }
-                        }
-                        final Permission permission = new Permission(user, Permission.Action.none, Permission.Action.none);
-                        parsed.attributes().setPermission(permission);
                     }
+                    final Permission permission = new Permission(user, Permission.Action.none, Permission.Action.none);
+                    parsed.attributes().setPermission(permission);
                 }
-                if(facts.containsKey("modify")) {
-                    // Time values are always represented in UTC
-                    parsed.attributes().setModificationDate(this.parseTimestamp(facts.get("modify")));
-                }
-                if(facts.containsKey("create")) {
-                    // Time values are always represented in UTC
-                    parsed.attributes().setCreationDate(this.parseTimestamp(facts.get("create")));
-                }
-                children.add(parsed);
             }
+            if(facts.containsKey("modify")) {
+                // Time values are always represented in UTC
+                parsed.attributes().setModificationDate(this.parseTimestamp(facts.get("modify")));
+            }
+            if(facts.containsKey("create")) {
+                // Time values are always represented in UTC
+                parsed.attributes().setCreationDate(this.parseTimestamp(facts.get("create")));
+            }
+            children.add(parsed);
         }
-        if(!success) {
-            throw new FTPInvalidListException(children);
-        }
-        return children;
+        return parsedSuccess;
     }
 
     /**
@@ -235,8 +281,7 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
      * @return Parsed keys and values
      */
     protected Map<String, Map<String, String>> parseFacts(final String line) {
-        final Pattern p = Pattern.compile("\\s*(\\S+\\=\\S+;)*\\s(.*)");
-        final Matcher result = p.matcher(line);
+        final Matcher result = FACTS_PATTERN.matcher(line);
         final Map<String, Map<String, String>> file = new HashMap<>();
         if(result.matches()) {
             final String filename = result.group(2);
@@ -30,7 +30,8 @@ import ch.cyberduck.core.ftp.FTPSession;
 import org.apache.commons.net.ftp.FTPCmd;
 
 import java.io.IOException;
-import java.util.List;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class FTPMlsdListService implements ListService {
 
@@ -53,18 +54,35 @@ public class FTPMlsdListService implements ListService {
                 // data connection in type ASCII or type EBCDIC.
                 throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
             }
-            final List<String> list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<List<String>>() {
+            // Invalid listing must not trigger connect mode fallback
+            final AtomicReference<FTPInvalidListException> invalid = new AtomicReference<>();
+            final AttributedList<Path> list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<AttributedList<Path>>() {
                 @Override
-                public List<String> execute() throws BackgroundException {
-                    try {
-                        return session.getClient().list(FTPCmd.MLSD);
+                public AttributedList<Path> execute() throws BackgroundException {
+                    try (FTPClient.DataReplyIterator lines = session.getClient().listIterator(FTPCmd.MLSD, null)) {
+                        try {
+                            // Parse lines as received from data connection
+                            return reader.read(directory, lines, listener);
+                        }
+                        catch(FTPInvalidListException e) {
+                            // Prefer failure reply from server
+                            lines.close();
+                            invalid.set(e);
+                            return e.getParsed();
+                        }
+                    }
+                    catch(UncheckedIOException e) {
+                        throw new FTPExceptionMappingService().map(e.getCause());
                     }
                     catch(IOException e) {
                         throw new FTPExceptionMappingService().map(e);
                     }
                 }
             });
-            return reader.read(directory, list);
+            if(invalid.get() != null) {
+                throw invalid.get();
+            }
+            return list;
         }
         catch(IOException e) {
             throw new FTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
@@ -16,6 +16,7 @@ package ch.cyberduck.core.ftp.list;
  */
 
 import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.exception.ListCanceledException;
@@ -27,10 +28,13 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -232,4 +236,56 @@ public class FTPListResponseReaderTest {
         assertNull(list.get(2).getSymlinkTarget());
         assertFalse(list.get(2).isSymbolicLink());
     }
+
+    @Test
+    public void testReadIncremental() throws Exception {
+        final List<String> lines = Arrays.asList(
+                "total 2",
+                "drwxr-xr-x   2 dkocher  staff  68 Nov  2  2015 a",
+                "-rw-r--r--   1 dkocher  staff  12 Nov  2  2015 b"
+        );
+        final List<Integer> chunks = new ArrayList<>();
+        final AttributedList<Path> list = new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"), false, 1)
+                .read(new Path("/", EnumSet.of(Path.Type.directory)), lines.iterator(), new DisabledListProgressListener() {
+                    @Override
+                    public void chunk(final Path parent, final AttributedList<Path> list) {
+                        chunks.add(list.size());
+                    }
+                });
+        assertEquals(2, list.size());
+        // Listener notified after every entry parsed
+        assertEquals(Arrays.asList(1, 2), chunks);
+        assertTrue(list.get(0).isDirectory());
+        assertEquals(12L, list.get(1).attributes().getSize());
+        assertEquals(new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"))
+                .read(new Path("/", EnumSet.of(Path.Type.directory)), new ArrayList<>(lines)), list);
+    }
+
+    @Test
+    public void testReadIncrementalLargeListing() throws Exception {
+        final int count = 10000;
+        final Iterator<String> lines = new Iterator<String>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < count;
+            }
+
+            @Override
+            public String next() {
+                return String.format("-rw-r--r--   1 dkocher  staff  %d Nov  2  2015 f%d", i, i++);
+            }
+        };
+        final AtomicInteger chunks = new AtomicInteger();
+        final AttributedList<Path> list = new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"), false, 1000)
+                .read(new Path("/", EnumSet.of(Path.Type.directory)), lines, new DisabledListProgressListener() {
+                    @Override
+                    public void chunk(final Path parent, final AttributedList<Path> list) {
+                        chunks.incrementAndGet();
+                    }
+                });
+        assertEquals(count, list.size());
+        assertEquals(count / 1000, chunks.get());
+    }
 }
@@ -37,7 +37,7 @@ public class DriveFileIdProvider extends CachingFileIdProvider implements FileId
     private final DriveSession session;
 
     public DriveFileIdProvider(final DriveSession session) {
-        super(session.getCaseSensitivity());
+        super(session.getHost(), session.getCaseSensitivity());
         this.session = session;
     }
 
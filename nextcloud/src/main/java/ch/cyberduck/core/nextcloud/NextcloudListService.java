@@ -15,40 +15,32 @@ package ch.cyberduck.core.nextcloud;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.Path;
 import ch.cyberduck.core.dav.DAVAttributesFinderFeature;
 import ch.cyberduck.core.dav.DAVListService;
-import ch.cyberduck.core.dav.DAVPathEncoder;
 import ch.cyberduck.core.dav.DAVSession;
 import ch.cyberduck.core.dav.DAVTimestampFeature;
 
-import java.io.IOException;
-import java.util.List;
+import javax.xml.namespace.QName;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.github.sardine.DavResource;
-
 public class NextcloudListService extends DAVListService {
 
-    private final DAVSession session;
-
     public NextcloudListService(final DAVSession session) {
         this(session, new NextcloudAttributesFinderFeature(session));
     }
 
     public NextcloudListService(final DAVSession session, final DAVAttributesFinderFeature attributes) {
         super(session, attributes);
-        this.session = session;
     }
 
     @Override
-    protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
-                Stream.of(
-                                NextcloudAttributesFinderFeature.FILEID_CUSTOM_NAMESPACE,
-                                DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
-                                DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
-                        collect(Collectors.toSet()));
+    protected Set<QName> properties() {
+        return Stream.of(
+                        NextcloudAttributesFinderFeature.FILEID_CUSTOM_NAMESPACE,
+                        DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
+                        DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
+                collect(Collectors.toSet());
     }
 }
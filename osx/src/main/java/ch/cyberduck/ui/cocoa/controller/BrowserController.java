@@ -1813,9 +1813,11 @@ public class BrowserController extends WindowController implements NSToolbar.Del
                                 @Override
                                 public void callback(int returncode) {
                                     if(returncode == DEFAULT_OPTION) {
+                                        final SessionPool concurrent = preferences.getBoolean("browser.list.concurrent.enable") ?
+                                                pool.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateful ? SessionPoolFactory.create(BrowserController.this, pool.getHost()) : pool : null;
                                         // Delay render until path is cached in the background
                                         background(new WorkerBackgroundAction<>(BrowserController.this, pool,
-                                                new SearchWorker(workdir, filenameFilter, cache, listener) {
+                                                new SearchWorker(workdir, filenameFilter, cache, listener, concurrent) {
                                                     @Override
                                                     public void cleanup(final AttributedList<Path> list) {
                                                         super.cleanup(list);
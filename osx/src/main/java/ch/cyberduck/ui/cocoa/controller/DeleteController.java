@@ -21,8 +21,12 @@ import ch.cyberduck.binding.application.NSAlert;
 import ch.cyberduck.binding.application.SheetCallback;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.LoginCallbackFactory;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.Protocol;
+import ch.cyberduck.core.SessionPoolFactory;
+import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.WorkerBackgroundAction;
@@ -78,8 +82,11 @@ public class DeleteController extends ProxyController {
             @Override
             public void callback(final int returncode) {
                 if(returncode == DEFAULT_OPTION) {
+                    final SessionPool concurrent = PreferencesFactory.get().getBoolean("browser.list.concurrent.enable") ?
+                            pool.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateful ? SessionPoolFactory.create(parent, pool.getHost()) : pool : null;
                     parent.background(new WorkerBackgroundAction<>(parent, pool,
-                                    new DeleteWorker(LoginCallbackFactory.get(parent), normalized, parent, trash) {
+                                    new DeleteWorker(LoginCallbackFactory.get(parent), normalized, parent, new NullFilter<>(), trash,
+                                            new Delete.DisabledCallback(), concurrent) {
                                         @Override
                                         public void cleanup(final List<Path> deleted) {
                                             callback.done(deleted);
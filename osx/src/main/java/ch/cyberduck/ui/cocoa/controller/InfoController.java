@@ -2571,8 +2571,10 @@ public class InfoController extends ToolbarWindowController {
     @Action
     public void calculateSizeButtonClicked(final ID sender) {
         if(this.toggleSizeSettings(false)) {
+            final SessionPool concurrent = preferences.getBoolean("browser.list.concurrent.enable") ?
+                    session.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateful ? SessionPoolFactory.create(controller, session.getHost()) : session : null;
             this.background(new WorkerBackgroundAction<>(controller, session,
-                    new CalculateSizeWorker(files, controller) {
+                    new CalculateSizeWorker(files, controller, concurrent) {
                         @Override
                         public void cleanup(final Long size) {
                             setSize(size);
@@ -70,6 +70,7 @@ import ch.cyberduck.core.profiles.PeriodicProfilesUpdater;
 import ch.cyberduck.core.profiles.ProfilesUpdater;
 import ch.cyberduck.core.resources.IconCacheFactory;
 import ch.cyberduck.core.serializer.HostDictionary;
+import ch.cyberduck.core.synchronization.LocalChecksumIndex;
 import ch.cyberduck.core.threading.AbstractBackgroundAction;
 import ch.cyberduck.core.threading.DefaultBackgroundExecutor;
 import ch.cyberduck.core.transfer.DownloadTransfer;
@@ -1203,6 +1204,10 @@ public class MainController extends BundleController implements NSApplication.De
         OAuth2TokenListenerRegistry.get().shutdown();
         // Clear temporary files
         TemporaryFileServiceFactory.get().shutdown();
+        // Close index of checksums for local files
+        LocalChecksumIndex.get().close();
+        // Close saved directory listings
+        PersistentPathIndex.shutdown();
         //Terminating rendezvous discovery
         RendezvousFactory.instance().quit();
         // Remove notifications from center
@@ -19,6 +19,7 @@ package ch.cyberduck.core.s3;
 
 import ch.cyberduck.core.BytecountStreamListener;
 import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
@@ -30,11 +31,17 @@ import ch.cyberduck.core.exception.ChecksumException;
 import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.http.HttpExceptionMappingService;
 import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.io.StreamCancelation;
+import ch.cyberduck.core.io.StreamCopier;
 import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.io.ThrottledOutputStream;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
 import ch.cyberduck.core.threading.ThreadPool;
@@ -42,6 +49,8 @@ import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.NullInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -52,6 +61,10 @@ import org.jets3t.service.model.MultipartUpload;
 import org.jets3t.service.model.S3Object;
 import org.jets3t.service.model.StorageObject;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.security.MessageDigest;
 import java.text.MessageFormat;
 import java.util.ArrayList;
@@ -75,6 +88,10 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
      */
     private final Long partsize;
     private final Integer concurrency;
+    /**
+     * Maximum size of part read into memory to compute hash for AWS4 signature
+     */
+    private final Long buffer;
 
     public S3MultipartUploadService(final S3Session session, final Write<StorageObject> writer, final S3AccessControlListFeature acl) {
         this(session, writer, acl, new HostPreferences(session.getHost()).getLong("s3.upload.multipart.size"),
@@ -90,6 +107,7 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         this.acl = acl;
         this.partsize = Math.max(new HostPreferences(session.getHost()).getLong("s3.upload.multipart.partsize.minimum"), partsize);
         this.concurrency = concurrency;
+        this.buffer = new HostPreferences(session.getHost()).getLong("s3.upload.multipart.buffer.threshold");
     }
 
     @Override
@@ -230,14 +248,27 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 status.setParameters(requestParameters);
                 status.setPart(partNumber);
                 status.setHeader(overall.getHeader());
+                status.setSegment(true);
+                final StorageObject part;
                 switch(session.getSignatureVersion()) {
                     case AWS4HMACSHA256:
-                        status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                        if(length <= buffer) {
+                            // Read part once to compute hash and upload from same bytes
+                            final byte[] payload = S3MultipartUploadService.this.read(local, offset, length);
+                            status.setChecksum(S3MultipartUploadService.this.checksum(file, payload, status));
+                            part = S3MultipartUploadService.this.upload(file, payload, throttle, counter, status, overall, callback);
+                        }
+                        else {
+                            status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                            part = S3MultipartUploadService.super.upload(
+                                    file, local, throttle, counter, status, overall, status, callback);
+                        }
+                        break;
+                    default:
+                        part = S3MultipartUploadService.super.upload(
+                                file, local, throttle, counter, status, overall, status, callback);
                         break;
                 }
-                status.setSegment(true);
-                final StorageObject part = S3MultipartUploadService.super.upload(
-                        file, local, throttle, counter, status, overall, status, callback);
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Received response %s for part number %d", part, partNumber));
                 }
@@ -251,6 +282,53 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         }, overall, counter));
     }
 
+    /**
+     * @return Contents of part in file
+     */
+    byte[] read(final Local local, final long offset, final long length) throws BackgroundException {
+        final byte[] payload = new byte[(int) length];
+        final InputStream in = local.getInputStream();
+        try {
+            IOUtils.readFully(StreamCopier.skip(in, offset), payload, 0, (int) length);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e);
+        }
+        finally {
+            IOUtils.closeQuietly(in);
+        }
+        return payload;
+    }
+
+    /**
+     * @param payload Contents of part read into memory
+     * @param status  Part status with offset, header and nonces reused when writing the part
+     * @return Checksum of part contents
+     */
+    Checksum checksum(final Path file, final byte[] payload, final TransferStatus status) throws BackgroundException {
+        // Skipped to offset of part in file
+        return writer.checksum(file, status).compute(new SequenceInputStream(
+                new NullInputStream(status.getOffset()), new ByteArrayInputStream(payload, 0, (int) status.getLength())), status);
+    }
+
+    private StorageObject upload(final Path file, final byte[] payload, final BandwidthThrottle throttle, final StreamListener listener,
+                                 final TransferStatus status, final StreamCancelation cancel, final ConnectionCallback callback) throws BackgroundException {
+        try {
+            final StatusOutputStream<StorageObject> out = writer.write(file, status, callback);
+            new StreamCopier(cancel, status)
+                    .withLimit(status.getLength())
+                    .withListener(listener)
+                    .transfer(new ByteArrayInputStream(payload, 0, (int) status.getLength()), new ThrottledOutputStream(out, throttle));
+            return out.getStatus();
+        }
+        catch(BackgroundException e) {
+            if(e.getCause() instanceof IOException) {
+                throw new HttpExceptionMappingService().map("Upload {0} failed", (IOException) e.getCause(), file);
+            }
+            throw e;
+        }
+    }
+
     @Override
     public Upload<StorageObject> withWriter(final Write<StorageObject> writer) {
         this.writer = writer;
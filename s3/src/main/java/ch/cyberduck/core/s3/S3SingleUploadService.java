@@ -27,6 +27,7 @@ import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.io.HashAlgorithm;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
@@ -41,6 +42,8 @@ import java.io.InputStream;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.Map;
 
 public class S3SingleUploadService extends HttpUploadFeature<StorageObject, MessageDigest> {
     private static final Logger log = LogManager.getLogger(S3SingleUploadService.class);
@@ -58,16 +61,40 @@ public class S3SingleUploadService extends HttpUploadFeature<StorageObject, Mess
     public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle,
                                 final StreamListener listener, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
         final S3Protocol.AuthenticationHeaderSignatureVersion signatureVersion = session.getSignatureVersion();
+        // MD5 calculated before upload
+        Checksum md5 = Checksum.NONE;
         switch(signatureVersion) {
             case AWS4HMACSHA256:
                 if(!HashAlgorithm.sha256.equals(status.getChecksum().algorithm)) {
                     // Checksum not set in upload filter
-                    status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                    if(!file.getType().contains(Path.Type.encrypted)
+                            && new HostPreferences(session.getHost()).getBoolean("queue.upload.checksum.calculate")) {
+                        // Calculate MD5 to verify upload together with SHA-256 reading file once
+                        final Map<HashAlgorithm, Checksum> checksums = ChecksumComputeFactory.get(
+                                EnumSet.of(HashAlgorithm.sha256, HashAlgorithm.md5)).compute(local, status);
+                        status.setChecksum(checksums.get(HashAlgorithm.sha256));
+                        md5 = checksums.get(HashAlgorithm.md5);
+                    }
+                    else {
+                        status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                    }
                 }
                 break;
         }
         try {
-            return super.upload(file, local, throttle, listener, status, callback);
+            if(Checksum.NONE == md5) {
+                return super.upload(file, local, throttle, listener, status, callback);
+            }
+            // Upload without digest
+            final StorageObject response = new HttpUploadFeature<StorageObject, MessageDigest>(writer)
+                    .upload(file, local, throttle, listener, status, callback);
+            if(null != response.getServerSideEncryptionAlgorithm()) {
+                log.warn(String.format("Skip checksum verification for %s with server side encryption enabled", file));
+            }
+            else {
+                this.verify(file, md5, Checksum.parse(response.getETag()));
+            }
+            return response;
         }
         catch(InteroperabilityException e) {
             if(!session.getSignatureVersion().equals(signatureVersion)) {
@@ -0,0 +1,57 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2023 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class S3MultipartUploadServiceReadTest {
+
+    @Test
+    public void testReadPart() throws Exception {
+        final S3Session session = new S3Session(new Host(new S3Protocol()));
+        final S3AccessControlListFeature acl = new S3AccessControlListFeature(session);
+        final S3MultipartUploadService service = new S3MultipartUploadService(session, new S3WriteFeature(session, acl), acl, 5 * 1024L * 1024L, 1);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final byte[] content = RandomUtils.nextBytes(1000);
+        Files.write(Paths.get(local.getAbsolute()), content);
+        final Path file = new Path("/b/f", EnumSet.of(Path.Type.file));
+        final byte[] first = service.read(local, 0L, 600L);
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 600), first);
+        assertEquals(ChecksumComputeFactory.get(HashAlgorithm.sha256).compute(local.getInputStream(), new TransferStatus().withLength(600L)),
+                service.checksum(file, first, new TransferStatus().withOffset(0L).withLength(600L)));
+        final byte[] last = service.read(local, 600L, 400L);
+        assertArrayEquals(Arrays.copyOfRange(content, 600, 1000), last);
+        assertEquals(ChecksumComputeFactory.get(HashAlgorithm.sha256).compute(local.getInputStream(), new TransferStatus().withOffset(600L).withLength(400L)),
+                service.checksum(file, last, new TransferStatus().withOffset(600L).withLength(400L)));
+        local.delete();
+    }
+}
@@ -38,7 +38,7 @@ public class StoregateIdProvider extends CachingFileIdProvider implements FileId
     private final StoregateSession session;
 
     public StoregateIdProvider(final StoregateSession session) {
-        super(session.getCaseSensitivity());
+        super(session.getHost(), session.getCaseSensitivity());
         this.session = session;
     }
 
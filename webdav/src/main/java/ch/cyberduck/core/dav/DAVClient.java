@@ -30,18 +30,24 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineImpl;
 import com.github.sardine.impl.handler.MultiStatusResponseHandler;
 import com.github.sardine.impl.methods.HttpPropFind;
+import com.github.sardine.model.Allprop;
 import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.ObjectFactory;
+import com.github.sardine.model.Prop;
 import com.github.sardine.model.Propfind;
 import com.github.sardine.model.Response;
 import com.github.sardine.util.SardineUtil;
@@ -97,6 +103,62 @@ public class DAVClient extends SardineImpl {
         return resources;
     }
 
+    /**
+     * List resources with default and custom properties passing each response to the listener while parsing
+     *
+     * @param props    Custom properties to request
+     * @param listener Callback for each response received
+     */
+    public void list(final String url, final int depth, final Set<QName> props,
+                     final SaxPropFindResponseHandler.ResponseListener listener) throws IOException {
+        final Propfind body = new Propfind();
+        final Prop prop = new Prop();
+        final ObjectFactory factory = new ObjectFactory();
+        prop.setGetcontentlength(factory.createGetcontentlength());
+        prop.setGetlastmodified(factory.createGetlastmodified());
+        prop.setCreationdate(factory.createCreationdate());
+        prop.setDisplayname(factory.createDisplayname());
+        prop.setGetcontenttype(factory.createGetcontenttype());
+        prop.setResourcetype(factory.createResourcetype());
+        prop.setGetetag(factory.createGetetag());
+        for(QName name : props) {
+            prop.getAny().add(SardineUtil.createElement(name));
+        }
+        body.setProp(prop);
+        this.propfind(url, depth, body, listener);
+    }
+
+    /**
+     * List resources passing each response to the listener while parsing
+     *
+     * @param allProp  Request all properties
+     * @param listener Callback for each response received
+     */
+    public void list(final String url, final int depth, final boolean allProp,
+                     final SaxPropFindResponseHandler.ResponseListener listener) throws IOException {
+        if(allProp) {
+            final Propfind body = new Propfind();
+            body.setAllprop(new Allprop());
+            this.propfind(url, depth, body, listener);
+        }
+        else {
+            this.list(url, depth, Collections.emptySet(), listener);
+        }
+    }
+
+    /**
+     * Streaming PROPFIND not keeping responses in memory
+     *
+     * @param listener Callback for each response received
+     */
+    public void propfind(final String url, final int depth, final Propfind body,
+                         final SaxPropFindResponseHandler.ResponseListener listener) throws IOException {
+        final HttpPropFind entity = new HttpPropFind(url);
+        entity.setDepth(depth < 0 ? "infinity" : Integer.toString(depth));
+        entity.setEntity(new StringEntity(SardineUtil.toXml(body), StandardCharsets.UTF_8));
+        this.execute(entity, new SaxPropFindResponseHandler(listener));
+    }
+
     public HttpClientContext context() {
         return context;
     }
@@ -30,12 +30,16 @@ import ch.cyberduck.core.http.HttpExceptionMappingService;
 import ch.cyberduck.core.preferences.HostPreferences;
 
 import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.xml.namespace.QName;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -61,20 +65,41 @@ public class DAVListService implements ListService {
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
         try {
             final AttributedList<Path> children = new AttributedList<>();
-            for(List<DavResource> list : ListUtils.partition(this.list(directory),
-                    new HostPreferences(session.getHost()).getInteger("webdav.listing.chunksize"))) {
-                for(final DavResource resource : list) {
-                    if(new SimplePathPredicate(new Path(resource.getHref().getPath(), EnumSet.of(Path.Type.directory))).test(directory)) {
-                        log.warn(String.format("Ignore resource %s", resource));
-                        // Do not include self
-                        if(resource.isDirectory()) {
-                            continue;
+            final int chunksize = new HostPreferences(session.getHost()).getInteger("webdav.listing.chunksize");
+            if(new HostPreferences(session.getHost()).getBoolean("webdav.list.handler.sax")) {
+                // Add each resource to listing as soon as parsed from response
+                this.list(directory, response -> {
+                    final DavResource resource;
+                    try {
+                        resource = new DavResource(response);
+                    }
+                    catch(URISyntaxException e) {
+                        log.warn(String.format("Ignore resource with invalid URI %s", response.getHref()));
+                        return;
+                    }
+                    try {
+                        final Path file = this.toPath(directory, resource);
+                        if(null == file) {
+                            return;
                         }
-                        throw new NotfoundException(directory.getAbsolute());
+                        children.add(file);
+                        if(children.size() % chunksize == 0) {
+                            listener.chunk(directory, children);
+                        }
+                    }
+                    catch(BackgroundException e) {
+                        throw new IOException(e.getMessage(), e);
+                    }
+                });
+                listener.chunk(directory, children);
+                return children;
+            }
+            for(List<DavResource> list : ListUtils.partition(this.list(directory), chunksize)) {
+                for(final DavResource resource : list) {
+                    final Path file = this.toPath(directory, resource);
+                    if(null == file) {
+                        continue;
                     }
-                    final PathAttributes attr = attributes.toAttributes(resource);
-                    final Path file = new Path(directory, PathNormalizer.name(resource.getHref().getPath()),
-                            resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
                     children.add(file);
                     listener.chunk(directory, children);
                 }
@@ -88,15 +113,51 @@ public class DAVListService implements ListService {
             throw new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
         }
         catch(IOException e) {
+            for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
+                if(cause instanceof BackgroundException) {
+                    // Failure in listener while parsing
+                    throw (BackgroundException) cause;
+                }
+            }
             throw new HttpExceptionMappingService().map(e, directory);
         }
     }
 
+    /**
+     * @return Null when resource is the directory itself
+     */
+    private Path toPath(final Path directory, final DavResource resource) throws NotfoundException {
+        if(new SimplePathPredicate(new Path(resource.getHref().getPath(), EnumSet.of(Path.Type.directory))).test(directory)) {
+            log.warn(String.format("Ignore resource %s", resource));
+            // Do not include self
+            if(resource.isDirectory()) {
+                return null;
+            }
+            throw new NotfoundException(directory.getAbsolute());
+        }
+        final PathAttributes attr = attributes.toAttributes(resource);
+        return new Path(directory, PathNormalizer.name(resource.getHref().getPath()),
+                resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
+    }
+
     protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
-                Stream.of(
-                                DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
-                                DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
-                        collect(Collectors.toSet()));
+        return session.getClient().list(new DAVPathEncoder().encode(directory), 1, this.properties());
+    }
+
+    /**
+     * Streaming listing passing each response to listener while parsing
+     */
+    protected void list(final Path directory, final SaxPropFindResponseHandler.ResponseListener listener) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), 1, this.properties(), listener);
+    }
+
+    /**
+     * @return Custom properties to request in addition to default properties
+     */
+    protected Set<QName> properties() {
+        return Stream.of(
+                        DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
+                        DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
+                collect(Collectors.toSet());
     }
 }
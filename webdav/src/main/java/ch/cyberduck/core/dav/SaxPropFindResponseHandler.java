@@ -41,6 +41,25 @@ import com.github.sardine.util.SardineUtil;
 public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
     private static final Logger log = LogManager.getLogger(SaxPropFindResponseHandler.class);
 
+    /**
+     * Receive each response when parsed or null to collect all responses in multistatus
+     */
+    private final ResponseListener listener;
+
+    public SaxPropFindResponseHandler() {
+        this(null);
+    }
+
+    /**
+     * Streaming mode with each response passed to listener as soon as its element is closed and not added to
+     * the multistatus returned
+     *
+     * @param listener Callback for parsed response
+     */
+    public SaxPropFindResponseHandler(final ResponseListener listener) {
+        this.listener = listener;
+    }
+
     @Override
     protected Multistatus getMultistatus(final InputStream stream) throws IOException {
         final SAXParserFactory spf = SAXParserFactory.newInstance();
@@ -48,7 +67,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         try {
             final SAXParser saxParser = spf.newSAXParser();
             final XMLReader xmlReader = saxParser.getXMLReader();
-            final SaxHandler handler = new SaxHandler();
+            final SaxHandler handler = new SaxHandler(listener);
             xmlReader.setContentHandler(handler);
             xmlReader.setErrorHandler(new LoggingErrorHandler());
             xmlReader.parse(new InputSource(stream));
@@ -59,8 +78,14 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
     }
 
+    public interface ResponseListener {
+        void response(Response response) throws IOException;
+    }
+
     private static final class SaxHandler extends DefaultHandler {
 
+        private final ResponseListener listener;
+
         private Multistatus multistatus;
         private Response response;
         private Propstat propstat;
@@ -73,6 +98,10 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         private final StringBuilder text = new StringBuilder();
         private final Element root = SardineUtil.createElement(SardineUtil.createQNameWithCustomNamespace("root"));
 
+        public SaxHandler(final ResponseListener listener) {
+            this.listener = listener;
+        }
+
         @Override
         public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
             switch(localName) {
@@ -81,7 +110,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     break;
                 case "response":
                     response = new Response();
-                    if(multistatus != null) {
+                    if(multistatus != null && listener == null) {
                         multistatus.getResponse().add(response);
                     }
                     break;
@@ -135,7 +164,18 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
 
         @Override
-        public void endElement(final String uri, final String localName, final String qName) {
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if("response".equals(localName) && listener != null && response != null) {
+                final Response parsed = response;
+                response = null;
+                try {
+                    listener.response(parsed);
+                }
+                catch(IOException e) {
+                    throw new SAXException(e);
+                }
+                return;
+            }
             if(StringUtils.isBlank(text.toString())) {
                 return;
             }
@@ -20,6 +20,7 @@ import ch.cyberduck.core.dav.DAVAttributesFinderFeature;
 import ch.cyberduck.core.dav.DAVListService;
 import ch.cyberduck.core.dav.DAVPathEncoder;
 import ch.cyberduck.core.dav.DAVSession;
+import ch.cyberduck.core.dav.SaxPropFindResponseHandler;
 
 import java.io.IOException;
 import java.util.List;
@@ -39,4 +40,9 @@ public class MicrosoftIISDAVListService extends DAVListService {
     protected List<DavResource> list(final Path directory) throws IOException {
         return session.getClient().list(new DAVPathEncoder().encode(directory), 1, true);
     }
+
+    @Override
+    protected void list(final Path directory, final SaxPropFindResponseHandler.ResponseListener listener) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), 1, true, listener);
+    }
 }